@@ -0,0 +1,35 @@
+package com.lizhe.bhrpcannotation;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * RpcMethod
+ * {@code @description} 服务消费者方法级别的配置，在@RpcReference的methods属性中使用
+ * 未配置的属性沿用@RpcReference上的配置
+ *
+ * @author lizhe@joysuch.com
+ * {@code @date} 2025/3/4 上午10:32
+ * @version 1.0
+ */
+@Target({})
+@Retention(RetentionPolicy.RUNTIME)
+public @interface RpcMethod {
+
+    /**
+     * 方法名称
+     */
+    String name();
+
+    /**
+     * 序列化类型，为空时使用@RpcReference的serializationType
+     */
+    String serializationType() default "";
+
+    /**
+     * 超时时间，单位毫秒，小于等于0时使用@RpcReference的timeout
+     */
+    long timeout() default 0;
+}
@@ -61,7 +61,13 @@ public @interface RpcReference {
     boolean oneway() default false;
 
     /**
-     * 代理的类型，jdk：jdk代理， javassist: javassist代理, cglib: cglib代理
+     * 异步回调的执行方式，direct：在收到响应的线程中直接执行，pool：共享的回调线程池，
+     * 其他名称为通过RpcCallbackExecutors.register登记的Executor
+     */
+    String callbackExecutor() default "pool";
+
+    /**
+     * 代理的类型，jdk：jdk代理， javassist: javassist代理, cglib: cglib代理, generated: 编译期生成的存根
      */
     String proxy() default "jdk";
 
@@ -70,4 +76,9 @@ public @interface RpcReference {
      */
     String group() default "";
 
+    /**
+     * 方法级别的配置，例如为单个方法指定序列化类型，未配置的方法沿用当前注解上的配置
+     */
+    RpcMethod[] methods() default {};
+
 }
@@ -0,0 +1,449 @@
+package com.lizhe.bhrpcannotation.processor;
+
+import com.lizhe.bhrpcannotation.RpcReference;
+import com.lizhe.bhrpcannotation.RpcService;
+import com.lizhe.bhrpcannotation.stub.RpcStubNames;
+
+import javax.annotation.processing.AbstractProcessor;
+import javax.annotation.processing.RoundEnvironment;
+import javax.annotation.processing.SupportedAnnotationTypes;
+import javax.lang.model.SourceVersion;
+import javax.lang.model.element.AnnotationMirror;
+import javax.lang.model.element.AnnotationValue;
+import javax.lang.model.element.Element;
+import javax.lang.model.element.ElementKind;
+import javax.lang.model.element.ExecutableElement;
+import javax.lang.model.element.Modifier;
+import javax.lang.model.element.TypeElement;
+import javax.lang.model.element.VariableElement;
+import javax.lang.model.type.DeclaredType;
+import javax.lang.model.type.ExecutableType;
+import javax.lang.model.type.PrimitiveType;
+import javax.lang.model.type.TypeKind;
+import javax.lang.model.type.TypeMirror;
+import javax.lang.model.util.ElementFilter;
+import javax.tools.Diagnostic;
+import javax.tools.FileObject;
+import javax.tools.JavaFileObject;
+import javax.tools.StandardLocation;
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.Reader;
+import java.io.Writer;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * RpcStubProcessor
+ * {@code @description} 编译期生成客户端存根、服务端骨架和服务索引的注解处理器
+ * 1. @RpcService标注的实现类：为其服务接口生成骨架，骨架按方法下标用switch直接调用服务实例，参数按类型强制转换，
+ * 并把实现类、服务接口、版本号和分组写入服务索引，服务启动时按索引加载服务，不需要扫描类路径
+ * 2. @RpcReference标注的字段：为字段的接口类型生成存根，存根实现服务接口，每个方法按下标调用RpcStubInvoker
+ * 生成的代码只依赖服务接口和bhrpc-annotation中的类型，命名规则见RpcStubNames
+ * 泛型类型按擦除后的类型生成，服务接口不是接口或者是private的嵌套接口时跳过并输出提示
+ * 3. 增量编译只处理本次编译的类，写出索引时合并输出目录中已有的索引，保留仍然存在且仍标注@RpcService的实现类
+ *
+ * @author lizhe@joysuch.com
+ * {@code @date} 2025/3/25 上午10:06
+ * @version 1.0
+ */
+@SupportedAnnotationTypes({"com.lizhe.bhrpcannotation.RpcService", "com.lizhe.bhrpcannotation.RpcReference"})
+public class RpcStubProcessor extends AbstractProcessor {
+
+    private final Set<String> generatedStubs = new HashSet<>();
+
+    private final Set<String> generatedSkeletons = new HashSet<>();
+
+    /**
+     * 本次编译的服务索引，key为实现类的二进制名称
+     */
+    private final Map<String, String> indexLines = new LinkedHashMap<>();
+
+    private final List<Element> indexElements = new ArrayList<>();
+
+    @Override
+    public SourceVersion getSupportedSourceVersion() {
+        return SourceVersion.latestSupported();
+    }
+
+    @Override
+    public boolean process(Set<? extends TypeElement> annotations, RoundEnvironment roundEnv) {
+        for (Element element : roundEnv.getElementsAnnotatedWith(RpcService.class)) {
+            if (element.getKind() == ElementKind.CLASS) {
+                processService((TypeElement) element);
+            }
+        }
+        for (Element element : roundEnv.getElementsAnnotatedWith(RpcReference.class)) {
+            if (element.getKind() == ElementKind.FIELD) {
+                processReference((VariableElement) element);
+            }
+        }
+        if (roundEnv.processingOver() && !indexLines.isEmpty()) {
+            writeIndex();
+        }
+        return false;
+    }
+
+    private void processService(TypeElement serviceClass) {
+        RpcService rpcService = serviceClass.getAnnotation(RpcService.class);
+        String serviceName = getServiceName(serviceClass);
+        // 无法生成骨架的服务也写入索引，服务启动时按索引加载的服务与扫描类路径的结果一致
+        String serviceClassName = binaryName(serviceClass);
+        indexLines.put(serviceClassName, String.join(RpcStubNames.INDEX_SEPARATOR, serviceClassName, serviceName, rpcService.version(), rpcService.group()));
+        indexElements.add(serviceClass);
+        TypeElement serviceInterface = serviceName.isEmpty() ? null : processingEnv.getElementUtils().getTypeElement(serviceName.replace('$', '.'));
+        if (isGeneratable(serviceInterface, serviceClass) && generatedSkeletons.add(serviceName)) {
+            String className = RpcStubNames.skeletonClassName(serviceName);
+            write(className, skeletonSource(serviceInterface, className), serviceClass);
+        }
+    }
+
+    private void processReference(VariableElement field) {
+        TypeMirror type = field.asType();
+        TypeElement serviceInterface = type.getKind() == TypeKind.DECLARED ? (TypeElement) ((DeclaredType) type).asElement() : null;
+        if (!isGeneratable(serviceInterface, field)) {
+            return;
+        }
+        String interfaceName = binaryName(serviceInterface);
+        if (generatedStubs.add(interfaceName)) {
+            String className = RpcStubNames.stubClassName(interfaceName);
+            write(className, stubSource(serviceInterface, className), field);
+        }
+    }
+
+    /**
+     * 与运行时的RpcServiceScanner一致，优先使用interfaceClass的名称，其次使用interfaceClassName
+     */
+    private String getServiceName(TypeElement serviceClass) {
+        String interfaceClassName = "";
+        for (AnnotationMirror mirror : serviceClass.getAnnotationMirrors()) {
+            if (!((TypeElement) mirror.getAnnotationType().asElement()).getQualifiedName().contentEquals(RpcService.class.getName())) {
+                continue;
+            }
+            for (Map.Entry<? extends ExecutableElement, ? extends AnnotationValue> entry : mirror.getElementValues().entrySet()) {
+                String name = entry.getKey().getSimpleName().toString();
+                Object value = entry.getValue().getValue();
+                if ("interfaceClass".equals(name) && value instanceof DeclaredType) {
+                    return binaryName((TypeElement) ((DeclaredType) value).asElement());
+                }
+                if ("interfaceClassName".equals(name)) {
+                    interfaceClassName = value.toString();
+                }
+            }
+        }
+        return interfaceClassName;
+    }
+
+    private boolean isGeneratable(TypeElement serviceInterface, Element source) {
+        if (serviceInterface == null || serviceInterface.getKind() != ElementKind.INTERFACE || serviceInterface.getModifiers().contains(Modifier.PRIVATE)) {
+            processingEnv.getMessager().printMessage(Diagnostic.Kind.NOTE, "bhrpc stub/skeleton not generated, service type is not an accessible interface", source);
+            return false;
+        }
+        return true;
+    }
+
+    /**
+     * 服务接口中需要远程调用的方法，包括继承的方法，不包括静态方法和private方法
+     * 方法类型按服务接口解析，继承自泛型父接口的方法使用服务接口指定的类型实参
+     */
+    private List<ServiceMethod> serviceMethods(TypeElement serviceInterface) {
+        DeclaredType interfaceType = (DeclaredType) serviceInterface.asType();
+        List<ServiceMethod> methods = new ArrayList<>();
+        for (ExecutableElement method : ElementFilter.methodsIn(processingEnv.getElementUtils().getAllMembers(serviceInterface))) {
+            Set<Modifier> modifiers = method.getModifiers();
+            if (method.getEnclosingElement().getKind() == ElementKind.INTERFACE
+                    && (modifiers.contains(Modifier.ABSTRACT) || modifiers.contains(Modifier.DEFAULT))) {
+                methods.add(new ServiceMethod(method, (ExecutableType) processingEnv.getTypeUtils().asMemberOf(interfaceType, method)));
+            }
+        }
+        return methods;
+    }
+
+    private String skeletonSource(TypeElement serviceInterface, String className) {
+        List<ServiceMethod> methods = serviceMethods(serviceInterface);
+        String interfaceType = typeName(serviceInterface.asType());
+        StringBuilder source = header(className);
+        source.append("public final class ").append(simpleName(className)).append(" implements com.lizhe.bhrpcannotation.stub.RpcServiceSkeleton {\n\n");
+        appendParameterTypes(source, "private", methods);
+        source.append("    @Override\n");
+        source.append("    public Class<?> getServiceInterface() {\n");
+        source.append("        return ").append(interfaceType).append(".class;\n");
+        source.append("    }\n\n");
+        // 同名方法放在同一个case中按参数类型区分
+        Map<String, List<Integer>> overloads = new LinkedHashMap<>();
+        for (int i = 0; i < methods.size(); i++) {
+            overloads.computeIfAbsent(methods.get(i).getName().toString(), name -> new ArrayList<>()).add(i);
+        }
+        source.append("    @Override\n");
+        source.append("    public int getMethodIndex(String methodName, Class<?>[] parameterTypes) {\n");
+        source.append("        Class<?>[] types = parameterTypes == null ? new Class<?>[0] : parameterTypes;\n");
+        source.append("        switch (methodName) {\n");
+        for (Map.Entry<String, List<Integer>> entry : overloads.entrySet()) {
+            source.append("            case \"").append(entry.getKey()).append("\":\n");
+            for (int index : entry.getValue()) {
+                source.append("                if (java.util.Arrays.equals(types, PARAMETER_TYPES[").append(index).append("])) {\n");
+                source.append("                    return ").append(index).append(";\n");
+                source.append("                }\n");
+            }
+            source.append("                break;\n");
+        }
+        source.append("            default:\n");
+        source.append("                break;\n");
+        source.append("        }\n");
+        source.append("        return -1;\n");
+        source.append("    }\n\n");
+        source.append("    @Override\n");
+        source.append("    public Object invoke(Object serviceBean, int methodIndex, Object[] args) throws Throwable {\n");
+        source.append("        ").append(interfaceType).append(" service = (").append(interfaceType).append(") serviceBean;\n");
+        source.append("        switch (methodIndex) {\n");
+        for (int i = 0; i < methods.size(); i++) {
+            ServiceMethod method = methods.get(i);
+            StringBuilder call = new StringBuilder("service.").append(method.getName()).append('(');
+            List<? extends TypeMirror> parameterTypes = method.type.getParameterTypes();
+            for (int j = 0; j < parameterTypes.size(); j++) {
+                call.append(j == 0 ? "" : ", ").append('(').append(boxedTypeName(parameterTypes.get(j))).append(") args[").append(j).append(']');
+            }
+            call.append(')');
+            source.append("            case ").append(i).append(":\n");
+            if (method.type.getReturnType().getKind() == TypeKind.VOID) {
+                source.append("                ").append(call).append(";\n");
+                source.append("                return null;\n");
+            } else {
+                source.append("                return ").append(call).append(";\n");
+            }
+        }
+        source.append("            default:\n");
+        source.append("                throw new IllegalArgumentException(\"unknown method index \" + methodIndex);\n");
+        source.append("        }\n");
+        source.append("    }\n");
+        source.append("}\n");
+        return source.toString();
+    }
+
+    private String stubSource(TypeElement serviceInterface, String className) {
+        List<ServiceMethod> methods = serviceMethods(serviceInterface);
+        String interfaceType = typeName(serviceInterface.asType());
+        String simpleName = simpleName(className);
+        StringBuilder source = header(className);
+        source.append("public final class ").append(simpleName).append(" implements ").append(interfaceType).append(" {\n\n");
+        source.append("    public static final String[] METHOD_NAMES = {");
+        for (int i = 0; i < methods.size(); i++) {
+            source.append(i == 0 ? "" : ", ").append('"').append(methods.get(i).getName()).append('"');
+        }
+        source.append("};\n\n");
+        appendParameterTypes(source, "public", methods);
+        source.append("    private final com.lizhe.bhrpcannotation.stub.RpcStubInvoker invoker;\n\n");
+        source.append("    public ").append(simpleName).append("(com.lizhe.bhrpcannotation.stub.RpcStubInvoker invoker) {\n");
+        source.append("        this.invoker = invoker;\n");
+        source.append("    }\n");
+        for (int i = 0; i < methods.size(); i++) {
+            appendStubMethod(source, methods.get(i), i);
+        }
+        source.append("\n    @Override\n");
+        source.append("    public String toString() {\n");
+        source.append("        return \"RpcStub[").append(binaryName(serviceInterface)).append("]\";\n");
+        source.append("    }\n");
+        source.append("}\n");
+        return source.toString();
+    }
+
+    private void appendStubMethod(StringBuilder source, ServiceMethod method, int index) {
+        TypeMirror returnType = method.type.getReturnType();
+        List<? extends TypeMirror> parameterTypes = method.type.getParameterTypes();
+        List<? extends TypeMirror> thrownTypes = method.type.getThrownTypes();
+        source.append("\n    @Override\n");
+        source.append("    public ").append(typeName(returnType)).append(' ').append(method.getName()).append('(');
+        StringBuilder args = new StringBuilder();
+        for (int j = 0; j < parameterTypes.size(); j++) {
+            source.append(j == 0 ? "" : ", ").append(typeName(parameterTypes.get(j))).append(" arg").append(j);
+            args.append(j == 0 ? "" : ", ").append("arg").append(j);
+        }
+        source.append(')');
+        List<TypeMirror> checkedExceptions = checkedExceptions(thrownTypes);
+        boolean throwsThrowable = false;
+        for (int j = 0; j < thrownTypes.size(); j++) {
+            TypeMirror thrown = thrownTypes.get(j);
+            source.append(j == 0 ? " throws " : ", ").append(typeName(thrown));
+            throwsThrowable |= typeName(thrown).equals(Throwable.class.getName());
+        }
+        source.append(" {\n");
+        String invoke = "invoker.invoke(" + index + ", new Object[]{" + args + "})";
+        String statement = returnType.getKind() == TypeKind.VOID ? invoke + ";" : "return (" + boxedTypeName(returnType) + ") " + invoke + ";";
+        if (throwsThrowable) {
+            source.append("        ").append(statement).append('\n');
+            source.append("    }\n");
+            return;
+        }
+        source.append("        try {\n");
+        source.append("            ").append(statement).append('\n');
+        source.append("        } catch (RuntimeException | Error e) {\n");
+        source.append("            throw e;\n");
+        for (TypeMirror exception : checkedExceptions) {
+            source.append("        } catch (").append(typeName(exception)).append(" e) {\n");
+            source.append("            throw e;\n");
+        }
+        source.append("        } catch (Throwable t) {\n");
+        source.append("            throw new java.lang.reflect.UndeclaredThrowableException(t);\n");
+        source.append("        }\n");
+        source.append("    }\n");
+    }
+
+    /**
+     * 方法声明的受检异常，去掉RuntimeException、Error及已经被其他声明的异常覆盖的子类，避免重复catch
+     */
+    private List<TypeMirror> checkedExceptions(List<? extends TypeMirror> thrownTypes) {
+        TypeMirror runtimeException = processingEnv.getElementUtils().getTypeElement(RuntimeException.class.getName()).asType();
+        TypeMirror error = processingEnv.getElementUtils().getTypeElement(Error.class.getName()).asType();
+        List<TypeMirror> exceptions = new ArrayList<>();
+        for (TypeMirror thrown : thrownTypes) {
+            TypeMirror type = processingEnv.getTypeUtils().erasure(thrown);
+            if (processingEnv.getTypeUtils().isSubtype(type, runtimeException) || processingEnv.getTypeUtils().isSubtype(type, error)) {
+                continue;
+            }
+            boolean covered = false;
+            for (TypeMirror other : thrownTypes) {
+                TypeMirror otherType = processingEnv.getTypeUtils().erasure(other);
+                if (!processingEnv.getTypeUtils().isSameType(type, otherType) && processingEnv.getTypeUtils().isSubtype(type, otherType)) {
+                    covered = true;
+                    break;
+                }
+            }
+            if (!covered) {
+                exceptions.add(type);
+            }
+        }
+        return exceptions;
+    }
+
+    /**
+     * 参数类型按方法声明擦除，与接口Method的getParameterTypes一致，和其他代理方式发送的请求使用相同的方法签名
+     */
+    private void appendParameterTypes(StringBuilder source, String modifier, List<ServiceMethod> methods) {
+        source.append("    ").append(modifier).append(" static final Class<?>[][] PARAMETER_TYPES = {\n");
+        for (ServiceMethod method : methods) {
+            source.append("            {");
+            List<? extends VariableElement> parameters = method.element.getParameters();
+            for (int j = 0; j < parameters.size(); j++) {
+                source.append(j == 0 ? "" : ", ").append(typeName(parameters.get(j).asType())).append(".class");
+            }
+            source.append("},\n");
+        }
+        source.append("    };\n\n");
+    }
+
+    private StringBuilder header(String className) {
+        StringBuilder source = new StringBuilder();
+        int index = className.lastIndexOf('.');
+        if (index > 0) {
+            source.append("package ").append(className, 0, index).append(";\n\n");
+        }
+        source.append("/**\n");
+        source.append(" * 由RpcStubProcessor在编译期生成，不要手动修改\n");
+        source.append(" */\n");
+        source.append("@SuppressWarnings({\"unchecked\", \"rawtypes\"})\n");
+        return source;
+    }
+
+    private void write(String className, String source, Element originatingElement) {
+        try {
+            JavaFileObject file = processingEnv.getFiler().createSourceFile(className, originatingElement);
+            try (Writer writer = file.openWriter()) {
+                writer.write(source);
+            }
+        } catch (IOException e) {
+            processingEnv.getMessager().printMessage(Diagnostic.Kind.ERROR, "write " + className + " failed: " + e.getMessage(), originatingElement);
+        }
+    }
+
+    private void writeIndex() {
+        Map<String, String> lines = readExistingIndex();
+        lines.putAll(indexLines);
+        try {
+            FileObject file = processingEnv.getFiler().createResource(StandardLocation.CLASS_OUTPUT, "", RpcStubNames.SERVICE_INDEX, indexElements.toArray(new Element[0]));
+            try (Writer writer = file.openWriter()) {
+                for (String line : lines.values()) {
+                    writer.write(line);
+                    writer.write('\n');
+                }
+            }
+        } catch (IOException e) {
+            processingEnv.getMessager().printMessage(Diagnostic.Kind.ERROR, "write " + RpcStubNames.SERVICE_INDEX + " failed: " + e.getMessage());
+        }
+    }
+
+    /**
+     * 读取输出目录中已有的索引，去掉本次编译已经处理的实现类，以及已经删除或不再标注@RpcService的实现类
+     * 没有已有索引时返回空集合
+     */
+    private Map<String, String> readExistingIndex() {
+        Map<String, String> lines = new LinkedHashMap<>();
+        try {
+            FileObject file = processingEnv.getFiler().getResource(StandardLocation.CLASS_OUTPUT, "", RpcStubNames.SERVICE_INDEX);
+            try (Reader reader = file.openReader(true); BufferedReader lineReader = new BufferedReader(reader)) {
+                String line;
+                while ((line = lineReader.readLine()) != null) {
+                    String serviceClassName = line.split(RpcStubNames.INDEX_SEPARATOR, -1)[0];
+                    if (!indexLines.containsKey(serviceClassName) && isService(serviceClassName)) {
+                        lines.put(serviceClassName, line);
+                    }
+                }
+            }
+        } catch (IOException | IllegalArgumentException e) {
+            // 首次编译时还没有索引
+        }
+        return lines;
+    }
+
+    private boolean isService(String serviceClassName) {
+        TypeElement type = processingEnv.getElementUtils().getTypeElement(serviceClassName.replace('$', '.'));
+        return type != null && type.getAnnotation(RpcService.class) != null;
+    }
+
+    /**
+     * 擦除后的类型名称，嵌套类型使用规范名称，可以直接用于源码
+     */
+    private String typeName(TypeMirror type) {
+        return processingEnv.getTypeUtils().erasure(type).toString();
+    }
+
+    /**
+     * 基本类型转换为包装类型，用于Object与参数、返回值之间的强制转换
+     */
+    private String boxedTypeName(TypeMirror type) {
+        if (type.getKind().isPrimitive()) {
+            return processingEnv.getTypeUtils().boxedClass((PrimitiveType) type).getQualifiedName().toString();
+        }
+        return typeName(type);
+    }
+
+    private String binaryName(TypeElement type) {
+        return processingEnv.getElementUtils().getBinaryName(type).toString();
+    }
+
+    private static String simpleName(String className) {
+        return className.substring(className.lastIndexOf('.') + 1);
+    }
+
+    /**
+     * 服务接口中的方法及其按服务接口解析后的方法类型
+     */
+    private static final class ServiceMethod {
+
+        private final ExecutableElement element;
+
+        private final ExecutableType type;
+
+        ServiceMethod(ExecutableElement element, ExecutableType type) {
+            this.element = element;
+            this.type = type;
+        }
+
+        String getName() {
+            return element.getSimpleName().toString();
+        }
+    }
+}
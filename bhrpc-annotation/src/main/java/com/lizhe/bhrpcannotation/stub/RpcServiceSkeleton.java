@@ -0,0 +1,37 @@
+package com.lizhe.bhrpcannotation.stub;
+
+/**
+ * RpcServiceSkeleton
+ * {@code @description} 编译期生成的服务端骨架，按方法下标用switch直接调用服务实例的方法，不经过反射
+ *
+ * @author lizhe@joysuch.com
+ * {@code @date} 2025/3/25 上午9:32
+ * @version 1.0
+ */
+public interface RpcServiceSkeleton {
+
+    /**
+     * 骨架对应的服务接口
+     */
+    Class<?> getServiceInterface();
+
+    /**
+     * 按方法名称和参数类型查找方法下标
+     *
+     * @param methodName     方法名称
+     * @param parameterTypes 参数类型
+     * @return 方法下标，不存在时返回-1
+     */
+    int getMethodIndex(String methodName, Class<?>[] parameterTypes);
+
+    /**
+     * 调用服务实例的方法
+     *
+     * @param serviceBean 服务实例
+     * @param methodIndex 方法下标
+     * @param args        调用参数
+     * @return 调用结果
+     * @throws Throwable 服务方法抛出的异常
+     */
+    Object invoke(Object serviceBean, int methodIndex, Object[] args) throws Throwable;
+}
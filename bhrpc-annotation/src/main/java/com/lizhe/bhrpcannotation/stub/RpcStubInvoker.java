@@ -0,0 +1,23 @@
+package com.lizhe.bhrpcannotation.stub;
+
+/**
+ * RpcStubInvoker
+ * {@code @description} 编译期生成的客户端存根发送请求的入口，由服务消费者的代理模块实现
+ * 存根中的每个接口方法按生成时确定的方法下标调用invoke，下标与存根的METHOD_NAMES和PARAMETER_TYPES一一对应
+ *
+ * @author lizhe@joysuch.com
+ * {@code @date} 2025/3/25 上午9:32
+ * @version 1.0
+ */
+public interface RpcStubInvoker {
+
+    /**
+     * 发送请求
+     *
+     * @param methodIndex 方法下标
+     * @param args        调用参数
+     * @return 调用结果，返回值为基本类型时不能为null
+     * @throws Throwable 调用失败的原因
+     */
+    Object invoke(int methodIndex, Object[] args) throws Throwable;
+}
@@ -0,0 +1,58 @@
+package com.lizhe.bhrpcannotation.stub;
+
+/**
+ * RpcStubNames
+ * {@code @description} 编译期生成的类和服务索引的命名规则，注解处理器和运行时共用
+ * 1. 存根和骨架与服务接口位于同一个包中，嵌套接口的外部类名称以_连接，例如a.b.Outer$Hello对应a.b.Outer_HelloBhrpcStub
+ * 2. 服务索引位于META-INF/bhrpc/services.index，每行一个@RpcService实现类：实现类,服务接口,版本号,分组
+ *
+ * @author lizhe@joysuch.com
+ * {@code @date} 2025/3/25 上午9:32
+ * @version 1.0
+ */
+public final class RpcStubNames {
+
+    /**
+     * 客户端存根类名称后缀
+     */
+    public static final String STUB_SUFFIX = "BhrpcStub";
+
+    /**
+     * 服务端骨架类名称后缀
+     */
+    public static final String SKELETON_SUFFIX = "BhrpcSkeleton";
+
+    /**
+     * 服务索引资源路径
+     */
+    public static final String SERVICE_INDEX = "META-INF/bhrpc/services.index";
+
+    /**
+     * 服务索引中各字段的分隔符
+     */
+    public static final String INDEX_SEPARATOR = ",";
+
+    private RpcStubNames() {
+    }
+
+    /**
+     * @param interfaceName 服务接口的二进制名称，即Class.getName()
+     * @return 客户端存根类名称
+     */
+    public static String stubClassName(String interfaceName) {
+        return flatten(interfaceName) + STUB_SUFFIX;
+    }
+
+    /**
+     * @param interfaceName 服务接口的二进制名称，即Class.getName()
+     * @return 服务端骨架类名称
+     */
+    public static String skeletonClassName(String interfaceName) {
+        return flatten(interfaceName) + SKELETON_SUFFIX;
+    }
+
+    private static String flatten(String interfaceName) {
+        int index = interfaceName.lastIndexOf('.');
+        return interfaceName.substring(0, index + 1) + interfaceName.substring(index + 1).replace('$', '_');
+    }
+}
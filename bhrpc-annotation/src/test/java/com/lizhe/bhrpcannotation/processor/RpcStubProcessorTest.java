@@ -0,0 +1,381 @@
+package com.lizhe.bhrpcannotation.processor;
+
+import com.lizhe.bhrpcannotation.RpcService;
+import com.lizhe.bhrpcannotation.stub.RpcServiceSkeleton;
+import com.lizhe.bhrpcannotation.stub.RpcStubInvoker;
+import com.lizhe.bhrpcannotation.stub.RpcStubNames;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.springframework.stereotype.Component;
+
+import javax.tools.Diagnostic;
+import javax.tools.DiagnosticCollector;
+import javax.tools.JavaCompiler;
+import javax.tools.JavaFileObject;
+import javax.tools.StandardJavaFileManager;
+import javax.tools.ToolProvider;
+import java.io.File;
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.UndeclaredThrowableException;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+/**
+ * RpcStubProcessorTest
+ * {@code @description} 使用系统Java编译器运行RpcStubProcessor，编译生成的存根和骨架后加载调用
+ * 覆盖泛型父接口、重载方法、受检异常和增量编译时服务索引的合并
+ *
+ * @author lizhe@joysuch.com
+ * {@code @date} 2025/3/28 下午5:20
+ * @version 1.0
+ */
+public class RpcStubProcessorTest {
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    @Test
+    public void testGenericInterface() throws Throwable {
+        File output = compile(
+                source("demo.Repository",
+                        "package demo;",
+                        "public interface Repository<T, ID> {",
+                        "    T find(ID id);",
+                        "    java.util.List<T> findAll(java.util.List<ID> ids);",
+                        "}"),
+                source("demo.UserService",
+                        "package demo;",
+                        "public interface UserService extends Repository<String, Long> {",
+                        "    int count();",
+                        "}"),
+                source("demo.UserServiceImpl",
+                        "package demo;",
+                        "@com.lizhe.bhrpcannotation.RpcService(interfaceClass = UserService.class)",
+                        "public class UserServiceImpl implements UserService {",
+                        "    public String find(Long id) { return \"user\" + id; }",
+                        "    public java.util.List<String> findAll(java.util.List<Long> ids) { return java.util.Collections.singletonList(\"all\" + ids); }",
+                        "    public int count() { return 3; }",
+                        "}"),
+                source("demo.UserConsumer",
+                        "package demo;",
+                        "public class UserConsumer {",
+                        "    @com.lizhe.bhrpcannotation.RpcReference",
+                        "    UserService userService;",
+                        "}"));
+        try (URLClassLoader loader = classLoader(output)) {
+            Class<?> serviceInterface = loader.loadClass("demo.UserService");
+            RpcServiceSkeleton skeleton = skeleton(loader, serviceInterface);
+            Object serviceBean = loader.loadClass("demo.UserServiceImpl").newInstance();
+            // 参数类型按方法声明擦除，与服务接口的Method.getParameterTypes一致
+            Class<?>[] findTypes = serviceInterface.getMethod("find", Object.class).getParameterTypes();
+            int find = skeleton.getMethodIndex("find", findTypes);
+            assertTrue(find >= 0);
+            assertEquals("user7", skeleton.invoke(serviceBean, find, new Object[]{7L}));
+            int findAll = skeleton.getMethodIndex("findAll", new Class<?>[]{List.class});
+            assertEquals(Collections.singletonList("all[1]"), skeleton.invoke(serviceBean, findAll, new Object[]{Collections.singletonList(1L)}));
+            assertEquals(3, skeleton.invoke(serviceBean, skeleton.getMethodIndex("count", null), null));
+            assertEquals(-1, skeleton.getMethodIndex("find", new Class<?>[]{Long.class}));
+
+            RecordingInvoker invoker = new RecordingInvoker("user1");
+            Object stub = stub(loader, serviceInterface, invoker);
+            assertEquals("user1", serviceInterface.getMethod("find", Object.class).invoke(stub, 1L));
+            assertStubCall(stub, invoker, "find", Object.class);
+        }
+    }
+
+    @Test
+    public void testOverloadedMethods() throws Throwable {
+        File output = compile(
+                source("demo.HelloService",
+                        "package demo;",
+                        "public interface HelloService {",
+                        "    String hello();",
+                        "    String hello(String name);",
+                        "    String hello(String name, int times);",
+                        "    String hello(int times);",
+                        "    String hello(String[] names);",
+                        "    String hello(int[] times);",
+                        "}"),
+                source("demo.HelloServiceImpl",
+                        "package demo;",
+                        "@com.lizhe.bhrpcannotation.RpcService(interfaceClassName = \"demo.HelloService\")",
+                        "public class HelloServiceImpl implements HelloService {",
+                        "    public String hello() { return \"hello\"; }",
+                        "    public String hello(String name) { return \"name \" + name; }",
+                        "    public String hello(String name, int times) { return \"name \" + name + \" \" + times; }",
+                        "    public String hello(int times) { return \"times \" + times; }",
+                        "    public String hello(String[] names) { return \"names \" + names.length; }",
+                        "    public String hello(int[] times) { return \"times \" + times.length; }",
+                        "}"),
+                source("demo.HelloConsumer",
+                        "package demo;",
+                        "public class HelloConsumer {",
+                        "    @com.lizhe.bhrpcannotation.RpcReference",
+                        "    HelloService helloService;",
+                        "}"));
+        try (URLClassLoader loader = classLoader(output)) {
+            Class<?> serviceInterface = loader.loadClass("demo.HelloService");
+            RpcServiceSkeleton skeleton = skeleton(loader, serviceInterface);
+            Object serviceBean = loader.loadClass("demo.HelloServiceImpl").newInstance();
+            Object[][] calls = {
+                    {new Class<?>[0], new Object[0], "hello"},
+                    {new Class<?>[]{String.class}, new Object[]{"a"}, "name a"},
+                    {new Class<?>[]{String.class, int.class}, new Object[]{"a", 2}, "name a 2"},
+                    {new Class<?>[]{int.class}, new Object[]{2}, "times 2"},
+                    {new Class<?>[]{String[].class}, new Object[]{new String[]{"a", "b"}}, "names 2"},
+                    {new Class<?>[]{int[].class}, new Object[]{new int[]{1, 2, 3}}, "times 3"}
+            };
+            List<Integer> indexes = new ArrayList<>();
+            for (Object[] call : calls) {
+                Class<?>[] parameterTypes = (Class<?>[]) call[0];
+                int index = skeleton.getMethodIndex("hello", parameterTypes);
+                assertTrue(Arrays.toString(parameterTypes), index >= 0);
+                assertTrue(!indexes.contains(index));
+                indexes.add(index);
+                assertEquals(call[2], skeleton.invoke(serviceBean, index, (Object[]) call[1]));
+
+                RecordingInvoker invoker = new RecordingInvoker(call[2]);
+                Object stub = stub(loader, serviceInterface, invoker);
+                assertEquals(call[2], serviceInterface.getMethod("hello", parameterTypes).invoke(stub, (Object[]) call[1]));
+                assertStubCall(stub, invoker, "hello", parameterTypes);
+                assertArrayEquals((Object[]) call[1], invoker.args.get());
+            }
+        }
+    }
+
+    @Test
+    public void testCheckedExceptions() throws Throwable {
+        File output = compile(
+                source("demo.FileService",
+                        "package demo;",
+                        "public interface FileService {",
+                        "    String read(String path) throws java.io.IOException;",
+                        "    void delete(String path) throws java.io.FileNotFoundException, java.io.IOException;",
+                        "    <E extends Exception> String orThrow(E e) throws E;",
+                        "    Object any() throws Throwable;",
+                        "}"),
+                source("demo.FileServiceImpl",
+                        "package demo;",
+                        "@com.lizhe.bhrpcannotation.RpcService(interfaceClass = FileService.class)",
+                        "public class FileServiceImpl implements FileService {",
+                        "    public String read(String path) throws java.io.IOException { throw new java.io.IOException(path); }",
+                        "    public void delete(String path) throws java.io.IOException { throw new java.io.FileNotFoundException(path); }",
+                        "    public <E extends Exception> String orThrow(E e) throws E { throw e; }",
+                        "    public Object any() throws Throwable { throw new Throwable(\"any\"); }",
+                        "}"),
+                source("demo.FileConsumer",
+                        "package demo;",
+                        "public class FileConsumer {",
+                        "    @com.lizhe.bhrpcannotation.RpcReference",
+                        "    FileService fileService;",
+                        "}"));
+        try (URLClassLoader loader = classLoader(output)) {
+            Class<?> serviceInterface = loader.loadClass("demo.FileService");
+            RpcServiceSkeleton skeleton = skeleton(loader, serviceInterface);
+            Object serviceBean = loader.loadClass("demo.FileServiceImpl").newInstance();
+            // 骨架直接抛出服务方法的异常，不包装
+            assertThrown(IOException.class, () -> skeleton.invoke(serviceBean, skeleton.getMethodIndex("read", new Class<?>[]{String.class}), new Object[]{"a"}));
+            assertThrown(FileNotFoundException.class, () -> skeleton.invoke(serviceBean, skeleton.getMethodIndex("delete", new Class<?>[]{String.class}), new Object[]{"a"}));
+
+            // 存根抛出声明的受检异常和非受检异常，未声明的受检异常包装为UndeclaredThrowableException
+            IOException declared = new IOException("declared");
+            assertSame(declared, invokeStub(loader, serviceInterface, declared, "read", new Class<?>[]{String.class}, "a"));
+            IllegalStateException unchecked = new IllegalStateException("unchecked");
+            assertSame(unchecked, invokeStub(loader, serviceInterface, unchecked, "read", new Class<?>[]{String.class}, "a"));
+            Exception undeclared = new Exception("undeclared");
+            Throwable thrown = invokeStub(loader, serviceInterface, undeclared, "read", new Class<?>[]{String.class}, "a");
+            assertTrue(thrown instanceof UndeclaredThrowableException);
+            assertSame(undeclared, thrown.getCause());
+            assertSame(declared, invokeStub(loader, serviceInterface, declared, "delete", new Class<?>[]{String.class}, "a"));
+            // 泛型异常按擦除后的Exception声明
+            assertSame(undeclared, invokeStub(loader, serviceInterface, undeclared, "orThrow", new Class<?>[]{Exception.class}, declared));
+            Throwable any = new Throwable("any");
+            assertSame(any, invokeStub(loader, serviceInterface, any, "any", new Class<?>[0]));
+        }
+    }
+
+    @Test
+    public void testIncrementalIndexMerge() throws Throwable {
+        File output = compile(
+                source("demo.EchoService",
+                        "package demo;",
+                        "public interface EchoService {",
+                        "    String echo(String value);",
+                        "}"),
+                source("demo.FirstEchoService",
+                        "package demo;",
+                        "@com.lizhe.bhrpcannotation.RpcService(interfaceClass = EchoService.class, version = \"1.0.0\", group = \"first\")",
+                        "public class FirstEchoService implements EchoService {",
+                        "    public String echo(String value) { return value; }",
+                        "}"),
+                source("demo.RemovedEchoService",
+                        "package demo;",
+                        "@com.lizhe.bhrpcannotation.RpcService(interfaceClass = EchoService.class, version = \"1.0.0\", group = \"removed\")",
+                        "public class RemovedEchoService implements EchoService {",
+                        "    public String echo(String value) { return value; }",
+                        "}"));
+        assertEquals(Arrays.asList(
+                "demo.FirstEchoService,demo.EchoService,1.0.0,first",
+                "demo.RemovedEchoService,demo.EchoService,1.0.0,removed"), readIndex(output));
+        assertTrue(new File(output, "demo/RemovedEchoService.class").delete());
+
+        // 只编译新增的实现类，已有索引中仍然存在的实现类保留，已经删除的实现类去掉
+        compileInto(output,
+                source("demo.SecondEchoService",
+                        "package demo;",
+                        "@com.lizhe.bhrpcannotation.RpcService(interfaceClass = EchoService.class, version = \"2.0.0\", group = \"second\")",
+                        "public class SecondEchoService implements EchoService {",
+                        "    public String echo(String value) { return value + value; }",
+                        "}"));
+        assertEquals(Arrays.asList(
+                "demo.FirstEchoService,demo.EchoService,1.0.0,first",
+                "demo.SecondEchoService,demo.EchoService,2.0.0,second"), readIndex(output));
+    }
+
+    private File compile(File... sources) throws IOException {
+        return compileInto(folder.newFolder(), sources);
+    }
+
+    /**
+     * 编译源码并运行RpcStubProcessor，输出目录同时加入类路径，编译失败时输出诊断信息
+     */
+    private File compileInto(File output, File... sources) throws IOException {
+        JavaCompiler compiler = ToolProvider.getSystemJavaCompiler();
+        DiagnosticCollector<JavaFileObject> diagnostics = new DiagnosticCollector<>();
+        try (StandardJavaFileManager fileManager = compiler.getStandardFileManager(diagnostics, null, StandardCharsets.UTF_8)) {
+            String classPath = String.join(File.pathSeparator, location(RpcService.class), location(Component.class), output.getPath());
+            List<String> options = Arrays.asList("-classpath", classPath, "-d", output.getPath());
+            JavaCompiler.CompilationTask task = compiler.getTask(null, fileManager, diagnostics, options, null,
+                    fileManager.getJavaFileObjects(sources));
+            task.setProcessors(Collections.singletonList(new RpcStubProcessor()));
+            if (!task.call()) {
+                StringBuilder message = new StringBuilder("compilation failed");
+                for (Diagnostic<? extends JavaFileObject> diagnostic : diagnostics.getDiagnostics()) {
+                    message.append('\n').append(diagnostic);
+                }
+                fail(message.toString());
+            }
+        }
+        return output;
+    }
+
+    private File source(String className, String... lines) throws IOException {
+        File file = new File(folder.getRoot(), "src/" + className.replace('.', '/') + ".java");
+        Files.createDirectories(file.getParentFile().toPath());
+        Files.write(file.toPath(), Arrays.asList(lines), StandardCharsets.UTF_8);
+        return file;
+    }
+
+    private static String location(Class<?> clazz) {
+        try {
+            return new File(clazz.getProtectionDomain().getCodeSource().getLocation().toURI()).getPath();
+        } catch (Exception e) {
+            throw new IllegalStateException("locate " + clazz.getName() + " failed", e);
+        }
+    }
+
+    private static URLClassLoader classLoader(File output) throws IOException {
+        return new URLClassLoader(new URL[]{output.toURI().toURL()}, RpcStubProcessorTest.class.getClassLoader());
+    }
+
+    private static List<String> readIndex(File output) throws IOException {
+        return Files.readAllLines(new File(output, RpcStubNames.SERVICE_INDEX).toPath(), StandardCharsets.UTF_8);
+    }
+
+    private static RpcServiceSkeleton skeleton(ClassLoader loader, Class<?> serviceInterface) throws Exception {
+        RpcServiceSkeleton skeleton = (RpcServiceSkeleton) loader.loadClass(RpcStubNames.skeletonClassName(serviceInterface.getName())).newInstance();
+        assertSame(serviceInterface, skeleton.getServiceInterface());
+        return skeleton;
+    }
+
+    private static Object stub(ClassLoader loader, Class<?> serviceInterface, RpcStubInvoker invoker) throws Exception {
+        Class<?> stubClass = loader.loadClass(RpcStubNames.stubClassName(serviceInterface.getName()));
+        Object stub = stubClass.getConstructor(RpcStubInvoker.class).newInstance(invoker);
+        assertTrue(serviceInterface.isInstance(stub));
+        assertEquals("RpcStub[" + serviceInterface.getName() + "]", stub.toString());
+        return stub;
+    }
+
+    /**
+     * 存根调用的方法下标与METHOD_NAMES和PARAMETER_TYPES中的方法一致
+     */
+    private static void assertStubCall(Object stub, RecordingInvoker invoker, String methodName, Class<?>... parameterTypes) throws Exception {
+        int index = invoker.methodIndex.get();
+        assertNotEquals(-1, index);
+        assertEquals(methodName, ((String[]) stub.getClass().getField("METHOD_NAMES").get(null))[index]);
+        assertArrayEquals(parameterTypes, ((Class<?>[][]) stub.getClass().getField("PARAMETER_TYPES").get(null))[index]);
+    }
+
+    /**
+     * 存根的invoker抛出指定异常，返回存根方法抛出的异常
+     */
+    private static Throwable invokeStub(ClassLoader loader, Class<?> serviceInterface, Throwable cause, String methodName,
+                                        Class<?>[] parameterTypes, Object... args) throws Exception {
+        Object stub = stub(loader, serviceInterface, (methodIndex, parameters) -> {
+            throw cause;
+        });
+        try {
+            serviceInterface.getMethod(methodName, parameterTypes).invoke(stub, args);
+        } catch (InvocationTargetException e) {
+            return e.getCause();
+        }
+        fail(methodName + " should throw " + cause);
+        return null;
+    }
+
+    private static void assertThrown(Class<? extends Throwable> type, ThrowingCall call) {
+        try {
+            call.call();
+            fail(type.getName() + " should be thrown");
+        } catch (Throwable t) {
+            assertSame(type, t.getClass());
+        }
+    }
+
+    private interface ThrowingCall {
+
+        void call() throws Throwable;
+    }
+
+    /**
+     * 记录存根调用的方法下标和参数，返回固定结果
+     */
+    private static final class RecordingInvoker implements RpcStubInvoker {
+
+        private final AtomicInteger methodIndex = new AtomicInteger(-1);
+
+        private final AtomicReference<Object[]> args = new AtomicReference<>();
+
+        private final Object result;
+
+        RecordingInvoker(Object result) {
+            this.result = result;
+        }
+
+        @Override
+        public Object invoke(int methodIndex, Object[] args) {
+            this.methodIndex.set(methodIndex);
+            this.args.set(args);
+            return result;
+        }
+    }
+}
@@ -0,0 +1,193 @@
+package com.lizhe.bhrpccodec;
+
+import com.lizhe.bhrpcconstants.RpcConstants;
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.CompositeByteBuf;
+import io.netty.channel.ChannelDuplexHandler;
+import io.netty.channel.ChannelFuture;
+import io.netty.channel.ChannelFutureListener;
+import io.netty.channel.ChannelHandlerContext;
+import io.netty.channel.ChannelPromise;
+
+import java.nio.channels.ClosedChannelException;
+import java.util.ArrayDeque;
+import java.util.Queue;
+
+/**
+ * RpcChunkedWriteHandler
+ * {@code @description} 大消息分片写出处理器，位于RpcEncoder与socket之间
+ * 1. 消息体超过分片大小的v2报文拆分为多个分片，每个分片带有完整的v2消息头和分片标识
+ * 2. 小报文直接写出，大消息的分片只在连接可写时写出，连接不可写时等待出站缓冲区低于低水位后继续，
+ * 小报文最多只需要排在一个分片之后，不会被整个大消息阻塞
+ * 3. 同时有多个大消息时轮流写出各自的分片
+ * 所有方法都在EventLoop线程中执行，无需同步
+ *
+ * @author lizhe@joysuch.com
+ * {@code @date} 2025/3/13 上午10:16
+ * @version 1.0
+ */
+public class RpcChunkedWriteHandler extends ChannelDuplexHandler {
+
+    /**
+     * v2消息头中标志位的偏移量
+     */
+    private static final int FLAGS_OFFSET_V2 = 5;
+
+    /**
+     * v2消息头中数据长度的偏移量
+     */
+    private static final int LENGTH_OFFSET_V2 = RpcConstants.HEADER_TOTAL_LEN_V2 - 4;
+
+    private final int chunkSize;
+
+    /**
+     * 等待分片写出的大消息
+     */
+    private final Queue<PendingMessage> pendingMessages = new ArrayDeque<>();
+
+    /**
+     * 分片大小读取系统属性bhrpc.chunk.size
+     */
+    public RpcChunkedWriteHandler() {
+        this(Integer.getInteger(RpcConstants.CHUNK_SIZE_PROPERTY, RpcConstants.DEFAULT_CHUNK_SIZE));
+    }
+
+    public RpcChunkedWriteHandler(int chunkSize) {
+        if (chunkSize <= 0) {
+            throw new IllegalArgumentException("chunk size must be positive, " + chunkSize);
+        }
+        this.chunkSize = chunkSize;
+    }
+
+    @Override
+    public void write(ChannelHandlerContext ctx, Object msg, ChannelPromise promise) throws Exception {
+        // 连接已关闭时直接交给后面的处理器，由其完成失败的写出操作
+        if (msg instanceof ByteBuf && ctx.channel().isActive() && isLargeFrameV2((ByteBuf) msg)) {
+            pendingMessages.add(new PendingMessage((ByteBuf) msg, promise));
+        } else {
+            ctx.write(msg, promise);
+        }
+    }
+
+    @Override
+    public void flush(ChannelHandlerContext ctx) throws Exception {
+        writeChunks(ctx);
+        ctx.flush();
+    }
+
+    @Override
+    public void channelWritabilityChanged(ChannelHandlerContext ctx) throws Exception {
+        if (ctx.channel().isWritable() && !pendingMessages.isEmpty()) {
+            writeChunks(ctx);
+            ctx.flush();
+        }
+        ctx.fireChannelWritabilityChanged();
+    }
+
+    @Override
+    public void channelInactive(ChannelHandlerContext ctx) throws Exception {
+        discard(new ClosedChannelException());
+        ctx.fireChannelInactive();
+    }
+
+    @Override
+    public void handlerRemoved(ChannelHandlerContext ctx) throws Exception {
+        discard(new ClosedChannelException());
+    }
+
+    /**
+     * 连接可写时轮流写出各个大消息的下一个分片
+     */
+    private void writeChunks(ChannelHandlerContext ctx) {
+        while (!pendingMessages.isEmpty() && ctx.channel().isWritable()) {
+            PendingMessage message = pendingMessages.poll();
+            if (!message.writeNextChunk(ctx)) {
+                pendingMessages.add(message);
+            }
+        }
+    }
+
+    private void discard(Throwable cause) {
+        PendingMessage message;
+        while ((message = pendingMessages.poll()) != null) {
+            message.fail(cause);
+        }
+    }
+
+    /**
+     * 判断是否为需要分片的v2报文，RpcEncoder每次写出的ByteBuf恰好是一个完整的报文
+     */
+    private boolean isLargeFrameV2(ByteBuf frame) {
+        int index = frame.readerIndex();
+        if (frame.readableBytes() <= RpcConstants.HEADER_TOTAL_LEN_V2 + chunkSize
+                || (frame.getByte(index + 2) & RpcConstants.VERSION_HEADER_MARK) == 0) {
+            return false;
+        }
+        return frame.getInt(index + LENGTH_OFFSET_V2) == frame.readableBytes() - RpcConstants.HEADER_TOTAL_LEN_V2;
+    }
+
+    /**
+     * 等待分片写出的大消息
+     */
+    private final class PendingMessage implements ChannelFutureListener {
+
+        private final ByteBuf frame;
+
+        private final ChannelPromise promise;
+
+        private final int headerIndex;
+
+        /**
+         * 最后一个分片的写出结果
+         */
+        private ChannelFuture lastFuture;
+
+        PendingMessage(ByteBuf frame, ChannelPromise promise) {
+            this.frame = frame;
+            this.promise = promise;
+            this.headerIndex = frame.readerIndex();
+            frame.skipBytes(RpcConstants.HEADER_TOTAL_LEN_V2);
+        }
+
+        /**
+         * 写出下一个分片
+         *
+         * @return 是否已经写出最后一个分片
+         */
+        boolean writeNextChunk(ChannelHandlerContext ctx) {
+            int length = Math.min(chunkSize, frame.readableBytes());
+            boolean last = length == frame.readableBytes();
+            ByteBuf header = ctx.alloc().buffer(RpcConstants.HEADER_TOTAL_LEN_V2);
+            header.writeBytes(frame, headerIndex, LENGTH_OFFSET_V2);
+            byte flags = (byte) (header.getByte(FLAGS_OFFSET_V2) | RpcConstants.FLAG_CHUNK | (last ? RpcConstants.FLAG_LAST_CHUNK : 0));
+            header.setByte(FLAGS_OFFSET_V2, flags);
+            header.writeInt(length);
+            CompositeByteBuf chunk = ctx.alloc().compositeBuffer(2);
+            chunk.addComponents(true, header, frame.readRetainedSlice(length));
+            ChannelFuture future = ctx.write(chunk);
+            if (last) {
+                frame.release();
+                lastFuture = future;
+            }
+            future.addListener(this);
+            return last;
+        }
+
+        /**
+         * 任意分片写出失败时原始的写出操作失败，最后一个分片写出成功时原始的写出操作成功
+         */
+        @Override
+        public void operationComplete(ChannelFuture future) {
+            if (!future.isSuccess()) {
+                promise.tryFailure(future.cause());
+            } else if (future == lastFuture) {
+                promise.trySuccess();
+            }
+        }
+
+        void fail(Throwable cause) {
+            frame.release();
+            promise.tryFailure(cause);
+        }
+    }
+}
@@ -1,7 +1,9 @@
 package com.lizhe.bhrpccodec;
 
-import com.lizhe.bhrpcserializationjdk.JdkSerialization;
-import com.lizhe.bhrpcserialzationapi.Serialization;
+import com.lizhe.bhrpcconstants.RpcConstants;
+import io.netty.channel.Channel;
+import io.netty.util.Attribute;
+import io.netty.util.AttributeKey;
 
 /**
  * RpcCodec
@@ -12,7 +14,64 @@ import com.lizhe.bhrpcserialzationapi.Serialization;
  * @version 1.0
  */
 public interface RpcCodec {
-    default Serialization getJdkSerialization(){
-        return new JdkSerialization();
+
+    /**
+     * 对端能够解析的最高协议版本，由解码器根据收到的报文记录，编码器据此选择发送的协议版本
+     */
+    AttributeKey<Byte> PEER_VERSION = AttributeKey.valueOf("bhrpc.peer.version");
+
+    /**
+     * 对端支持的压缩算法ID位图，由解码器根据收到的v2报文记录，编码器只使用对端支持的压缩算法
+     */
+    AttributeKey<Integer> PEER_COMPRESSORS = AttributeKey.valueOf("bhrpc.peer.compressors");
+
+    /**
+     * 获取当前连接上对端能够解析的协议版本，尚未协商时按v1处理
+     *
+     * @param channel 当前连接
+     * @return 对端协议版本
+     */
+    default byte getPeerVersion(Channel channel) {
+        Byte version = channel.attr(PEER_VERSION).get();
+        return version == null ? RpcConstants.VERSION_V1 : version;
+    }
+
+    /**
+     * 记录对端能够解析的协议版本，只升不降
+     *
+     * @param channel 当前连接
+     * @param version 对端协议版本
+     */
+    default void markPeerVersion(Channel channel, byte version) {
+        Attribute<Byte> attr = channel.attr(PEER_VERSION);
+        Byte current = attr.get();
+        if (current == null || current < version) {
+            attr.set(version);
+        }
+    }
+
+    /**
+     * 获取当前连接上对端支持的压缩算法ID位图，尚未收到对端的v2报文时按不支持任何压缩算法处理
+     *
+     * @param channel 当前连接
+     * @return 第n位为1表示对端支持ID为n的压缩算法
+     */
+    default int getPeerCompressors(Channel channel) {
+        Integer compressors = channel.attr(PEER_COMPRESSORS).get();
+        return compressors == null ? 0 : compressors;
+    }
+
+    /**
+     * 记录对端支持的压缩算法ID位图，以对端最新发送的为准
+     *
+     * @param channel     当前连接
+     * @param compressors 对端支持的压缩算法ID位图
+     */
+    default void markPeerCompressors(Channel channel, int compressors) {
+        Attribute<Integer> attr = channel.attr(PEER_COMPRESSORS);
+        Integer current = attr.get();
+        if (current == null || current != compressors) {
+            attr.set(compressors);
+        }
     }
 }
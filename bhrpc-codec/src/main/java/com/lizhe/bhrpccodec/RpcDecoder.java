@@ -1,9 +1,11 @@
 package com.lizhe.bhrpccodec;
 
+import com.lizhe.bhrpccodec.compress.CompressorFactory;
 import com.lizhe.bhrpccommon.utils.SerializationUtils;
 import com.lizhe.bhrpcconstants.RpcConstants;
 import com.lizhe.bhrpcprotocol.RpcProtocol;
 import com.lizhe.bhrpcprotocol.enumeration.RpcType;
+import com.lizhe.bhrpcprotocol.enumeration.SerializationType;
 import com.lizhe.bhrpcprotocol.header.RpcHeader;
 import com.lizhe.bhrpcprotocol.request.RpcRequest;
 import com.lizhe.bhrpcprotocol.response.RpcResponse;
@@ -11,9 +13,12 @@ import com.lizhe.bhrpcserialzationapi.Serialization;
 import io.netty.buffer.ByteBuf;
 import io.netty.channel.ChannelHandlerContext;
 import io.netty.handler.codec.ByteToMessageDecoder;
+import io.netty.handler.codec.TooLongFrameException;
 import io.netty.util.CharsetUtil;
 
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 
 /**
  * RpcDecoder
@@ -25,6 +30,65 @@ import java.util.List;
  */
 public class RpcDecoder extends ByteToMessageDecoder implements RpcCodec {
 
+    /**
+     * 区分v1和v2报文至少需要读取的字节数：魔数2字节 + 版本号或报文类型1字节
+     */
+    private static final int VERSION_PEEK_LEN = 3;
+
+    /**
+     * 当前连接上的序列化实例缓存
+     */
+    private final SerializationCache serializationCache = new SerializationCache();
+
+    /**
+     * 消息体最大字节数，包括单个报文、分片重组和解压后的大小
+     */
+    private final int maxMessageLength;
+
+    /**
+     * 正在重组的分片消息，key为请求ID，只在EventLoop线程中访问
+     */
+    private final Map<Long, ByteBuf> chunkMessages = new HashMap<>();
+
+    /**
+     * 同时重组的分片消息数上限
+     */
+    private final int maxChunkMessages;
+
+    /**
+     * 未重组完成的分片累计字节数上限
+     */
+    private final int maxChunkBytes;
+
+    /**
+     * 当前未重组完成的分片累计字节数
+     */
+    private int chunkBytes;
+
+    /**
+     * 消息体最大字节数、同时重组的分片消息数上限和未重组完成的分片累计字节数上限
+     * 分别读取系统属性bhrpc.max.message.length、bhrpc.max.chunk.messages和bhrpc.max.chunk.bytes
+     */
+    public RpcDecoder() {
+        this(Integer.getInteger(RpcConstants.MAX_MESSAGE_LENGTH_PROPERTY, RpcConstants.DEFAULT_MAX_MESSAGE_LENGTH));
+    }
+
+    public RpcDecoder(int maxMessageLength) {
+        this(maxMessageLength, Integer.getInteger(RpcConstants.MAX_CHUNK_MESSAGES_PROPERTY, RpcConstants.DEFAULT_MAX_CHUNK_MESSAGES),
+                Integer.getInteger(RpcConstants.MAX_CHUNK_BYTES_PROPERTY, RpcConstants.DEFAULT_MAX_CHUNK_BYTES));
+    }
+
+    /**
+     * @param maxMessageLength 消息体最大字节数
+     * @param maxChunkMessages 同时重组的分片消息数上限
+     * @param maxChunkBytes    未重组完成的分片累计字节数上限
+     */
+    public RpcDecoder(int maxMessageLength, int maxChunkMessages, int maxChunkBytes) {
+        this.maxMessageLength = maxMessageLength;
+        this.maxChunkMessages = maxChunkMessages;
+        this.maxChunkBytes = maxChunkBytes;
+    }
+
     /**
      * 解码方法，用于解析接收到的字节数据，将其转换为Java对象
      * 该方法首先检查数据的完整性，然后根据数据类型进行相应的处理
@@ -36,60 +100,152 @@ public class RpcDecoder extends ByteToMessageDecoder implements RpcCodec {
      */
     @Override
     protected void decode(ChannelHandlerContext ctx, ByteBuf in, List<Object> out) throws Exception {
-        // 检查数据长度是否足够解析头部信息
-        if (in.readableBytes() < RpcConstants.HEADER_TOTAL_LEN) return;
-        //标记当前读取位置
-        in.markReaderIndex();
+        // 检查数据长度是否足够区分协议版本
+        if (in.readableBytes() < VERSION_PEEK_LEN) return;
+        int readerIndex = in.readerIndex();
 
         //读取魔数
-        short magic = in.readShort();
+        short magic = in.getShort(readerIndex);
         // 验证魔数是否符合预期，如果不符则抛出异常
         if (magic != RpcConstants.MAGIC) {
             throw new IllegalArgumentException("magic number is illegal, " + magic);
         }
 
-        // 读取消息类型、状态和请求ID
-        byte msgType = in.readByte();
-        byte status = in.readByte();
-        long requestId = in.readLong();
+        // v2及以上版本的版本号字节最高位为1，v1此位置为报文类型
+        boolean v2 = (in.getByte(readerIndex + 2) & RpcConstants.VERSION_HEADER_MARK) != 0;
+        int headerLength = v2 ? RpcConstants.HEADER_TOTAL_LEN_V2 : RpcConstants.HEADER_TOTAL_LEN;
+        // 检查数据长度是否足够解析头部信息
+        if (in.readableBytes() < headerLength) return;
+        // 读取数据长度，并检查数据完整性，数据长度位于消息头的最后4个字节
+        int dataLength = in.getInt(readerIndex + headerLength - 4);
+        if (dataLength < 0 || dataLength > maxMessageLength) {
+            throw new TooLongFrameException("data length is illegal, " + dataLength);
+        }
+        if (in.readableBytes() < headerLength + dataLength) return;
 
-        // 读取序列化类型，并转换为字符串
-        ByteBuf serializationTypeByteBuf = in.readBytes(SerializationUtils.MAX_SERIALIZATION_TYPE_COUNR);
-        String serializationType = SerializationUtils.subString(serializationTypeByteBuf.toString(CharsetUtil.UTF_8));
+        RpcHeader header = v2 ? readHeaderV2(ctx, in) : readHeaderV1(ctx, in);
+        // 切出消息体对应的slice，与接收缓冲区共享内存，反序列化时直接读取，避免拷贝到新的字节数组
+        ByteBuf data = in.readSlice(dataLength);
 
-        // 读取数据长度，并检查数据完整性
-        int dataLength = in.readInt();
-        if (in.readableBytes() < dataLength) {
-            in.resetReaderIndex();
+        // 根据消息类型获取对应的枚举对象
+        RpcType msgTypeEnum = RpcType.findByType(header.getMsgType());
+        if (msgTypeEnum == null) {
+            header.recycle();
             return;
         }
-        // 读取数据
-        byte[] data = new byte[dataLength];
-        in.readBytes(data);
 
-        // 根据消息类型获取对应的枚举对象
-        RpcType msgTypeEnum = RpcType.findByType(msgType);
-        if (msgTypeEnum == null) {
+        if ((header.getFlags() & RpcConstants.FLAG_CHUNK) == 0) {
+            decodePayload(ctx, header, msgTypeEnum, data, out);
             return;
         }
+        ByteBuf message = appendChunk(ctx, header, data);
+        if (message == null) {
+            // 未收到最后一个分片时消息头不会传递给后续处理器，直接回收
+            header.recycle();
+            return;
+        }
+        try {
+            decodePayload(ctx, header, msgTypeEnum, message, out);
+        } finally {
+            message.release();
+        }
+    }
 
-        // 创建并填充RpcHeader对象
-        RpcHeader header = new RpcHeader();
-        header.setMagic(magic);
-        header.setStatus(status);
-        header.setRequestId(requestId);
-        header.setMsgType(msgType);
-        header.setSerializationType(serializationType);
-        header.setMsgLen(dataLength);
-        //TODO Serialization是扩展点
-        Serialization serialization = getJdkSerialization();
+    /**
+     * 将分片追加到对应请求ID的重组缓冲区中
+     * 单个消息、同时重组的消息数和未重组完成的累计字节数都有上限，防止对端只发送分片不发送最后一个分片耗尽内存
+     *
+     * @return 收到最后一个分片时返回重组后的消息体，否则返回null
+     * @throws TooLongFrameException 超过任一上限
+     */
+    private ByteBuf appendChunk(ChannelHandlerContext ctx, RpcHeader header, ByteBuf data) {
+        long requestId = header.getRequestId();
+        ByteBuf message = chunkMessages.get(requestId);
+        if (message == null) {
+            if (chunkMessages.size() >= maxChunkMessages) {
+                throw new TooLongFrameException("chunk messages exceed " + maxChunkMessages + ", requestId " + requestId);
+            }
+            message = ctx.alloc().heapBuffer(Math.min(data.readableBytes() * 2, maxMessageLength), maxMessageLength);
+            chunkMessages.put(requestId, message);
+        }
+        if (message.readableBytes() + data.readableBytes() > maxMessageLength) {
+            removeChunkMessage(requestId);
+            throw new TooLongFrameException("message length exceeds " + maxMessageLength + ", requestId " + requestId);
+        }
+        if (chunkBytes + data.readableBytes() > maxChunkBytes) {
+            removeChunkMessage(requestId);
+            throw new TooLongFrameException("chunk bytes exceed " + maxChunkBytes + ", requestId " + requestId);
+        }
+        // 拷贝分片数据，不持有接收缓冲区的引用，避免累积缓冲区无法复用
+        chunkBytes += data.readableBytes();
+        message.writeBytes(data);
+        if ((header.getFlags() & RpcConstants.FLAG_LAST_CHUNK) == 0) {
+            return null;
+        }
+        chunkMessages.remove(requestId);
+        chunkBytes -= message.readableBytes();
+        header.setFlags((byte) (header.getFlags() & ~(RpcConstants.FLAG_CHUNK | RpcConstants.FLAG_LAST_CHUNK)));
+        header.setMsgLen(message.readableBytes());
+        return message;
+    }
+
+    /**
+     * 丢弃未重组完成的分片消息
+     */
+    private void removeChunkMessage(long requestId) {
+        ByteBuf message = chunkMessages.remove(requestId);
+        chunkBytes -= message.readableBytes();
+        message.release();
+    }
+
+    /**
+     * 按需解压后反序列化消息体
+     */
+    private void decodePayload(ChannelHandlerContext ctx, RpcHeader header, RpcType msgTypeEnum, ByteBuf data, List<Object> out) {
+        int compressorId = header.getFlags() & RpcConstants.FLAG_COMPRESSOR_MASK;
+        if (compressorId == 0) {
+            decodeBody(header, msgTypeEnum, data, out);
+            return;
+        }
+        // 压缩的消息体为原始长度4字节 + 压缩数据，按原始长度分配解压缓冲区并限制其最大容量
+        int originalLength = data.readInt();
+        if (originalLength < 0 || originalLength > maxMessageLength) {
+            throw new TooLongFrameException("decompressed length is illegal, " + originalLength);
+        }
+        ByteBuf decompressed = ctx.alloc().heapBuffer(originalLength, originalLength);
+        try {
+            CompressorFactory.getCompressor(compressorId).decompress(data, decompressed);
+            header.setFlags((byte) (header.getFlags() & ~RpcConstants.FLAG_COMPRESSOR_MASK));
+            decodeBody(header, msgTypeEnum, decompressed, out);
+        } finally {
+            decompressed.release();
+        }
+    }
+
+    /**
+     * 连接关闭或解码器移除时释放未重组完成的分片
+     */
+    @Override
+    protected void handlerRemoved0(ChannelHandlerContext ctx) throws Exception {
+        for (ByteBuf message : chunkMessages.values()) {
+            message.release();
+        }
+        chunkMessages.clear();
+        chunkBytes = 0;
+    }
+
+    /**
+     * 根据消息类型反序列化消息体
+     */
+    private void decodeBody(RpcHeader header, RpcType msgTypeEnum, ByteBuf data, List<Object> out) {
+        Serialization serialization = serializationCache.get(header.getSerializationType());
         // 根据消息类型进行不同的处理
         switch (msgTypeEnum) {
             case REQUEST:
                 // 解序列化请求数据，并添加到输出列表中
                 RpcRequest request = serialization.deserialize(data, RpcRequest.class);
                 if (request != null) {
-                    RpcProtocol<RpcRequest> protocol = new RpcProtocol<>();
+                    RpcProtocol<RpcRequest> protocol = RpcProtocol.newInstance();
                     protocol.setHeader(header);
                     protocol.setBody(request);
                     out.add(protocol);
@@ -99,7 +255,7 @@ public class RpcDecoder extends ByteToMessageDecoder implements RpcCodec {
                 // 解序列化响应数据，并添加到输出列表中
                 RpcResponse response = serialization.deserialize(data, RpcResponse.class);
                 if (response != null) {
-                    RpcProtocol<RpcResponse> protocol = new RpcProtocol<>();
+                    RpcProtocol<RpcResponse> protocol = RpcProtocol.newInstance();
                     protocol.setHeader(header);
                     protocol.setBody(response);
                     out.add(protocol);
@@ -110,4 +266,50 @@ public class RpcDecoder extends ByteToMessageDecoder implements RpcCodec {
                 break;
         }
     }
+
+    /**
+     * 读取v1消息头，调用前已确认缓冲区中包含完整的消息头
+     * 状态字节最高位为协商标识，置位说明对端能够解析v2报文
+     */
+    private RpcHeader readHeaderV1(ChannelHandlerContext ctx, ByteBuf in) {
+        RpcHeader header = RpcHeader.newInstance();
+        header.setMagic(in.readShort());
+        header.setVersion(RpcConstants.VERSION_V1);
+        header.setMsgType(in.readByte());
+        byte status = in.readByte();
+        if ((status & RpcConstants.STATUS_FLAG_VERSION_NEGOTIATION) != 0) {
+            markPeerVersion(ctx.channel(), RpcConstants.VERSION_V2);
+        }
+        header.setStatus((byte) (status & ~RpcConstants.STATUS_FLAG_VERSION_NEGOTIATION));
+        header.setRequestId(in.readLong());
+        // 读取序列化类型，直接从缓冲区解码为字符串，不再创建临时ByteBuf
+        header.setSerializationType(SerializationUtils.subString(in.readCharSequence(SerializationUtils.MAX_SERIALIZATION_TYPE_COUNR, CharsetUtil.UTF_8).toString()));
+        header.setMsgLen(in.readInt());
+        return header;
+    }
+
+    /**
+     * 读取v2消息头，调用前已确认缓冲区中包含完整的消息头
+     * 收到v2报文说明对端能够解析v2，与对端支持的压缩算法一起记录到当前连接上
+     */
+    private RpcHeader readHeaderV2(ChannelHandlerContext ctx, ByteBuf in) {
+        RpcHeader header = RpcHeader.newInstance();
+        header.setMagic(in.readShort());
+        byte version = (byte) (in.readByte() & ~RpcConstants.VERSION_HEADER_MARK);
+        header.setVersion(version);
+        markPeerVersion(ctx.channel(), (byte) Math.min(version, RpcConstants.VERSION));
+        header.setMsgType(in.readByte());
+        header.setStatus(in.readByte());
+        header.setFlags(in.readByte());
+        byte serializationId = in.readByte();
+        SerializationType serializationType = SerializationType.findById(serializationId);
+        if (serializationType == null) {
+            throw new IllegalArgumentException("serialization id is illegal, " + serializationId);
+        }
+        header.setSerializationType(serializationType.getName());
+        markPeerCompressors(ctx.channel(), in.readUnsignedShort());
+        header.setRequestId(in.readLong());
+        header.setMsgLen(in.readInt());
+        return header;
+    }
 }
@@ -1,12 +1,18 @@
 package com.lizhe.bhrpccodec;
 
+import com.lizhe.bhrpccodec.compress.Compressor;
+import com.lizhe.bhrpccodec.compress.CompressorFactory;
 import com.lizhe.bhrpccommon.utils.SerializationUtils;
+import com.lizhe.bhrpcconstants.RpcConstants;
 import com.lizhe.bhrpcprotocol.RpcProtocol;
+import com.lizhe.bhrpcprotocol.base.RpcMessage;
+import com.lizhe.bhrpcprotocol.enumeration.SerializationType;
 import com.lizhe.bhrpcprotocol.header.RpcHeader;
 import com.lizhe.bhrpcserialzationapi.Serialization;
 import io.netty.buffer.ByteBuf;
 import io.netty.channel.ChannelHandlerContext;
 import io.netty.handler.codec.MessageToByteEncoder;
+import io.netty.util.CharsetUtil;
 
 /**
  * RpcEncoder
@@ -17,19 +23,183 @@ import io.netty.handler.codec.MessageToByteEncoder;
  * @version 1.0
  */
 public class RpcEncoder extends MessageToByteEncoder<RpcProtocol<Object>>  implements RpcCodec{
+
+    /**
+     * v2消息头中标志位相对报文起始位置的偏移量：魔数2字节 + 版本1字节 + 报文类型1字节 + 状态1字节
+     */
+    private static final int FLAGS_OFFSET_V2 = 5;
+
+    /**
+     * 本端允许使用的最高协议版本
+     */
+    private final byte maxVersion;
+
+    /**
+     * 消息体压缩实现，为null时不压缩
+     */
+    private final Compressor compressor;
+
+    /**
+     * 压缩阈值，消息体小于该字节数时不压缩
+     */
+    private final int compressThreshold;
+
+    /**
+     * 当前连接上一次编码的消息体大小，未指定sizeHint时用于预估出站缓冲区的初始容量
+     * 编码器与连接一一对应且只在EventLoop线程中执行，无需同步
+     */
+    private int lastBodySize;
+
+    /**
+     * 当前连接上的序列化实例缓存
+     */
+    private final SerializationCache serializationCache = new SerializationCache();
+
+    public RpcEncoder() {
+        this(RpcConstants.VERSION);
+    }
+
+    /**
+     * 压缩算法和压缩阈值分别读取系统属性bhrpc.compressor和bhrpc.compress.threshold，未配置压缩算法时不压缩
+     */
+    public RpcEncoder(byte maxVersion) {
+        this(maxVersion, System.getProperty(RpcConstants.COMPRESSOR_PROPERTY),
+                Integer.getInteger(RpcConstants.COMPRESS_THRESHOLD_PROPERTY, RpcConstants.DEFAULT_COMPRESS_THRESHOLD));
+    }
+
+    /**
+     * @param maxVersion        本端允许使用的最高协议版本
+     * @param compressorType    压缩算法名称，为空或none时不压缩
+     * @param compressThreshold 压缩阈值，消息体小于该字节数时不压缩
+     */
+    public RpcEncoder(byte maxVersion, String compressorType, int compressThreshold) {
+        this.maxVersion = maxVersion;
+        this.compressor = CompressorFactory.getCompressor(compressorType);
+        this.compressThreshold = compressThreshold;
+    }
+
+    /**
+     * 编码方法，根据当前连接协商的协议版本写出v1或v2报文
+     * 对端确认能够解析v2之前始终发送v1报文，并在状态字节中携带协商标识，保证与旧版本对端兼容
+     * 消息体直接序列化到出站缓冲区中，写完消息体后再回填数据长度
+     * 配置了压缩算法时，只有v2报文、对端在消息头中声明支持该压缩算法且消息体达到压缩阈值才尝试压缩，压缩后没有变小则仍然发送原始数据
+     * 编码完成后回收池化的报文对象，非池化对象不受影响
+     */
     @Override
     protected void encode(ChannelHandlerContext ctx, RpcProtocol<Object> msg, ByteBuf byteBuf) throws Exception {
+        try {
+            encodeFrame(ctx, msg, byteBuf);
+        } finally {
+            recycle(msg);
+        }
+    }
+
+    private void encodeFrame(ChannelHandlerContext ctx, RpcProtocol<Object> msg, ByteBuf byteBuf) {
         RpcHeader header = msg.getHeader();
+        Serialization serialization = serializationCache.get(header.getSerializationType());
+        byte version = (byte) Math.min(maxVersion, getPeerVersion(ctx.channel()));
+        SerializationType serializationType = SerializationType.findByName(header.getSerializationType());
+        int frameIndex = byteBuf.writerIndex();
+        // 没有分配序列化ID的序列化类型只能使用v1报文传输
+        boolean v2 = version >= RpcConstants.VERSION_V2 && serializationType != null;
+        if (v2) {
+            writeHeaderV2(byteBuf, header, version, serializationType);
+        } else {
+            writeHeaderV1(byteBuf, header);
+        }
+        // 先写入占位的数据长度，消息体写完后回填
+        int lengthIndex = byteBuf.writerIndex();
+        byteBuf.writeInt(0);
+        serialization.serialize(msg.getBody(), byteBuf);
+        int bodySize = byteBuf.writerIndex() - lengthIndex - 4;
+        lastBodySize = bodySize;
+        if (v2 && compressor != null && bodySize >= compressThreshold
+                && (getPeerCompressors(ctx.channel()) & (1 << compressor.getId())) != 0) {
+            bodySize = compress(ctx, byteBuf, frameIndex + FLAGS_OFFSET_V2, lengthIndex + 4, bodySize);
+        }
+        byteBuf.setInt(lengthIndex, bodySize);
+    }
+
+    /**
+     * 报文写入连接后由编码器回收，消息头、消息体和RpcProtocol都只有在池化时才会放回对象池
+     */
+    private static void recycle(RpcProtocol<Object> msg) {
+        Object body = msg.getBody();
+        if (body instanceof RpcMessage) {
+            ((RpcMessage) body).recycle();
+        }
+        RpcHeader header = msg.getHeader();
+        if (header != null) {
+            header.recycle();
+        }
+        msg.recycle();
+    }
+
+    /**
+     * 压缩已经写入出站缓冲区的消息体，压缩后的消息体为原始长度4字节 + 压缩数据
+     * 压缩后没有变小时保留原始数据
+     *
+     * @return 最终的消息体长度
+     */
+    private int compress(ChannelHandlerContext ctx, ByteBuf byteBuf, int flagsIndex, int bodyIndex, int bodySize) {
+        ByteBuf compressed = ctx.alloc().heapBuffer(bodySize);
+        try {
+            compressor.compress(byteBuf.slice(bodyIndex, bodySize), compressed);
+            int compressedSize = compressed.readableBytes() + 4;
+            if (compressedSize >= bodySize) {
+                return bodySize;
+            }
+            byteBuf.writerIndex(bodyIndex);
+            byteBuf.writeInt(bodySize);
+            byteBuf.writeBytes(compressed);
+            byteBuf.setByte(flagsIndex, byteBuf.getByte(flagsIndex) | compressor.getId());
+            return compressedSize;
+        } finally {
+            compressed.release();
+        }
+    }
+
+    /**
+     * 按照预估的报文大小分配出站缓冲区，避免序列化过程中缓冲区反复扩容
+     * 优先使用消息头中指定的sizeHint，未指定时使用当前连接上一次编码的消息体大小
+     */
+    @Override
+    protected ByteBuf allocateBuffer(ChannelHandlerContext ctx, RpcProtocol<Object> msg, boolean preferDirect) {
+        int sizeHint = msg.getHeader().getSizeHint();
+        int capacity = RpcConstants.HEADER_TOTAL_LEN + (sizeHint > 0 ? sizeHint : lastBodySize);
+        return preferDirect ? ctx.alloc().ioBuffer(capacity) : ctx.alloc().heapBuffer(capacity);
+    }
+
+    /**
+     * 写出v2消息头，数据长度之前的部分
+     */
+    private void writeHeaderV2(ByteBuf byteBuf, RpcHeader header, byte version, SerializationType serializationType) {
         byteBuf.writeShort(header.getMagic());
+        byteBuf.writeByte(RpcConstants.VERSION_HEADER_MARK | version);
         byteBuf.writeByte(header.getMsgType());
         byteBuf.writeByte(header.getStatus());
+        // 压缩和分片标识由编码器和分片处理器根据本次报文重新计算，不沿用消息头中的值
+        byteBuf.writeByte(header.getFlags() & ~(RpcConstants.FLAG_COMPRESSOR_MASK | RpcConstants.FLAG_CHUNK | RpcConstants.FLAG_LAST_CHUNK));
+        byteBuf.writeByte(serializationType.getId());
+        // 告知对端本端能够解压的压缩算法
+        byteBuf.writeShort(CompressorFactory.getSupportedIds());
+        byteBuf.writeLong(header.getRequestId());
+    }
+
+    /**
+     * 写出v1消息头，数据长度之前的部分
+     */
+    private void writeHeaderV1(ByteBuf byteBuf, RpcHeader header) {
+        byteBuf.writeShort(header.getMagic());
+        byteBuf.writeByte(header.getMsgType());
+        byte status = header.getStatus();
+        if (maxVersion >= RpcConstants.VERSION_V2) {
+            // 告知对端本端能够解析v2报文
+            status |= RpcConstants.STATUS_FLAG_VERSION_NEGOTIATION;
+        }
+        byteBuf.writeByte(status);
         byteBuf.writeLong(header.getRequestId());
-        String serializationType = header.getSerializationType();
-        //TODO Serialization是扩展点
-        Serialization serialization = getJdkSerialization();
-        byteBuf.writeBytes(SerializationUtils.paddingString(serializationType).getBytes("UTF-8"));
-        byte[] data = serialization.serialize(msg.getBody());
-        byteBuf.writeInt(data.length);
-        byteBuf.writeBytes(data);
+        String serializationType = SerializationUtils.paddingString(header.getSerializationType());
+        byteBuf.writeCharSequence(serializationType, CharsetUtil.UTF_8);
     }
 }
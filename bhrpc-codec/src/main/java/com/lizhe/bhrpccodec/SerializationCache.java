@@ -0,0 +1,36 @@
+package com.lizhe.bhrpccodec;
+
+import com.lizhe.bhrpcserialzationapi.Serialization;
+import com.lizhe.bhrpcserialzationapi.SerializationFactory;
+
+/**
+ * SerializationCache
+ * {@code @description} 连接级别的序列化实例缓存
+ * 同一连接上的报文通常使用同一种序列化类型，缓存上一次解析出的序列化实例，避免每条消息都查询注册表
+ * 编解码器与连接一一对应且只在EventLoop线程中执行，无需同步
+ *
+ * @author lizhe@joysuch.com
+ * {@code @date} 2025/3/4 上午10:05
+ * @version 1.0
+ */
+class SerializationCache {
+
+    private String type;
+
+    private Serialization serialization;
+
+    /**
+     * 获取序列化类型对应的序列化实例
+     *
+     * @param type 消息头中的序列化类型名称
+     * @return 序列化实例
+     */
+    Serialization get(String type) {
+        // 序列化类型名称通常是同一个常量实例，先比较引用
+        if (type != this.type && (type == null || !type.equals(this.type))) {
+            this.serialization = SerializationFactory.getSerialization(type);
+            this.type = type;
+        }
+        return serialization;
+    }
+}
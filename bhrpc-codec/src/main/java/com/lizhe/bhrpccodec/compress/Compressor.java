@@ -0,0 +1,42 @@
+package com.lizhe.bhrpccodec.compress;
+
+import io.netty.buffer.ByteBuf;
+
+/**
+ * Compressor
+ * {@code @description} 消息体压缩接口，通过SPI扩展，实现类需要保证线程安全
+ * 扩展的压缩算法(例如lz4、snappy)需要在META-INF/services/com.lizhe.bhrpccodec.compress.Compressor中声明，
+ * 并且服务提供者和服务消费者都要引入
+ *
+ * @author lizhe@joysuch.com
+ * {@code @date} 2025/3/11 上午10:20
+ * @version 1.0
+ */
+public interface Compressor {
+
+    /**
+     * 压缩算法ID，写入v2报文标志位的低4位，取值范围1~15，内置deflate为1，gzip为2
+     */
+    byte getId();
+
+    /**
+     * 压缩算法名称，例如deflate、gzip
+     */
+    String getType();
+
+    /**
+     * 压缩in中所有可读的字节并写入out
+     *
+     * @param in  待压缩的数据
+     * @param out 压缩结果
+     */
+    void compress(ByteBuf in, ByteBuf out);
+
+    /**
+     * 解压in中所有可读的字节并写入out，out的最大容量即为允许的解压后大小
+     *
+     * @param in  待解压的数据
+     * @param out 解压结果
+     */
+    void decompress(ByteBuf in, ByteBuf out);
+}
@@ -0,0 +1,103 @@
+package com.lizhe.bhrpccodec.compress;
+
+import com.lizhe.bhrpccommon.exception.CompressException;
+import com.lizhe.bhrpcconstants.RpcConstants;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.Map;
+import java.util.ServiceLoader;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * CompressorFactory
+ * {@code @description} 压缩算法注册表，通过SPI加载压缩实现
+ * 解码时按报文中的压缩算法ID查找，编码时按配置的压缩算法名称查找
+ *
+ * @author lizhe@joysuch.com
+ * {@code @date} 2025/3/11 上午10:20
+ * @version 1.0
+ */
+public class CompressorFactory {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(CompressorFactory.class);
+
+    /**
+     * 压缩算法ID与压缩实现的映射关系，下标为ID
+     */
+    private static final Compressor[] ID_TABLE = new Compressor[RpcConstants.FLAG_COMPRESSOR_MASK + 1];
+
+    /**
+     * 压缩算法名称与压缩实现的映射关系
+     */
+    private static final Map<String, Compressor> COMPRESSOR_MAP = new ConcurrentHashMap<>();
+
+    /**
+     * 已注册的压缩算法ID位图，第n位为1表示ID为n的压缩算法已注册，写入v2消息头告知对端
+     */
+    private static volatile int supportedIds;
+
+    static {
+        for (Compressor compressor : ServiceLoader.load(Compressor.class)) {
+            register(compressor);
+        }
+        LOGGER.info("load compressor types: {}", COMPRESSOR_MAP.keySet());
+    }
+
+    /**
+     * 注册压缩实现，相同ID或名称的压缩实现会被覆盖
+     *
+     * @param compressor 压缩实现
+     */
+    public static synchronized void register(Compressor compressor) {
+        int id = compressor.getId();
+        if (id <= 0 || id > RpcConstants.FLAG_COMPRESSOR_MASK) {
+            throw new CompressException("compressor id must be between 1 and 15: " + compressor.getType());
+        }
+        ID_TABLE[id] = compressor;
+        COMPRESSOR_MAP.put(compressor.getType(), compressor);
+        supportedIds |= 1 << id;
+    }
+
+    /**
+     * 根据报文标志位中的压缩算法ID获取压缩实现
+     *
+     * @param id 压缩算法ID
+     * @return 压缩实现
+     * @throws CompressException 压缩算法未注册时抛出
+     */
+    public static Compressor getCompressor(int id) {
+        Compressor compressor = id > 0 && id < ID_TABLE.length ? ID_TABLE[id] : null;
+        if (compressor == null) {
+            throw new CompressException("compressor id not found: " + id);
+        }
+        return compressor;
+    }
+
+    /**
+     * 获取本端已注册的压缩算法ID位图
+     *
+     * @return 第n位为1表示支持ID为n的压缩算法
+     */
+    public static int getSupportedIds() {
+        return supportedIds;
+    }
+
+    /**
+     * 根据压缩算法名称获取压缩实现
+     *
+     * @param type 压缩算法名称，为空或none时返回null表示不压缩
+     * @return 压缩实现
+     * @throws CompressException 压缩算法未注册时抛出
+     */
+    public static Compressor getCompressor(String type) {
+        if (type == null || type.isEmpty() || RpcConstants.COMPRESSOR_NONE.equals(type)) {
+            return null;
+        }
+        Compressor compressor = COMPRESSOR_MAP.get(type);
+        if (compressor == null) {
+            throw new CompressException("compressor type not found: " + type);
+        }
+        return compressor;
+    }
+}
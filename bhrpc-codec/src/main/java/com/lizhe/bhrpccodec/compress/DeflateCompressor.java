@@ -0,0 +1,107 @@
+package com.lizhe.bhrpccodec.compress;
+
+import com.lizhe.bhrpccommon.exception.CompressException;
+import com.lizhe.bhrpcconstants.RpcConstants;
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.ByteBufUtil;
+
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+
+/**
+ * DeflateCompressor
+ * {@code @description} 基于JDK Deflater的压缩实现
+ * Deflater和Inflater创建时会分配本地内存，每个线程复用一个实例，每次使用前reset
+ *
+ * @author lizhe@joysuch.com
+ * {@code @date} 2025/3/11 上午10:20
+ * @version 1.0
+ */
+public class DeflateCompressor implements Compressor {
+
+    /**
+     * 堆外缓冲区没有底层数组时，每次写入out的块大小
+     */
+    private static final int CHUNK_SIZE = 8192;
+
+    private static final ThreadLocal<Deflater> DEFLATER_THREAD_LOCAL = ThreadLocal.withInitial(() -> new Deflater(Deflater.BEST_SPEED));
+
+    private static final ThreadLocal<Inflater> INFLATER_THREAD_LOCAL = ThreadLocal.withInitial(Inflater::new);
+
+    @Override
+    public byte getId() {
+        return 1;
+    }
+
+    @Override
+    public String getType() {
+        return RpcConstants.COMPRESSOR_DEFLATE;
+    }
+
+    @Override
+    public void compress(ByteBuf in, ByteBuf out) {
+        Deflater deflater = DEFLATER_THREAD_LOCAL.get();
+        deflater.reset();
+        int length = in.readableBytes();
+        if (in.hasArray()) {
+            deflater.setInput(in.array(), in.arrayOffset() + in.readerIndex(), length);
+        } else {
+            deflater.setInput(ByteBufUtil.getBytes(in, in.readerIndex(), length, false));
+        }
+        deflater.finish();
+        byte[] chunk = out.hasArray() ? null : new byte[CHUNK_SIZE];
+        while (!deflater.finished()) {
+            if (chunk == null) {
+                out.ensureWritable(CHUNK_SIZE);
+                int n = deflater.deflate(out.array(), out.arrayOffset() + out.writerIndex(), out.writableBytes());
+                out.writerIndex(out.writerIndex() + n);
+            } else {
+                int n = deflater.deflate(chunk);
+                out.writeBytes(chunk, 0, n);
+            }
+        }
+        in.skipBytes(length);
+    }
+
+    @Override
+    public void decompress(ByteBuf in, ByteBuf out) {
+        Inflater inflater = INFLATER_THREAD_LOCAL.get();
+        inflater.reset();
+        int length = in.readableBytes();
+        if (in.hasArray()) {
+            inflater.setInput(in.array(), in.arrayOffset() + in.readerIndex(), length);
+        } else {
+            inflater.setInput(ByteBufUtil.getBytes(in, in.readerIndex(), length, false));
+        }
+        try {
+            byte[] chunk = out.hasArray() ? null : new byte[CHUNK_SIZE];
+            while (!inflater.finished()) {
+                int n;
+                if (out.maxWritableBytes() == 0) {
+                    // out已经写满，只允许再读出压缩流的结束标记，仍有数据说明解压后超过了允许的大小
+                    if (inflater.inflate(new byte[1]) > 0) {
+                        throw new CompressException("decompressed data exceeds " + out.maxCapacity() + " bytes");
+                    }
+                    if (!inflater.finished()) {
+                        throw new CompressException("deflate data is truncated");
+                    }
+                    break;
+                } else if (chunk == null) {
+                    out.ensureWritable(Math.min(CHUNK_SIZE, out.maxWritableBytes()));
+                    n = inflater.inflate(out.array(), out.arrayOffset() + out.writerIndex(), out.writableBytes());
+                    out.writerIndex(out.writerIndex() + n);
+                } else {
+                    n = inflater.inflate(chunk, 0, Math.min(CHUNK_SIZE, out.maxWritableBytes()));
+                    out.writeBytes(chunk, 0, n);
+                }
+                if (n == 0 && !inflater.finished() && (inflater.needsInput() || inflater.needsDictionary())) {
+                    throw new CompressException("deflate data is truncated");
+                }
+            }
+        } catch (DataFormatException e) {
+            throw new CompressException(e.getMessage(), e);
+        }
+        in.skipBytes(length);
+    }
+}
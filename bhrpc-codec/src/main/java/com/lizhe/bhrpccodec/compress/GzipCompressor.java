@@ -0,0 +1,64 @@
+package com.lizhe.bhrpccodec.compress;
+
+import com.lizhe.bhrpccommon.exception.CompressException;
+import com.lizhe.bhrpcconstants.RpcConstants;
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.ByteBufInputStream;
+import io.netty.buffer.ByteBufOutputStream;
+
+import java.io.IOException;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * GzipCompressor
+ * {@code @description} 基于JDK GZIP流的压缩实现，比deflate多出头尾校验信息，适合与其他语言的实现互通
+ *
+ * @author lizhe@joysuch.com
+ * {@code @date} 2025/3/11 上午10:20
+ * @version 1.0
+ */
+public class GzipCompressor implements Compressor {
+
+    private static final int BUFFER_SIZE = 8192;
+
+    @Override
+    public byte getId() {
+        return 2;
+    }
+
+    @Override
+    public String getType() {
+        return RpcConstants.COMPRESSOR_GZIP;
+    }
+
+    @Override
+    public void compress(ByteBuf in, ByteBuf out) {
+        try (GZIPOutputStream gzip = new GZIPOutputStream(new ByteBufOutputStream(out), BUFFER_SIZE)) {
+            in.readBytes(gzip, in.readableBytes());
+        } catch (IOException e) {
+            throw new CompressException(e.getMessage(), e);
+        }
+    }
+
+    @Override
+    public void decompress(ByteBuf in, ByteBuf out) {
+        try (GZIPInputStream gzip = new GZIPInputStream(new ByteBufInputStream(in), BUFFER_SIZE)) {
+            while (true) {
+                if (out.maxWritableBytes() == 0) {
+                    // out已经写满，仍有数据说明解压后超过了允许的大小
+                    if (gzip.read() >= 0) {
+                        throw new CompressException("decompressed data exceeds " + out.maxCapacity() + " bytes");
+                    }
+                    break;
+                }
+                out.ensureWritable(Math.min(BUFFER_SIZE, out.maxWritableBytes()));
+                if (out.writeBytes(gzip, out.writableBytes()) < 0) {
+                    break;
+                }
+            }
+        } catch (IOException e) {
+            throw new CompressException(e.getMessage(), e);
+        }
+    }
+}
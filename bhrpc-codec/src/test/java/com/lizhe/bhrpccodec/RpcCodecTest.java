@@ -0,0 +1,258 @@
+package com.lizhe.bhrpccodec;
+
+import com.lizhe.bhrpcconstants.RpcConstants;
+import com.lizhe.bhrpcprotocol.RpcProtocol;
+import com.lizhe.bhrpcprotocol.enumeration.RpcType;
+import com.lizhe.bhrpcprotocol.enumeration.SerializationType;
+import com.lizhe.bhrpcprotocol.header.RpcHeader;
+import com.lizhe.bhrpcprotocol.header.RpcHeaderFactory;
+import com.lizhe.bhrpcprotocol.request.RpcRequest;
+import com.lizhe.bhrpcprotocol.response.RpcResponse;
+import com.lizhe.bhrpcserialzationapi.SerializationFactory;
+import io.netty.buffer.ByteBuf;
+import io.netty.channel.embedded.EmbeddedChannel;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * RpcCodecTest
+ * {@code @description} 编解码器测试，服务消费者和服务提供者各使用一个EmbeddedChannel，报文在两者之间直接传递
+ * 覆盖v1与v2的版本协商、只支持v1的对端、压缩算法协商以及每种已注册序列化的请求和响应往返
+ *
+ * @author lizhe@joysuch.com
+ * {@code @date} 2025/3/28 下午3:20
+ * @version 1.0
+ */
+public class RpcCodecTest {
+
+    /**
+     * v2消息头中压缩算法位图的偏移量
+     */
+    private static final int COMPRESSORS_OFFSET_V2 = 7;
+
+    @Test
+    public void testVersionNegotiation() {
+        EmbeddedChannel consumer = newChannel(RpcConstants.VERSION_V2);
+        EmbeddedChannel provider = newChannel(RpcConstants.VERSION_V2);
+
+        // 尚未协商时发送v1报文，并在状态字节中携带协商标识
+        consumer.writeOutbound(newRequest(RpcConstants.SERIALIZATION_JDK, "first"));
+        ByteBuf request = consumer.readOutbound();
+        assertFalse(isV2(request));
+        assertTrue((request.getByte(3) & RpcConstants.STATUS_FLAG_VERSION_NEGOTIATION) != 0);
+        int v1Length = request.readableBytes();
+        provider.writeInbound(request);
+        RpcProtocol<RpcRequest> received = provider.readInbound();
+        assertEquals(RpcConstants.VERSION_V1, received.getHeader().getVersion());
+        assertEquals(1, received.getHeader().getStatus());
+        assertEquals(RpcConstants.VERSION_V2, provider.attr(RpcCodec.PEER_VERSION).get().byteValue());
+
+        // 服务提供者确认对端能够解析v2后直接响应v2报文
+        provider.writeOutbound(newResponse(received.getHeader(), "hello first"));
+        ByteBuf response = provider.readOutbound();
+        assertTrue(isV2(response));
+        consumer.writeInbound(response);
+        RpcProtocol<RpcResponse> result = consumer.readInbound();
+        assertEquals(RpcConstants.VERSION_V2, result.getHeader().getVersion());
+        assertEquals("hello first", result.getBody().getResult());
+        assertEquals(RpcConstants.VERSION_V2, consumer.attr(RpcCodec.PEER_VERSION).get().byteValue());
+
+        // 之后的请求使用v2报文
+        consumer.writeOutbound(newRequest(RpcConstants.SERIALIZATION_JDK, "second"));
+        ByteBuf second = consumer.readOutbound();
+        assertTrue(isV2(second));
+        assertTrue(second.readableBytes() < v1Length);
+        provider.writeInbound(second);
+        RpcProtocol<RpcRequest> secondReceived = provider.readInbound();
+        assertEquals("second", secondReceived.getBody().getParameters()[0]);
+
+        consumer.finishAndReleaseAll();
+        provider.finishAndReleaseAll();
+    }
+
+    @Test
+    public void testV1OnlyConsumer() {
+        EmbeddedChannel consumer = newChannel(RpcConstants.VERSION_V1);
+        EmbeddedChannel provider = newChannel(RpcConstants.VERSION_V2);
+        for (int i = 0; i < 3; i++) {
+            consumer.writeOutbound(newRequest(RpcConstants.SERIALIZATION_JDK, "v1-" + i));
+            ByteBuf request = consumer.readOutbound();
+            assertFalse(isV2(request));
+            assertEquals(0, request.getByte(3) & RpcConstants.STATUS_FLAG_VERSION_NEGOTIATION);
+            provider.writeInbound(request);
+            RpcProtocol<RpcRequest> received = provider.readInbound();
+            assertEquals("v1-" + i, received.getBody().getParameters()[0]);
+
+            provider.writeOutbound(newResponse(received.getHeader(), "hello v1-" + i));
+            ByteBuf response = provider.readOutbound();
+            assertFalse(isV2(response));
+            consumer.writeInbound(response);
+            RpcProtocol<RpcResponse> result = consumer.readInbound();
+            assertEquals("hello v1-" + i, result.getBody().getResult());
+        }
+        assertNull(provider.attr(RpcCodec.PEER_VERSION).get());
+        consumer.finishAndReleaseAll();
+        provider.finishAndReleaseAll();
+    }
+
+    @Test
+    public void testV1OnlyProvider() {
+        EmbeddedChannel consumer = newChannel(RpcConstants.VERSION_V2);
+        EmbeddedChannel provider = newChannel(RpcConstants.VERSION_V1);
+        for (int i = 0; i < 3; i++) {
+            consumer.writeOutbound(newRequest(RpcConstants.SERIALIZATION_JDK, "v2-" + i));
+            ByteBuf request = consumer.readOutbound();
+            assertFalse(isV2(request));
+            provider.writeInbound(request);
+            RpcProtocol<RpcRequest> received = provider.readInbound();
+
+            provider.writeOutbound(newResponse(received.getHeader(), "hello v2-" + i));
+            ByteBuf response = provider.readOutbound();
+            assertFalse(isV2(response));
+            consumer.writeInbound(response);
+            RpcProtocol<RpcResponse> result = consumer.readInbound();
+            assertEquals("hello v2-" + i, result.getBody().getResult());
+        }
+        assertNull(consumer.attr(RpcCodec.PEER_VERSION).get());
+        consumer.finishAndReleaseAll();
+        provider.finishAndReleaseAll();
+    }
+
+    @Test
+    public void testRoundTripForEachSerialization() {
+        List<String> types = new ArrayList<>();
+        for (SerializationType type : SerializationType.values()) {
+            if (SerializationFactory.contains(type.getName())) {
+                types.add(type.getName());
+            }
+        }
+        assertTrue(types.contains(RpcConstants.SERIALIZATION_JDK));
+        assertTrue(types.contains(RpcConstants.SERIALIZATION_JSON));
+        assertTrue(types.contains(RpcConstants.SERIALIZATION_HESSIAN2));
+        assertTrue(types.contains(RpcConstants.SERIALIZATION_PROTOSTUFF));
+        assertTrue(types.contains(RpcConstants.SERIALIZATION_KRYO));
+        assertTrue(types.contains(RpcConstants.SERIALIZATION_FAST));
+
+        for (String type : types) {
+            EmbeddedChannel consumer = newChannel(RpcConstants.VERSION_V2);
+            EmbeddedChannel provider = newChannel(RpcConstants.VERSION_V2);
+            // 第一次往返为v1报文，第二次为v2报文
+            for (int i = 0; i < 2; i++) {
+                consumer.writeOutbound(newRequest(type, type + i));
+                ByteBuf requestFrame = consumer.readOutbound();
+                assertEquals(type, i == 1, isV2(requestFrame));
+                provider.writeInbound(requestFrame);
+                RpcProtocol<RpcRequest> received = provider.readInbound();
+                assertEquals(type, received.getHeader().getSerializationType());
+                RpcRequest request = received.getBody();
+                assertEquals(type, "com.lizhe.bhrpctest.DemoService", request.getClassName());
+                assertEquals(type, "hello", request.getMethodName());
+                assertEquals(type, "1.0.0", request.getVersion());
+                assertEquals(type, "binghe", request.getGroup());
+                assertArrayEquals(type, new Class<?>[]{String.class, int.class}, request.getParameterTypes());
+                assertArrayEquals(type, new Object[]{type + i, 7}, request.getParameters());
+
+                provider.writeOutbound(newResponse(received.getHeader(), "hello " + type + i));
+                consumer.writeInbound((Object) provider.readOutbound());
+                RpcProtocol<RpcResponse> result = consumer.readInbound();
+                assertEquals(type, received.getHeader().getRequestId(), result.getHeader().getRequestId());
+                assertEquals(type, "hello " + type + i, result.getBody().getResult());
+            }
+            consumer.finishAndReleaseAll();
+            provider.finishAndReleaseAll();
+        }
+    }
+
+    @Test
+    public void testCompressOnlyWithPeerSupport() {
+        EmbeddedChannel consumer = newChannel(RpcConstants.VERSION_V2, RpcConstants.COMPRESSOR_GZIP);
+        EmbeddedChannel provider = newChannel(RpcConstants.VERSION_V2);
+        negotiate(consumer, provider, false);
+        consumer.writeOutbound(newRequest(RpcConstants.SERIALIZATION_JDK, "uncompressed"));
+        ByteBuf request = consumer.readOutbound();
+        assertTrue(isV2(request));
+        assertEquals(0, flags(request) & RpcConstants.FLAG_COMPRESSOR_MASK);
+        request.release();
+        consumer.finishAndReleaseAll();
+        provider.finishAndReleaseAll();
+
+        consumer = newChannel(RpcConstants.VERSION_V2, RpcConstants.COMPRESSOR_GZIP);
+        provider = newChannel(RpcConstants.VERSION_V2);
+        negotiate(consumer, provider, true);
+        consumer.writeOutbound(newRequest(RpcConstants.SERIALIZATION_JDK, "compressed"));
+        request = consumer.readOutbound();
+        assertNotEquals(0, flags(request) & RpcConstants.FLAG_COMPRESSOR_MASK);
+        provider.writeInbound(request);
+        RpcProtocol<RpcRequest> received = provider.readInbound();
+        assertEquals("compressed", received.getBody().getParameters()[0]);
+        consumer.finishAndReleaseAll();
+        provider.finishAndReleaseAll();
+    }
+
+    /**
+     * 完成一次往返，使服务消费者确认对端能够解析v2，peerCompressors为false时模拟对端不支持任何压缩算法
+     */
+    private static void negotiate(EmbeddedChannel consumer, EmbeddedChannel provider, boolean peerCompressors) {
+        consumer.writeOutbound(newRequest(RpcConstants.SERIALIZATION_JDK, "negotiate"));
+        provider.writeInbound((Object) consumer.readOutbound());
+        RpcProtocol<RpcRequest> received = provider.readInbound();
+        provider.writeOutbound(newResponse(received.getHeader(), "negotiate"));
+        ByteBuf response = provider.readOutbound();
+        if (!peerCompressors) {
+            response.setShort(response.readerIndex() + COMPRESSORS_OFFSET_V2, 0);
+        }
+        consumer.writeInbound(response);
+        consumer.readInbound();
+    }
+
+    private static EmbeddedChannel newChannel(byte maxVersion) {
+        return newChannel(maxVersion, RpcConstants.COMPRESSOR_NONE);
+    }
+
+    private static EmbeddedChannel newChannel(byte maxVersion, String compressor) {
+        return new EmbeddedChannel(new RpcEncoder(maxVersion, compressor, 0), new RpcDecoder());
+    }
+
+    private static boolean isV2(ByteBuf frame) {
+        return (frame.getByte(frame.readerIndex() + 2) & RpcConstants.VERSION_HEADER_MARK) != 0;
+    }
+
+    private static int flags(ByteBuf frame) {
+        return frame.getByte(frame.readerIndex() + 5);
+    }
+
+    private static RpcProtocol<Object> newRequest(String serializationType, String name) {
+        RpcRequest request = new RpcRequest();
+        request.setClassName("com.lizhe.bhrpctest.DemoService");
+        request.setMethodName("hello");
+        request.setVersion("1.0.0");
+        request.setGroup("binghe");
+        request.setParameterTypes(new Class<?>[]{String.class, int.class});
+        request.setParameters(new Object[]{name, 7});
+        RpcProtocol<Object> protocol = new RpcProtocol<>();
+        protocol.setHeader(RpcHeaderFactory.getRpcRequestHeader(serializationType));
+        protocol.setBody(request);
+        return protocol;
+    }
+
+    private static RpcProtocol<Object> newResponse(RpcHeader requestHeader, Object result) {
+        RpcHeader header = RpcHeaderFactory.getRpcRequestHeader(requestHeader.getSerializationType());
+        header.setRequestId(requestHeader.getRequestId());
+        header.setMsgType((byte) RpcType.RESPONSE.getType());
+        RpcResponse response = new RpcResponse();
+        response.setResult(result);
+        RpcProtocol<Object> protocol = new RpcProtocol<>();
+        protocol.setHeader(header);
+        protocol.setBody(response);
+        return protocol;
+    }
+}
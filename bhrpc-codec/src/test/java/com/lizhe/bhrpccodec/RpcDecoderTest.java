@@ -0,0 +1,161 @@
+package com.lizhe.bhrpccodec;
+
+import com.lizhe.bhrpcconstants.RpcConstants;
+import com.lizhe.bhrpcprotocol.RpcProtocol;
+import com.lizhe.bhrpcprotocol.header.RpcHeaderFactory;
+import com.lizhe.bhrpcprotocol.request.RpcRequest;
+import io.netty.buffer.ByteBuf;
+import io.netty.channel.embedded.EmbeddedChannel;
+import io.netty.handler.codec.TooLongFrameException;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+/**
+ * RpcDecoderTest
+ * {@code @description} 解码器分片重组测试，分片由RpcChunkedWriteHandler按较小的分片大小拆分
+ *
+ * @author lizhe@joysuch.com
+ * {@code @date} 2025/3/28 下午2:10
+ * @version 1.0
+ */
+public class RpcDecoderTest {
+
+    private static final int CHUNK_SIZE = 64;
+
+    @Test
+    public void testChunkReassembly() {
+        List<ByteBuf> frames = encodeChunks(newRequest("bhrpc", 1000));
+        assertTrue(frames.size() > 2);
+
+        EmbeddedChannel decoder = new EmbeddedChannel(new RpcDecoder());
+        for (int i = 0; i < frames.size(); i++) {
+            decoder.writeInbound(frames.get(i));
+            if (i < frames.size() - 1) {
+                assertNull(decoder.readInbound());
+            }
+        }
+        RpcProtocol<RpcRequest> protocol = decoder.readInbound();
+        assertRequest(protocol, "bhrpc", 1000);
+        assertEquals(0, protocol.getHeader().getFlags() & (RpcConstants.FLAG_CHUNK | RpcConstants.FLAG_LAST_CHUNK));
+        decoder.finishAndReleaseAll();
+    }
+
+    @Test
+    public void testInterleavedChunkReassembly() {
+        List<ByteBuf> frames = encodeChunks(newRequest("first", 600), newRequest("second", 900));
+
+        EmbeddedChannel decoder = new EmbeddedChannel(new RpcDecoder());
+        for (ByteBuf frame : frames) {
+            decoder.writeInbound(frame);
+        }
+        assertRequest(decoder.readInbound(), "first", 600);
+        assertRequest(decoder.readInbound(), "second", 900);
+        assertNull(decoder.readInbound());
+        decoder.finishAndReleaseAll();
+    }
+
+    @Test
+    public void testTooManyChunkMessages() {
+        List<ByteBuf> frames = encodeChunks(newRequest("first", 600), newRequest("second", 600));
+
+        // 分片轮流写出，前两个分片分别属于两个消息
+        EmbeddedChannel decoder = new EmbeddedChannel(new RpcDecoder(RpcConstants.DEFAULT_MAX_MESSAGE_LENGTH, 1, Integer.MAX_VALUE));
+        decoder.writeInbound(frames.get(0));
+        assertTooLong(decoder, frames.get(1));
+        releaseAll(frames.subList(2, frames.size()));
+    }
+
+    @Test
+    public void testChunkBytesExceeded() {
+        List<ByteBuf> frames = encodeChunks(newRequest("bhrpc", 1000));
+
+        EmbeddedChannel decoder = new EmbeddedChannel(new RpcDecoder(RpcConstants.DEFAULT_MAX_MESSAGE_LENGTH,
+                RpcConstants.DEFAULT_MAX_CHUNK_MESSAGES, CHUNK_SIZE * 2));
+        decoder.writeInbound(frames.get(0));
+        decoder.writeInbound(frames.get(1));
+        assertTooLong(decoder, frames.get(2));
+        releaseAll(frames.subList(3, frames.size()));
+    }
+
+    @Test
+    public void testMessageLengthExceeded() {
+        List<ByteBuf> frames = encodeChunks(newRequest("bhrpc", 1000));
+
+        EmbeddedChannel decoder = new EmbeddedChannel(new RpcDecoder(CHUNK_SIZE * 2, RpcConstants.DEFAULT_MAX_CHUNK_MESSAGES, Integer.MAX_VALUE));
+        decoder.writeInbound(frames.get(0));
+        decoder.writeInbound(frames.get(1));
+        assertTooLong(decoder, frames.get(2));
+        releaseAll(frames.subList(3, frames.size()));
+    }
+
+    /**
+     * 按v2协议编码并拆分为分片，多个消息的分片轮流写出
+     */
+    private static List<ByteBuf> encodeChunks(RpcProtocol<?>... protocols) {
+        EmbeddedChannel encoder = new EmbeddedChannel(new RpcChunkedWriteHandler(CHUNK_SIZE),
+                new RpcEncoder(RpcConstants.VERSION_V2, RpcConstants.COMPRESSOR_NONE, Integer.MAX_VALUE));
+        encoder.attr(RpcCodec.PEER_VERSION).set(RpcConstants.VERSION_V2);
+        encoder.writeOutbound((Object[]) protocols);
+        List<ByteBuf> frames = new ArrayList<>();
+        ByteBuf frame;
+        while ((frame = encoder.readOutbound()) != null) {
+            frames.add(frame);
+        }
+        encoder.finishAndReleaseAll();
+        return frames;
+    }
+
+    private static RpcProtocol<RpcRequest> newRequest(String name, int length) {
+        RpcRequest request = new RpcRequest();
+        request.setClassName("com.lizhe.bhrpctest.DemoService");
+        request.setMethodName("hello");
+        request.setVersion("1.0.0");
+        request.setGroup("binghe");
+        request.setParameterTypes(new Class<?>[]{String.class, byte[].class});
+        request.setParameters(new Object[]{name, payload(length)});
+        RpcProtocol<RpcRequest> protocol = new RpcProtocol<>();
+        protocol.setHeader(RpcHeaderFactory.getRpcRequestHeader(RpcConstants.SERIALIZATION_JDK));
+        protocol.setBody(request);
+        return protocol;
+    }
+
+    private static byte[] payload(int length) {
+        byte[] payload = new byte[length];
+        for (int i = 0; i < length; i++) {
+            payload[i] = (byte) i;
+        }
+        return payload;
+    }
+
+    private static void assertRequest(RpcProtocol<RpcRequest> protocol, String name, int length) {
+        RpcRequest request = protocol.getBody();
+        assertEquals("com.lizhe.bhrpctest.DemoService", request.getClassName());
+        assertEquals("hello", request.getMethodName());
+        assertEquals(name, request.getParameters()[0]);
+        assertTrue(Arrays.equals(payload(length), (byte[]) request.getParameters()[1]));
+    }
+
+    private static void assertTooLong(EmbeddedChannel decoder, ByteBuf frame) {
+        try {
+            decoder.writeInbound(frame);
+            fail("chunk over the limit should be rejected");
+        } catch (TooLongFrameException e) {
+            // expected
+        }
+        decoder.finishAndReleaseAll();
+    }
+
+    private static void releaseAll(List<ByteBuf> frames) {
+        for (ByteBuf frame : frames) {
+            frame.release();
+        }
+    }
+}
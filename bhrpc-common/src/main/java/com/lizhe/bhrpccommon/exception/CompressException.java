@@ -0,0 +1,41 @@
+package com.lizhe.bhrpccommon.exception;
+
+/**
+ * CompressException
+ * {@code @description} CompressException
+ *
+ * @author lizhe@joysuch.com
+ * {@code @date} 2025/3/11 上午10:20
+ * @version 1.0
+ */
+public class CompressException extends RuntimeException{
+    private static final long serialVersionUID = -3021847719243518872L;
+
+    /**
+     * Instantiates a new Serializer exception.
+     *
+     * @param e the e
+     */
+    public CompressException(final Throwable e) {
+        super(e);
+    }
+
+    /**
+     * Instantiates a new Serializer exception.
+     *
+     * @param message the message
+     */
+    public CompressException(final String message) {
+        super(message);
+    }
+
+    /**
+     * Instantiates a new Serializer exception.
+     *
+     * @param message   the message
+     * @param throwable the throwable
+     */
+    public CompressException(final String message, final Throwable throwable) {
+        super(message, throwable);
+    }
+}
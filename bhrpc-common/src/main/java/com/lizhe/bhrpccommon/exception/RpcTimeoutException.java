@@ -0,0 +1,41 @@
+package com.lizhe.bhrpccommon.exception;
+
+/**
+ * RpcTimeoutException
+ * {@code @description} RPC请求在超时时间内没有收到响应
+ *
+ * @author lizhe@joysuch.com
+ * {@code @date} 2025/3/19 上午10:12
+ * @version 1.0
+ */
+public class RpcTimeoutException extends RuntimeException{
+    private static final long serialVersionUID = 4170982345781604417L;
+
+    /**
+     * Instantiates a new Rpc timeout exception.
+     *
+     * @param e the e
+     */
+    public RpcTimeoutException(final Throwable e) {
+        super(e);
+    }
+
+    /**
+     * Instantiates a new Rpc timeout exception.
+     *
+     * @param message the message
+     */
+    public RpcTimeoutException(final String message) {
+        super(message);
+    }
+
+    /**
+     * Instantiates a new Rpc timeout exception.
+     *
+     * @param message   the message
+     * @param throwable the throwable
+     */
+    public RpcTimeoutException(final String message, final Throwable throwable) {
+        super(message, throwable);
+    }
+}
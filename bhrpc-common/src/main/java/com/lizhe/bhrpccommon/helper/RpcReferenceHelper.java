@@ -0,0 +1,47 @@
+package com.lizhe.bhrpccommon.helper;
+
+import com.lizhe.bhrpcannotation.RpcMethod;
+import com.lizhe.bhrpcannotation.RpcReference;
+
+/**
+ * RpcReferenceHelper
+ * {@code @description} 解析@RpcReference及其方法级别配置的帮助类
+ *
+ * @author lizhe@joysuch.com
+ * {@code @date} 2025/3/19 上午10:12
+ * @version 1.0
+ */
+public class RpcReferenceHelper {
+
+    /**
+     * 获取方法的超时时间，@RpcMethod中配置了大于0的timeout时优先使用，否则使用@RpcReference的timeout
+     *
+     * @param reference  服务引用注解
+     * @param methodName 方法名称
+     * @return 超时时间，单位毫秒
+     */
+    public static long getTimeout(RpcReference reference, String methodName) {
+        for (RpcMethod method : reference.methods()) {
+            if (method.name().equals(methodName) && method.timeout() > 0) {
+                return method.timeout();
+            }
+        }
+        return reference.timeout();
+    }
+
+    /**
+     * 获取方法的序列化类型，@RpcMethod中配置了serializationType时优先使用，否则使用@RpcReference的serializationType
+     *
+     * @param reference  服务引用注解
+     * @param methodName 方法名称
+     * @return 序列化类型
+     */
+    public static String getSerializationType(RpcReference reference, String methodName) {
+        for (RpcMethod method : reference.methods()) {
+            if (method.name().equals(methodName) && !method.serializationType().isEmpty()) {
+                return method.serializationType();
+            }
+        }
+        return reference.serializationType();
+    }
+}
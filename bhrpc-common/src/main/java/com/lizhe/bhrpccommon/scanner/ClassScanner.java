@@ -7,8 +7,10 @@ import java.net.JarURLConnection;
 import java.net.URL;
 import java.net.URLDecoder;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.Enumeration;
 import java.util.List;
+import java.util.Set;
 import java.util.jar.JarEntry;
 import java.util.jar.JarFile;
 
@@ -127,6 +129,17 @@ public class ClassScanner {
      * @throws Exception
      */
     public static List<String> getClassNameList(String packageName) throws Exception{
+        return getClassNameList(packageName, Collections.emptySet());
+    }
+
+    /**
+     * 扫描指定包下的所有类信息，跳过指定的jar包
+     * @param packageName 指定的包名
+     * @param excludedJars 跳过的jar包，元素为JarURLConnection.getJarFileURL()的字符串形式
+     * @return 指定包下所有完整类名的List集合
+     * @throws Exception
+     */
+    public static List<String> getClassNameList(String packageName, Set<String> excludedJars) throws Exception{
         //第一个class类的集合
         List<String> classNameList = new ArrayList<>();
         //是否循环迭代
@@ -148,6 +161,9 @@ public class ClassScanner {
                 //以文件的方式扫描整个包下的文件 并添加到集合中
                 findAndAddClassesInPackageByFile(packageName, filePath, recursive, classNameList);
             } else if (PROTOCOL_JAR.equals(protocol)){
+                if (excludedJars.contains(((JarURLConnection) url.openConnection()).getJarFileURL().toString())) {
+                    continue;
+                }
                 packageName = findAndAddClassesInPackageByJar(packageName, classNameList, recursive, packageDirName, url);
             }
         }
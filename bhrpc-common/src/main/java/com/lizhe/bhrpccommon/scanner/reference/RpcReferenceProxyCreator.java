@@ -0,0 +1,24 @@
+package com.lizhe.bhrpccommon.scanner.reference;
+
+import com.lizhe.bhrpcannotation.RpcReference;
+
+/**
+ * RpcReferenceProxyCreator
+ * {@code @description} 为@RpcReference标注的接口引用创建代理对象，由服务消费者的代理模块实现
+ * 扫描器位于公共模块中，不能直接依赖服务消费者，通过该接口在扫描时创建代理对象
+ *
+ * @author lizhe@joysuch.com
+ * {@code @date} 2025/3/24 上午9:28
+ * @version 1.0
+ */
+public interface RpcReferenceProxyCreator {
+
+    /**
+     * 创建代理对象
+     *
+     * @param interfaceClass 服务接口
+     * @param reference      字段上的@RpcReference注解
+     * @return 实现了服务接口的代理对象
+     */
+    Object createProxy(Class<?> interfaceClass, RpcReference reference);
+}
@@ -1,6 +1,8 @@
 package com.lizhe.bhrpccommon.scanner.reference;
 
+import com.lizhe.bhrpcannotation.RpcMethod;
 import com.lizhe.bhrpcannotation.RpcReference;
+import com.lizhe.bhrpccommon.helper.RpcReferenceHelper;
 import com.lizhe.bhrpccommon.scanner.ClassScanner;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -27,6 +29,17 @@ public class RpcReferenceScanner extends ClassScanner {
      * 扫描指定包下的类，并筛选使用@RpcReference注解标注的类
      */
     public static Map<String, Object> doScannerWithRpcReferenceAnnotationFilter(/*String host, int port, */ String scanPackage/*, RegistryService registryService*/) throws Exception {
+        return doScannerWithRpcReferenceAnnotationFilter(scanPackage, null);
+    }
+
+    /**
+     * 扫描指定包下的类，为使用@RpcReference注解标注的字段创建代理对象
+     *
+     * @param scanPackage  扫描的包
+     * @param proxyCreator 代理对象创建器，为null时只输出注解信息
+     * @return 字段与代理对象的映射关系，key为类名称#字段名称
+     */
+    public static Map<String, Object> doScannerWithRpcReferenceAnnotationFilter(String scanPackage, RpcReferenceProxyCreator proxyCreator) throws Exception {
         Map<String, Object> handlerMap = new HashMap<>();
         List<String> classNameList = getClassNameList(scanPackage);
         if (classNameList.isEmpty()) {
@@ -39,13 +52,22 @@ public class RpcReferenceScanner extends ClassScanner {
                 Stream.of(declaredFields).forEach(field -> {
                     RpcReference rpcReference = field.getAnnotation(RpcReference.class);
                     if (rpcReference != null) {
-                        //TODO 处理后续逻辑，将@RpcReference注解标注的接口引用代理对象，放入全局缓存中
                         LOGGER.info("当前标注了@RpcReference注解的字段名称===>>> {}", field.getName());
                         LOGGER.info("@RpcReference注解上标注的属性信息如下：");
                         LOGGER.info("version===>>> {}", rpcReference.version());
                         LOGGER.info("group===>>> {}", rpcReference.group());
                         LOGGER.info("registryType===>>> {}", rpcReference.registryType());
                         LOGGER.info("registryAddress===>>> {}", rpcReference.registryAddress());
+                        LOGGER.info("serializationType===>>> {}", rpcReference.serializationType());
+                        LOGGER.info("timeout===>>> {}", rpcReference.timeout());
+                        LOGGER.info("callbackExecutor===>>> {}", rpcReference.callbackExecutor());
+                        for (RpcMethod rpcMethod : rpcReference.methods()) {
+                            LOGGER.info("method===>>> {}, serializationType===>>> {}, timeout===>>> {}", rpcMethod.name(), rpcMethod.serializationType(), RpcReferenceHelper.getTimeout(rpcReference, rpcMethod.name()));
+                        }
+                        if (proxyCreator != null) {
+                            //将@RpcReference注解标注的接口引用代理对象放入缓存中，同一个类的字段各自有一个代理对象
+                            handlerMap.put(clazz.getName() + "#" + field.getName(), proxyCreator.createProxy(field.getType(), rpcReference));
+                        }
                     }
                 });
             } catch (Exception e) {
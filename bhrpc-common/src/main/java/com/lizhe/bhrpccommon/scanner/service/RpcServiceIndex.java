@@ -0,0 +1,119 @@
+package com.lizhe.bhrpccommon.scanner.service;
+
+import com.lizhe.bhrpcannotation.stub.RpcStubNames;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.net.JarURLConnection;
+import java.net.URL;
+import java.net.URLConnection;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Enumeration;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * RpcServiceIndex
+ * {@code @description} 读取RpcStubProcessor在编译期生成的服务索引，每个模块一个索引文件，按类加载器合并
+ * 服务启动时按索引直接加载@RpcService实现类，带有索引的jar包不需要再遍历
+ * 只使用jar包中的索引：jar包由完整编译生成，索引包含jar包中所有的服务；
+ * 目录中的索引可能来自IDE的增量编译，只包含部分服务，目录和没有索引的jar包仍然扫描类路径
+ *
+ * @author lizhe@joysuch.com
+ * {@code @date} 2025/3/25 下午2:12
+ * @version 1.0
+ */
+public class RpcServiceIndex {
+
+    private final List<Entry> entries = new ArrayList<>();
+
+    /**
+     * 带有索引的jar包的URL，即JarURLConnection.getJarFileURL()
+     */
+    private final Set<String> indexedJars = new HashSet<>();
+
+    private RpcServiceIndex() {
+    }
+
+    /**
+     * 读取jar包中的服务索引，只保留指定包及其子包下的服务
+     *
+     * @param classLoader 类加载器
+     * @param scanPackage 包名称
+     * @return 服务索引，没有索引时不包含任何服务和jar包
+     * @throws IOException 读取索引失败
+     */
+    public static RpcServiceIndex load(ClassLoader classLoader, String scanPackage) throws IOException {
+        RpcServiceIndex index = new RpcServiceIndex();
+        Enumeration<URL> urls = classLoader.getResources(RpcStubNames.SERVICE_INDEX);
+        String prefix = scanPackage + ".";
+        while (urls.hasMoreElements()) {
+            URLConnection connection = urls.nextElement().openConnection();
+            if (!(connection instanceof JarURLConnection)) {
+                continue;
+            }
+            index.indexedJars.add(((JarURLConnection) connection).getJarFileURL().toString());
+            try (BufferedReader reader = new BufferedReader(new InputStreamReader(connection.getInputStream(), StandardCharsets.UTF_8))) {
+                String line;
+                while ((line = reader.readLine()) != null) {
+                    String[] fields = line.split(RpcStubNames.INDEX_SEPARATOR, -1);
+                    if (fields.length == 4 && fields[0].startsWith(prefix)) {
+                        index.entries.add(new Entry(fields[0], fields[1], fields[2], fields[3]));
+                    }
+                }
+            }
+        }
+        return index;
+    }
+
+    public List<Entry> getEntries() {
+        return entries;
+    }
+
+    /**
+     * @return 带有索引的jar包，扫描类路径时跳过
+     */
+    public Set<String> getIndexedJars() {
+        return indexedJars;
+    }
+
+    /**
+     * 索引中的一个服务
+     */
+    public static final class Entry {
+
+        private final String serviceClassName;
+
+        private final String serviceName;
+
+        private final String version;
+
+        private final String group;
+
+        Entry(String serviceClassName, String serviceName, String version, String group) {
+            this.serviceClassName = serviceClassName;
+            this.serviceName = serviceName;
+            this.version = version;
+            this.group = group;
+        }
+
+        public String getServiceClassName() {
+            return serviceClassName;
+        }
+
+        public String getServiceName() {
+            return serviceName;
+        }
+
+        public String getVersion() {
+            return version;
+        }
+
+        public String getGroup() {
+            return group;
+        }
+    }
+}
@@ -34,9 +34,18 @@ public class RpcServiceScanner extends ClassScanner {
     public static Map<String, Object> doScannerWithRpcServiceAnnotationFilterAndRegistryService(/*String host, int port, */ String scanPackage/*, RegistryService registryService*/) throws Exception {
         // 创建一个映射，用于存储服务实例
         Map<String, Object> handlerMap = new HashMap<>();
-        // 获取指定包下所有类的名称列表
-        List<String> classNameList = getClassNameList(scanPackage);
-        // 如果类名列表为空，则直接返回空映射
+        // 带有编译期生成的服务索引的jar包按索引加载
+        RpcServiceIndex index = RpcServiceIndex.load(RpcServiceScanner.class.getClassLoader(), scanPackage);
+        for (RpcServiceIndex.Entry entry : index.getEntries()) {
+            String key = RpcServiceHelper.buildServiceKey(entry.getServiceName(), entry.getVersion(), entry.getGroup());
+            handlerMap.put(key, Class.forName(entry.getServiceClassName()).newInstance());
+        }
+        if (!handlerMap.isEmpty()) {
+            LOGGER.info("load services from index size : {} class{}", handlerMap.size(), JSON.toJSON(handlerMap));
+        }
+        // 获取目录和没有索引的jar包中指定包下所有类的名称列表
+        List<String> classNameList = getClassNameList(scanPackage, index.getIndexedJars());
+        // 如果类名列表为空，则直接返回索引中的服务
         if (classNameList.isEmpty()) {
             return handlerMap;
         }
@@ -15,24 +15,83 @@
  */
 package com.lizhe.bhrpccommon.threadpool;
 
+import com.lizhe.bhrpcconstants.RpcThreadPoolConstants;
+import io.netty.util.concurrent.DefaultThreadFactory;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
 import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.Executor;
 import java.util.concurrent.ThreadPoolExecutor;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
 
 /**
  * @author binghe(公众号：冰河技术)
  * @version 1.0.0
- * @description 服务消费者线程池
+ * @description 服务消费者线程池，用于执行异步回调，服务消费者只使用这一个共享实例
+ * 线程数和队列容量分别读取系统属性bhrpc.consumer.callback.threads和bhrpc.consumer.callback.queue，
+ * 队列已满时由提交任务的线程直接执行并计入拒绝次数，回调不会丢失
  */
 public class ClientThreadPool {
 
-    private static ThreadPoolExecutor threadPoolExecutor;
+    private static final Logger LOGGER = LoggerFactory.getLogger(ClientThreadPool.class);
+
+    private static final LongAdder REJECTED_COUNT = new LongAdder();
+
+    private static final ThreadPoolExecutor threadPoolExecutor;
 
     static{
-        threadPoolExecutor = new ThreadPoolExecutor(16, 16, 600L, TimeUnit.SECONDS, new ArrayBlockingQueue<Runnable>(65536));
+        int threads = Integer.getInteger(RpcThreadPoolConstants.CLIENT_CALLBACK_THREADS_PROPERTY, RpcThreadPoolConstants.DEFAULT_CLIENT_CALLBACK_THREADS);
+        int capacity = Integer.getInteger(RpcThreadPoolConstants.CLIENT_CALLBACK_QUEUE_PROPERTY, RpcThreadPoolConstants.DEFAULT_CLIENT_CALLBACK_QUEUE_CAPACITY);
+        threadPoolExecutor = new ThreadPoolExecutor(threads, threads, 600L, TimeUnit.SECONDS, new ArrayBlockingQueue<Runnable>(capacity),
+                new DefaultThreadFactory("bhrpc-consumer-callback", true), (task, executor) -> {
+            REJECTED_COUNT.increment();
+            if (executor.isShutdown()) {
+                LOGGER.warn("client thread pool is shutdown, task discarded.");
+                return;
+            }
+            task.run();
+        });
     }
+
     public static void submit(Runnable task){
-        threadPoolExecutor.submit(task);
+        threadPoolExecutor.execute(task);
+    }
+
+    /**
+     * 共享线程池对应的Executor，用于CompletableFuture的异步阶段
+     */
+    public static Executor getExecutor() {
+        return threadPoolExecutor;
+    }
+
+    /**
+     * 队列中等待执行的任务数
+     */
+    public static int getQueueSize() {
+        return threadPoolExecutor.getQueue().size();
+    }
+
+    /**
+     * 正在执行任务的线程数
+     */
+    public static int getActiveCount() {
+        return threadPoolExecutor.getActiveCount();
+    }
+
+    /**
+     * 已经执行完成的任务数，近似值
+     */
+    public static long getCompletedTaskCount() {
+        return threadPoolExecutor.getCompletedTaskCount();
+    }
+
+    /**
+     * 队列已满或线程池关闭后被拒绝的任务数
+     */
+    public static long getRejectedCount() {
+        return REJECTED_COUNT.sum();
     }
 
     public static void shutdown() {
@@ -13,6 +13,8 @@ import java.util.stream.IntStream;
 public class SerializationUtils {
     private static final String PADDING_STRING = "0";
 
+    private static final char PADDING_CHAR = '0';
+
     /**
      * 约定序列化类型最大长度为16
      */
@@ -34,13 +36,17 @@ public class SerializationUtils {
     }
 
     /**
-     * 字符串去0 操作
+     * 字符串去0 操作，只去掉末尾补齐的0，保留序列化类型名称中间的0
      * @param str 原始字符串
      * @return 去0后的字符串
      */
     public static String subString(String str){
         str = transNullToEmpty(str);
-        return str.replace(PADDING_STRING, "");
+        int end = str.length();
+        while (end > 0 && str.charAt(end - 1) == PADDING_CHAR) {
+            end--;
+        }
+        return str.substring(0, end);
     }
 
     public static String transNullToEmpty(String str) {
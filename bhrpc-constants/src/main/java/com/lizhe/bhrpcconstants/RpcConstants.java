@@ -27,15 +27,231 @@ public class RpcConstants {
      */
     public static final int HEADER_TOTAL_LEN = 32;
 
+    /**
+     * v2版本消息头，固定21个字节
+     */
+    public static final int HEADER_TOTAL_LEN_V2 = 21;
+
     /**
      * 魔数
      */
     public static final short MAGIC = 0x10;
 
     /**
-     * 版本号
+     * v1版本协议，消息头中携带16字节的序列化类型字符串
+     */
+    public static final byte VERSION_V1 = 0x1;
+
+    /**
+     * v2版本协议，消息头中携带1字节的序列化ID、标志位、版本号和2字节的压缩算法位图
      */
-    public static final byte VERSION = 0x1;
+    public static final byte VERSION_V2 = 0x2;
+
+    /**
+     * 版本号，当前支持的最高协议版本
+     */
+    public static final byte VERSION = VERSION_V2;
+
+    /**
+     * v2及以上版本的版本号字节最高位置1，与v1报文类型字节(1~3)区分
+     */
+    public static final byte VERSION_HEADER_MARK = (byte) 0x80;
+
+    /**
+     * v1报文状态字节的最高位，置1表示发送方能够解析v2报文，用于连接上的版本协商
+     */
+    public static final byte STATUS_FLAG_VERSION_NEGOTIATION = (byte) 0x80;
+
+    /**
+     * v2报文标志位的低4位，表示消息体使用的压缩算法ID，0表示未压缩
+     */
+    public static final byte FLAG_COMPRESSOR_MASK = 0x0F;
+
+    /**
+     * 压缩算法：不压缩
+     */
+    public static final String COMPRESSOR_NONE = "none";
+
+    /**
+     * 压缩算法：deflate
+     */
+    public static final String COMPRESSOR_DEFLATE = "deflate";
+
+    /**
+     * 压缩算法：gzip
+     */
+    public static final String COMPRESSOR_GZIP = "gzip";
+
+    /**
+     * 指定压缩算法的系统属性，未配置时不压缩
+     */
+    public static final String COMPRESSOR_PROPERTY = "bhrpc.compressor";
+
+    /**
+     * 指定压缩阈值的系统属性，消息体小于该字节数时不压缩
+     */
+    public static final String COMPRESS_THRESHOLD_PROPERTY = "bhrpc.compress.threshold";
+
+    /**
+     * 默认压缩阈值
+     */
+    public static final int DEFAULT_COMPRESS_THRESHOLD = 2048;
+
+    /**
+     * v2报文标志位，置1表示当前报文是一个大消息的分片
+     */
+    public static final byte FLAG_CHUNK = 0x10;
+
+    /**
+     * v2报文标志位，置1表示当前分片是消息的最后一个分片
+     */
+    public static final byte FLAG_LAST_CHUNK = 0x20;
+
+    /**
+     * v2响应报文标志位，置1表示服务提供者已在当前连接上登记了请求携带的方法编号，
+     * 服务消费者之后的请求只需要携带方法编号和参数
+     */
+    public static final byte FLAG_METHOD_BOUND = 0x40;
+
+    /**
+     * 每个连接上最多登记的方法编号数，超过后的方法继续按照完整的服务名称和方法签名调用
+     */
+    public static final int MAX_METHOD_ID = 1024;
+
+    /**
+     * 分片大小的系统属性，消息体超过该字节数时拆分为多个分片发送
+     */
+    public static final String CHUNK_SIZE_PROPERTY = "bhrpc.chunk.size";
+
+    /**
+     * 默认分片大小
+     */
+    public static final int DEFAULT_CHUNK_SIZE = 64 * 1024;
+
+    /**
+     * 消息体最大字节数的系统属性，包括分片重组和解压后的大小
+     */
+    public static final String MAX_MESSAGE_LENGTH_PROPERTY = "bhrpc.max.message.length";
+
+    /**
+     * 默认的消息体最大字节数，防止异常报文导致内存耗尽
+     */
+    public static final int DEFAULT_MAX_MESSAGE_LENGTH = 64 * 1024 * 1024;
+
+    /**
+     * 每个连接上同时重组的分片消息数上限的系统属性
+     */
+    public static final String MAX_CHUNK_MESSAGES_PROPERTY = "bhrpc.max.chunk.messages";
+
+    /**
+     * 每个连接上默认最多同时重组的分片消息数
+     */
+    public static final int DEFAULT_MAX_CHUNK_MESSAGES = 64;
+
+    /**
+     * 每个连接上未重组完成的分片累计字节数上限的系统属性
+     */
+    public static final String MAX_CHUNK_BYTES_PROPERTY = "bhrpc.max.chunk.bytes";
+
+    /**
+     * 每个连接上未重组完成的分片默认累计字节数上限
+     */
+    public static final int DEFAULT_MAX_CHUNK_BYTES = 128 * 1024 * 1024;
+
+    /**
+     * 是否开启协议对象池的系统属性，开启后RpcHeader、RpcProtocol、RpcRequest和RpcResponse在编解码和服务提供者处理过程中复用
+     */
+    public static final String OBJECT_POOL_PROPERTY = "bhrpc.object.pool";
+
+    /**
+     * 服务消费者是否开启合并写出的系统属性，开启后多个请求合并为一次flush
+     */
+    public static final String CONSUMER_WRITE_COALESCING_PROPERTY = "bhrpc.consumer.write.coalescing";
+
+    /**
+     * 服务消费者合并写出时每批最多写出报文数的系统属性
+     */
+    public static final String CONSUMER_WRITE_BATCH_SIZE_PROPERTY = "bhrpc.consumer.write.batch.size";
+
+    /**
+     * 服务消费者合并写出时默认每批最多写出的报文数
+     */
+    public static final int DEFAULT_CONSUMER_WRITE_BATCH_SIZE = 128;
+
+    /**
+     * 服务消费者到每个服务提供者地址的连接数的系统属性
+     */
+    public static final String CONSUMER_POOL_SIZE_PROPERTY = "bhrpc.consumer.pool.size";
+
+    /**
+     * 服务消费者到每个服务提供者地址的默认连接数
+     */
+    public static final int DEFAULT_CONSUMER_POOL_SIZE = 1;
+
+    /**
+     * 服务消费者从连接池中选择连接的策略的系统属性
+     */
+    public static final String CONSUMER_POOL_SELECTOR_PROPERTY = "bhrpc.consumer.pool.selector";
+
+    /**
+     * 连接选择策略：轮询
+     */
+    public static final String POOL_SELECTOR_ROUND_ROBIN = "round_robin";
+
+    /**
+     * 连接选择策略：等待响应的请求数最少
+     */
+    public static final String POOL_SELECTOR_LEAST_PENDING = "least_pending";
+
+    /**
+     * 异步回调执行方式：在完成RPCFuture的线程中直接执行，响应到达时即为EventLoop线程，适用于不阻塞的轻量回调
+     */
+    public static final String CALLBACK_EXECUTOR_DIRECT = "direct";
+
+    /**
+     * 异步回调执行方式：提交到服务消费者共享的回调线程池，默认方式
+     */
+    public static final String CALLBACK_EXECUTOR_POOL = "pool";
+
+    /**
+     * 服务消费者未指定超时时间时请求的默认超时毫秒数，与@RpcReference的timeout默认值一致
+     */
+    public static final long DEFAULT_REQUEST_TIMEOUT_MILLIS = 5000;
+
+    /**
+     * 请求超时时间轮每一格的毫秒数，决定超时检查的精度
+     */
+    public static final long TIMEOUT_WHEEL_TICK_MILLIS = 10;
+
+    /**
+     * 服务消费者每个连接的等待响应请求表槽位数的系统属性
+     */
+    public static final String CONSUMER_PENDING_SLOTS_PROPERTY = "bhrpc.consumer.pending.slots";
+
+    /**
+     * 服务消费者每个连接的等待响应请求表默认槽位数，同一连接上等待响应的请求数远小于该值时不会发生槽位冲突
+     */
+    public static final int DEFAULT_CONSUMER_PENDING_SLOTS = 4096;
+
+    /**
+     * 服务消费者建立连接失败后首次重连前等待的毫秒数，之后每次失败翻倍
+     */
+    public static final long RECONNECT_INITIAL_BACKOFF_MILLIS = 100;
+
+    /**
+     * 服务消费者重连等待的最大毫秒数
+     */
+    public static final long RECONNECT_MAX_BACKOFF_MILLIS = 30 * 1000;
+
+    /**
+     * 服务消费者建立连接超时毫秒数的系统属性
+     */
+    public static final String CONSUMER_CONNECT_TIMEOUT_PROPERTY = "bhrpc.consumer.connect.timeout";
+
+    /**
+     * 服务消费者建立连接的默认超时毫秒数，服务提供者不可达时连接在该时间内失败并进入重连退避
+     */
+    public static final int DEFAULT_CONSUMER_CONNECT_TIMEOUT_MILLIS = 3000;
 
     /**
      * REFLECT_TYPE_JDK
@@ -47,6 +263,26 @@ public class RpcConstants {
      */
     public static final String REFLECT_TYPE_CGLIB = "cglib";
 
+    /**
+     * REFLECT_TYPE_GENERATED，使用RpcStubProcessor在编译期生成的服务端骨架直接调用服务方法
+     */
+    public static final String REFLECT_TYPE_GENERATED = "generated";
+
+    /**
+     * REFLECT_TYPE_METHOD_HANDLE，使用绑定服务实例并展开Object[]参数的MethodHandle调用服务方法
+     */
+    public static final String REFLECT_TYPE_METHOD_HANDLE = "methodhandle";
+
+    /**
+     * REFLECT_TYPE_LAMBDA，使用LambdaMetafactory为每个方法生成直接调用服务方法的实现类
+     */
+    public static final String REFLECT_TYPE_LAMBDA = "lambda";
+
+    /**
+     * REFLECT_TYPE_JAVASSIST，使用javassist为每个服务类生成按方法编号直接调用服务方法的分发器
+     */
+    public static final String REFLECT_TYPE_JAVASSIST = "javassist";
+
     /**
      * JDK动态代理
      */
@@ -59,6 +295,10 @@ public class RpcConstants {
      * cglib动态代理
      */
     public static final String PROXY_CGLIB = "cglib";
+    /**
+     * RpcStubProcessor在编译期生成的客户端存根
+     */
+    public static final String PROXY_GENERATED = "generated";
 
     /**
      * 初始化的方法
@@ -110,6 +350,10 @@ public class RpcConstants {
      * kryo 序列化
      */
     public static final String SERIALIZATION_KRYO = "kryo";
+    /**
+     * fast 序列化，逐字段编码RpcRequest和RpcResponse，复杂对象交给兜底序列化
+     */
+    public static final String SERIALIZATION_FAST = "fast";
     /**
      * 基于ZK的一致性Hash负载均衡
      */
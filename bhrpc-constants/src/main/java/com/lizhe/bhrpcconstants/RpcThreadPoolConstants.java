@@ -58,4 +58,24 @@ public class RpcThreadPoolConstants {
      * 默认线程组名
      */
     public static final String DEFAULT_THREAD_GROUP_NAME = "Rpc-Thread-Group";
+
+    /**
+     * 服务消费者回调线程池线程数的系统属性
+     */
+    public static final String CLIENT_CALLBACK_THREADS_PROPERTY = "bhrpc.consumer.callback.threads";
+
+    /**
+     * 服务消费者回调线程池默认线程数
+     */
+    public static final int DEFAULT_CLIENT_CALLBACK_THREADS = 16;
+
+    /**
+     * 服务消费者回调线程池队列容量的系统属性
+     */
+    public static final String CLIENT_CALLBACK_QUEUE_PROPERTY = "bhrpc.consumer.callback.queue";
+
+    /**
+     * 服务消费者回调线程池默认队列容量
+     */
+    public static final int DEFAULT_CLIENT_CALLBACK_QUEUE_CAPACITY = 65536;
 }
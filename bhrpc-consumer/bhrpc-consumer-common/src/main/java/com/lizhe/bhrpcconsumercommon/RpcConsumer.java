@@ -16,14 +16,17 @@
 package com.lizhe.bhrpcconsumercommon;
 
 import com.lizhe.bhrpccommon.threadpool.ClientThreadPool;
+import com.lizhe.bhrpcconstants.RpcConstants;
+import com.lizhe.bhrpcconsumercommon.callback.RpcCallbackExecutors;
+import com.lizhe.bhrpcconsumercommon.connection.RpcConnectionPool;
+import com.lizhe.bhrpcconsumercommon.context.RpcContext;
 import com.lizhe.bhrpcconsumercommon.future.RPCFuture;
 import com.lizhe.bhrpcconsumercommon.handle.RpcConsumerHandler;
 import com.lizhe.bhrpcconsumercommon.initializer.RpcConsumerInitializer;
 import com.lizhe.bhrpcprotocol.RpcProtocol;
 import com.lizhe.bhrpcprotocol.request.RpcRequest;
 import io.netty.bootstrap.Bootstrap;
-import io.netty.channel.ChannelFuture;
-import io.netty.channel.ChannelFutureListener;
+import io.netty.channel.ChannelOption;
 import io.netty.channel.EventLoopGroup;
 import io.netty.channel.nio.NioEventLoopGroup;
 import io.netty.channel.socket.nio.NioSocketChannel;
@@ -31,7 +34,10 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
 
 /**
  * @author binghe(公众号：冰河技术)
@@ -46,12 +52,28 @@ public class RpcConsumer {
 
     private static volatile RpcConsumer instance;
 
-    private static Map<String, RpcConsumerHandler> handlerMap = new ConcurrentHashMap<>();
+    /**
+     * 服务提供者地址与连接池的映射关系，key为host_port
+     */
+    private final Map<String, RpcConnectionPool> poolMap = new ConcurrentHashMap<>();
+
+    /**
+     * 每个服务提供者地址的连接数
+     */
+    private final int poolSize;
+
+    /**
+     * 连接选择策略
+     */
+    private final String poolSelector;
 
     private RpcConsumer() {
+        poolSize = Integer.getInteger(RpcConstants.CONSUMER_POOL_SIZE_PROPERTY, RpcConstants.DEFAULT_CONSUMER_POOL_SIZE);
+        poolSelector = System.getProperty(RpcConstants.CONSUMER_POOL_SELECTOR_PROPERTY, RpcConstants.POOL_SELECTOR_ROUND_ROBIN);
         bootstrap = new Bootstrap();
         eventLoopGroup = new NioEventLoopGroup(4);
         bootstrap.group(eventLoopGroup).channel(NioSocketChannel.class)
+                .option(ChannelOption.CONNECT_TIMEOUT_MILLIS, Integer.getInteger(RpcConstants.CONSUMER_CONNECT_TIMEOUT_PROPERTY, RpcConstants.DEFAULT_CONSUMER_CONNECT_TIMEOUT_MILLIS))
                 .handler(new RpcConsumerInitializer());
     }
 
@@ -67,44 +89,66 @@ public class RpcConsumer {
     }
 
     public void close(){
+        poolMap.values().forEach(RpcConnectionPool::close);
         eventLoopGroup.shutdownGracefully();
         ClientThreadPool.shutdown();
     }
 
     //修改返回数据的类型
     public RPCFuture sendRequest(RpcProtocol<RpcRequest> protocol) throws Exception {
+        return sendRequest(protocol, RpcConstants.DEFAULT_REQUEST_TIMEOUT_MILLIS);
+    }
+
+    /**
+     * 发送请求，超时时间由服务引用的@RpcReference或方法上的@RpcMethod决定
+     *
+     * @param timeoutMillis 超时时间，单位毫秒，小于等于0表示不超时
+     */
+    public RPCFuture sendRequest(RpcProtocol<RpcRequest> protocol, long timeoutMillis) throws Exception {
+        return sendRequest(protocol, timeoutMillis, RpcCallbackExecutors.pool());
+    }
+
+    /**
+     * 发送请求，回调执行器由服务引用的@RpcReference的callbackExecutor决定
+     *
+     * @param callbackExecutor 执行AsyncRPCCallback的Executor，见RpcCallbackExecutors
+     */
+    public RPCFuture sendRequest(RpcProtocol<RpcRequest> protocol, long timeoutMillis, Executor callbackExecutor) throws Exception {
         //TODO 暂时写死，后续在引入注册中心时，从注册中心获取
         String serviceAddress = "127.0.0.1";
         int port = 27880;
         String key = serviceAddress.concat("_").concat(String.valueOf(port));
-        RpcConsumerHandler handler = handlerMap.get(key);
-        //缓存中无RpcClientHandler
-        if (handler == null){
-            handler = getRpcConsumerHandler(serviceAddress, port);
-            handlerMap.put(key, handler);
-        }else if (!handler.getChannel().isActive()){  //缓存中存在RpcClientHandler，但不活跃
-            handler.close();
-            handler = getRpcConsumerHandler(serviceAddress, port);
-            handlerMap.put(key, handler);
-        }
+        //每个地址的连接池只创建一次，创建连接池时不建立连接，连接在连接池中按槽位异步建立和替换
+        RpcConnectionPool pool = poolMap.computeIfAbsent(key, k -> new RpcConnectionPool(bootstrap, serviceAddress, port, poolSize, poolSelector));
+        CompletableFuture<RpcConsumerHandler> connection = pool.acquire();
         RpcRequest request = protocol.getBody();
-        return handler.sendRequest(protocol, request.getAsync(), request.getOneway());
+        return sendRequestWhenConnected(connection, protocol, request.getAsync(), request.getOneway(), timeoutMillis, callbackExecutor);
     }
 
     /**
-     * 创建连接并返回RpcClientHandler
+     * 先在调用方线程中创建RPCFuture，连接可用时直接在调用方线程中写出请求，
+     * 连接建立中时由EventLoop线程在连接建立完成后写出请求，调用方线程不等待连接建立
+     * 超时时间从创建RPCFuture开始计算，连接建立失败或处于重连退避期时RPCFuture以连接异常失败，
+     * 异步调用同样可以从RpcContext中取得失败的RPCFuture
      */
-    private RpcConsumerHandler getRpcConsumerHandler(String serviceAddress, int port) throws InterruptedException {
-        ChannelFuture channelFuture = bootstrap.connect(serviceAddress, port).sync();
-        channelFuture.addListener((ChannelFutureListener) listener -> {
-            if (channelFuture.isSuccess()) {
-                logger.info("connect rpc server {} on port {} success.", serviceAddress, port);
+    private RPCFuture sendRequestWhenConnected(CompletableFuture<RpcConsumerHandler> connection, RpcProtocol<RpcRequest> protocol, boolean async, boolean oneway, long timeoutMillis, Executor callbackExecutor) {
+        RPCFuture rpcFuture = oneway ? null : new RPCFuture(protocol, timeoutMillis, callbackExecutor);
+        if (async) {
+            RpcContext.getContext().setRPCFuture(rpcFuture);
+        }
+        connection.whenComplete((handler, cause) -> {
+            if (rpcFuture != null && rpcFuture.isDone()) {
+                //连接建立前已经超时或被取消，不再写出
+                return;
+            }
+            if (cause == null) {
+                handler.sendRequest(protocol, rpcFuture);
+            } else if (rpcFuture != null) {
+                rpcFuture.fail(cause instanceof CompletionException && cause.getCause() != null ? cause.getCause() : cause);
             } else {
-                logger.error("connect rpc server {} on port {} failed.", serviceAddress, port);
-                channelFuture.cause().printStackTrace();
-                eventLoopGroup.shutdownGracefully();
+                logger.error("send oneway request {} failed.", protocol.getHeader().getRequestId(), cause);
             }
         });
-        return channelFuture.channel().pipeline().get(RpcConsumerHandler.class);
+        return async || oneway ? null : rpcFuture;
     }
 }
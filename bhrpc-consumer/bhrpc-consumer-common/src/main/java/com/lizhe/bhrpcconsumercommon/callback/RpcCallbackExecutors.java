@@ -0,0 +1,73 @@
+package com.lizhe.bhrpcconsumercommon.callback;
+
+import com.lizhe.bhrpccommon.threadpool.ClientThreadPool;
+import com.lizhe.bhrpcconstants.RpcConstants;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+
+/**
+ * RpcCallbackExecutors
+ * {@code @description} 异步回调执行器，服务引用通过@RpcReference的callbackExecutor按名称选择
+ * 1. direct：在完成RPCFuture的线程中直接执行，响应到达时为EventLoop线程，省去一次线程切换，回调中不能阻塞
+ * 2. pool：提交到共享的ClientThreadPool，默认方式
+ * 3. 其他名称：调用方通过register登记的Executor，例如业务自己的线程池
+ *
+ * @author lizhe@joysuch.com
+ * {@code @date} 2025/3/20 上午9:41
+ * @version 1.0
+ */
+public class RpcCallbackExecutors {
+
+    private static final Executor DIRECT = Runnable::run;
+
+    private static final Map<String, Executor> EXECUTORS = new ConcurrentHashMap<>();
+
+    /**
+     * 在完成RPCFuture的线程中直接执行回调的Executor
+     */
+    public static Executor direct() {
+        return DIRECT;
+    }
+
+    /**
+     * 共享回调线程池
+     */
+    public static Executor pool() {
+        return ClientThreadPool.getExecutor();
+    }
+
+    /**
+     * 登记调用方提供的回调执行器
+     *
+     * @param name     名称，不能是direct或pool
+     * @param executor 回调执行器
+     */
+    public static void register(String name, Executor executor) {
+        if (RpcConstants.CALLBACK_EXECUTOR_DIRECT.equals(name) || RpcConstants.CALLBACK_EXECUTOR_POOL.equals(name)) {
+            throw new IllegalArgumentException("callback executor name is reserved, " + name);
+        }
+        EXECUTORS.put(name, executor);
+    }
+
+    /**
+     * 按名称获取回调执行器，名称为空时使用共享回调线程池
+     *
+     * @param name 回调执行器名称
+     * @return 回调执行器
+     */
+    public static Executor get(String name) {
+        if (name == null || name.isEmpty() || RpcConstants.CALLBACK_EXECUTOR_POOL.equals(name)) {
+            return pool();
+        }
+        if (RpcConstants.CALLBACK_EXECUTOR_DIRECT.equals(name)) {
+            return DIRECT;
+        }
+        Executor executor = EXECUTORS.get(name);
+        if (executor == null) {
+            throw new IllegalArgumentException("callback executor is not registered, " + name);
+        }
+        return executor;
+    }
+}
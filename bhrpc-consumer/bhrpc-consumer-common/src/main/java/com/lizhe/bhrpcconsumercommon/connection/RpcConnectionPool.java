@@ -0,0 +1,229 @@
+package com.lizhe.bhrpcconsumercommon.connection;
+
+import com.lizhe.bhrpcconstants.RpcConstants;
+import com.lizhe.bhrpcconsumercommon.handle.RpcConsumerHandler;
+import io.netty.bootstrap.Bootstrap;
+import io.netty.channel.ChannelFuture;
+import io.netty.channel.ChannelFutureListener;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.net.ConnectException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * RpcConnectionPool
+ * {@code @description} 服务消费者到单个服务提供者地址的连接池
+ * 1. 固定数量的连接槽位，连接在首次选中槽位时创建，Bootstrap将各个连接分配到不同的EventLoop上
+ * 2. 按轮询或等待响应的请求数最少选择连接
+ * 3. 异步建立连接，同一槽位上并发的请求共享同一个建立中的连接，调用方线程不等待连接建立
+ * 4. 连接失败后按指数退避重连，退避期间选中该槽位的请求直接失败，退避结束后的请求触发下一次重连
+ * 槽位只在修改连接状态时短暂加锁，不在锁内等待网络操作，不同槽位、不同地址之间互不影响
+ *
+ * @author lizhe@joysuch.com
+ * {@code @date} 2025/3/18 上午10:05
+ * @version 1.0
+ */
+public class RpcConnectionPool {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(RpcConnectionPool.class);
+
+    private final Bootstrap bootstrap;
+
+    private final String host;
+
+    private final int port;
+
+    /**
+     * 是否按等待响应的请求数最少选择连接，否则轮询
+     */
+    private final boolean leastPending;
+
+    private final Slot[] slots;
+
+    private final AtomicInteger next = new AtomicInteger();
+
+    private volatile boolean closed;
+
+    /**
+     * @param bootstrap 已经配置好EventLoopGroup和处理器的Bootstrap
+     * @param host      服务提供者地址
+     * @param port      服务提供者端口
+     * @param size      连接数
+     * @param selector  连接选择策略，round_robin或least_pending
+     */
+    public RpcConnectionPool(Bootstrap bootstrap, String host, int port, int size, String selector) {
+        if (size <= 0) {
+            throw new IllegalArgumentException("connection pool size must be positive, " + size);
+        }
+        this.bootstrap = bootstrap;
+        this.host = host;
+        this.port = port;
+        this.leastPending = RpcConstants.POOL_SELECTOR_LEAST_PENDING.equals(selector);
+        this.slots = new Slot[size];
+        for (int i = 0; i < size; i++) {
+            slots[i] = new Slot(i);
+        }
+    }
+
+    /**
+     * 选择一个连接，选中的槽位没有可用连接时异步建立连接
+     * 连接可用时返回已完成的future，不创建新对象；正在建立连接时返回该槽位共享的future
+     *
+     * @return 连接对应的RpcConsumerHandler
+     */
+    public CompletableFuture<RpcConsumerHandler> acquire() {
+        if (closed) {
+            return failedFuture(new IllegalStateException("connection pool is closed, " + host + ":" + port));
+        }
+        Slot slot = slots[leastPending ? leastPendingIndex() : roundRobinIndex()];
+        CompletableFuture<RpcConsumerHandler> ready = slot.ready;
+        if (ready != null && ready.join().isActive()) {
+            return ready;
+        }
+        return slot.connect();
+    }
+
+    /**
+     * 关闭连接池中的所有连接
+     */
+    public void close() {
+        closed = true;
+        for (Slot slot : slots) {
+            slot.close();
+        }
+    }
+
+    private int roundRobinIndex() {
+        return (next.getAndIncrement() & Integer.MAX_VALUE) % slots.length;
+    }
+
+    /**
+     * 选择等待响应的请求数最少的连接，请求数相同时从轮询位置开始选择，避免总是集中在第一个连接上
+     * 尚未建立或不可用的槽位按0个请求计算，但排在空闲的可用连接之后，
+     * 只有所有可用连接都有等待响应的请求时才建立新连接
+     */
+    private int leastPendingIndex() {
+        int length = slots.length;
+        int start = roundRobinIndex();
+        int selected = start;
+        long minScore = Long.MAX_VALUE;
+        for (int i = 0; i < length; i++) {
+            int index = (start + i) % length;
+            CompletableFuture<RpcConsumerHandler> ready = slots[index].ready;
+            RpcConsumerHandler handler = ready == null ? null : ready.join();
+            long score = handler == null || !handler.isActive() ? 1 : handler.getPendingCount() * 2L;
+            if (score < minScore) {
+                minScore = score;
+                selected = index;
+            }
+        }
+        return selected;
+    }
+
+    private static <T> CompletableFuture<T> failedFuture(Throwable cause) {
+        CompletableFuture<T> future = new CompletableFuture<>();
+        future.completeExceptionally(cause);
+        return future;
+    }
+
+    /**
+     * 连接槽位
+     */
+    private final class Slot {
+
+        private final int index;
+
+        /**
+         * 已建立连接对应的已完成future，没有连接时为null
+         */
+        private volatile CompletableFuture<RpcConsumerHandler> ready;
+
+        /**
+         * 正在建立的连接，以下字段都由Slot对象锁保护
+         */
+        private CompletableFuture<RpcConsumerHandler> connecting;
+
+        /**
+         * 连续失败次数
+         */
+        private int failures;
+
+        /**
+         * 退避结束时间，System.nanoTime()
+         */
+        private long retryAt;
+
+        private Throwable lastCause;
+
+        Slot(int index) {
+            this.index = index;
+        }
+
+        synchronized CompletableFuture<RpcConsumerHandler> connect() {
+            CompletableFuture<RpcConsumerHandler> current = ready;
+            if (current != null) {
+                if (current.join().isActive()) {
+                    return current;
+                }
+                current.join().close();
+                ready = null;
+            }
+            if (connecting != null) {
+                return connecting;
+            }
+            if (failures > 0 && System.nanoTime() - retryAt < 0) {
+                ConnectException cause = new ConnectException("connect rpc server " + host + ":" + port + " failed, retry after backoff");
+                cause.initCause(lastCause);
+                return failedFuture(cause);
+            }
+            CompletableFuture<RpcConsumerHandler> future = new CompletableFuture<>();
+            connecting = future;
+            bootstrap.connect(host, port).addListener((ChannelFutureListener) channelFuture -> onConnected(channelFuture, future));
+            return future;
+        }
+
+        /**
+         * 在EventLoop线程中执行，更新槽位状态后再完成future，排队的请求在锁外写出
+         */
+        private void onConnected(ChannelFuture channelFuture, CompletableFuture<RpcConsumerHandler> future) {
+            RpcConsumerHandler handler = null;
+            Throwable cause = null;
+            synchronized (this) {
+                connecting = null;
+                if (!channelFuture.isSuccess()) {
+                    cause = channelFuture.cause();
+                    failures++;
+                    long backoff = Math.min(RpcConstants.RECONNECT_INITIAL_BACKOFF_MILLIS << Math.min(failures - 1, 20), RpcConstants.RECONNECT_MAX_BACKOFF_MILLIS);
+                    retryAt = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(backoff);
+                    lastCause = cause;
+                    LOGGER.warn("connect rpc server {} on port {} failed, slot {}, retry after {}ms.", host, port, index, backoff, cause);
+                } else if (closed) {
+                    channelFuture.channel().close();
+                    cause = new IllegalStateException("connection pool is closed, " + host + ":" + port);
+                } else {
+                    handler = channelFuture.channel().pipeline().get(RpcConsumerHandler.class);
+                    failures = 0;
+                    lastCause = null;
+                    ready = CompletableFuture.completedFuture(handler);
+                    LOGGER.info("connect rpc server {} on port {} success, slot {}.", host, port, index);
+                }
+            }
+            if (handler != null) {
+                future.complete(handler);
+            } else {
+                future.completeExceptionally(cause);
+            }
+        }
+
+        synchronized void close() {
+            CompletableFuture<RpcConsumerHandler> current = ready;
+            ready = null;
+            if (current != null) {
+                current.join().close();
+            }
+        }
+    }
+}
@@ -1,123 +1,163 @@
 package com.lizhe.bhrpcconsumercommon.future;
 
+import com.lizhe.bhrpccommon.exception.RpcTimeoutException;
+import com.lizhe.bhrpcconstants.RpcConstants;
 import com.lizhe.bhrpcconsumercommon.callback.AsyncRPCCallback;
-import com.lizhe.bhrpcconsumercommon.threadpool.ClientThreadPool;
+import com.lizhe.bhrpcconsumercommon.callback.RpcCallbackExecutors;
+import com.lizhe.bhrpcconsumercommon.handle.RpcConsumerHandler;
 import com.lizhe.bhrpcprotocol.RpcProtocol;
 import com.lizhe.bhrpcprotocol.request.RpcRequest;
 import com.lizhe.bhrpcprotocol.response.RpcResponse;
+import io.netty.channel.ChannelFuture;
+import io.netty.channel.ChannelFutureListener;
+import io.netty.util.HashedWheelTimer;
+import io.netty.util.Timeout;
+import io.netty.util.Timer;
+import io.netty.util.concurrent.DefaultThreadFactory;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
-import java.util.ArrayList;
-import java.util.List;
 import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.TimeoutException;
-import java.util.concurrent.locks.AbstractQueuedSynchronizer;
-import java.util.concurrent.locks.ReentrantLock;
 
 /**
  * RpcFuture
  * {@code @description} 自定义的Future实现，用于RPC框架中的异步转同步操作
- * 继承CompletableFuture并使用AQS实现线程同步，主要功能包括：
- * 1. 管理RPC请求的完整生命周期
- * 2. 提供超时控制机制
- * 3. 支持响应结果的异步获取
- * 4. 监控请求响应时间
+ * 直接使用CompletableFuture的完成状态，等待、回调和组合都由CompletableFuture实现，不额外加锁，主要功能包括：
+ * 1. 管理RPC请求的完整生命周期，收到正常响应时以调用结果完成，响应错误、超时或连接失败时以异常完成
+ * 2. 提供超时控制机制，创建时即在时间轮中登记超时任务，等待连接建立的时间也计入超时时间
+ * 3. 支持thenApply、whenComplete、join等组合操作以及AsyncRPCCallback回调
+ * 4. 支持取消，取消后从连接的等待响应列表中移除并取消超时任务
+ * 5. 监控请求响应时间
+ * 6. 作为请求写出结果的监听器，编码或写出失败时立即以失败原因结束请求，不等待超时
  *
  * @author lizhe@joysuch.com
  * {@code @date} 2025/2/20 上午9:24
  * @version 1.0
  */
-public class RPCFuture extends CompletableFuture<Object> {
+public class RPCFuture extends CompletableFuture<Object> implements ChannelFutureListener {
 
     private static final Logger LOGGER = LoggerFactory.getLogger(RPCFuture.class);
-    // 使用AQS实现的同步器，用于控制请求完成状态
-    private final Sync sync;
-    // 线程锁，用于控制请求的并发访问
-    private final ReentrantLock lock = new ReentrantLock();
-    // 待处理的异步回调函数列表
-    private final List<AsyncRPCCallback> pendingCallbacks = new ArrayList<AsyncRPCCallback>();
+
+    /**
+     * 请求超时时间轮，所有请求共享一个守护线程
+     * 到期后以RpcTimeoutException完成RPCFuture，并从登记了该请求的连接的等待响应列表中移除，
+     * 响应丢失或连接一直没有建立时请求也会按时失败
+     */
+    private static final Timer TIMEOUT_TIMER = new HashedWheelTimer(new DefaultThreadFactory("bhrpc-consumer-timeout", true),
+            RpcConstants.TIMEOUT_WHEEL_TICK_MILLIS, TimeUnit.MILLISECONDS, 512);
     // 原始RPC请求协议
     private final RpcProtocol<RpcRequest> requestRpcProtocol;
-    // RPC响应协议
-    private RpcProtocol<RpcResponse> responseRpcProtocol;
+    // 请求ID，创建时从请求头中取出，请求头在写出后可能被回收
+    private final long requestId;
+    // 服务名称和方法名称，创建时从请求中取出，用于超时异常信息
+    private final String className;
+    private final String methodName;
     // 请求开始时间，用于计算响应耗时
     private final long startTime;
+    // 请求超时时间，单位毫秒，小于等于0表示不超时
+    private final long timeoutMillis;
+    // 执行AsyncRPCCallback的Executor
+    private final Executor callbackExecutor;
+    // 时间轮中的超时任务，收到响应或取消后取消
+    private final Timeout timeout;
+    // 登记了该请求的连接，取消时从其等待响应列表中移除
+    private volatile RpcConsumerHandler handler;
 
     public RPCFuture(RpcProtocol<RpcRequest> requestRpcProtocol) {
-        this.sync = new Sync();
-        this.requestRpcProtocol = requestRpcProtocol;
-        this.startTime = System.currentTimeMillis();
+        this(requestRpcProtocol, RpcConstants.DEFAULT_REQUEST_TIMEOUT_MILLIS);
     }
 
-    /**
-     * 判断任务是否已完成
-     * <p>
-     * 此方法用于检查当前任务是否已经完成它通过调用同步组件的isDone方法来实现
-     *
-     * @return boolean 返回任务是否完成的布尔值
-     */
-    @Override
-    public boolean isDone() {
-        return sync.isDone();
+    public RPCFuture(RpcProtocol<RpcRequest> requestRpcProtocol, long timeoutMillis) {
+        this(requestRpcProtocol, timeoutMillis, RpcCallbackExecutors.pool());
     }
 
     /**
-     * 获取RPC调用结果，会阻塞直到请求完成或发生异常
-     * 通过AQS的acquire方法实现线程等待
+     * @param callbackExecutor 执行AsyncRPCCallback的Executor，见RpcCallbackExecutors
      */
-    @Override
-    public Object get() throws InterruptedException, ExecutionException {
-        sync.acquire(-1);
-        if (this.responseRpcProtocol != null) {
-            return this.responseRpcProtocol.getBody().getResult();
-        } else return null;
+    public RPCFuture(RpcProtocol<RpcRequest> requestRpcProtocol, long timeoutMillis, Executor callbackExecutor) {
+        this.callbackExecutor = callbackExecutor;
+        this.requestRpcProtocol = requestRpcProtocol;
+        this.requestId = requestRpcProtocol.getHeader().getRequestId();
+        this.className = requestRpcProtocol.getBody().getClassName();
+        this.methodName = requestRpcProtocol.getBody().getMethodName();
+        this.startTime = System.currentTimeMillis();
+        this.timeoutMillis = timeoutMillis;
+        this.timeout = timeoutMillis > 0 ? TIMEOUT_TIMER.newTimeout(task -> expire(), timeoutMillis, TimeUnit.MILLISECONDS) : null;
+    }
+
+    public RpcProtocol<RpcRequest> getRequestRpcProtocol() {
+        return requestRpcProtocol;
+    }
+
+    public long getRequestId() {
+        return requestId;
+    }
+
+    public long getTimeoutMillis() {
+        return timeoutMillis;
+    }
+
+    public void setHandler(RpcConsumerHandler handler) {
+        this.handler = handler;
     }
 
     /**
      * 支持超时的RPC调用结果获取方法
-     * 在指定时间内未得到响应则抛出超时异常
+     * 在指定时间内未得到响应则抛出RpcTimeoutException
      *
      * @param timeout 超时时间
      * @param unit    时间单位
      * @return 调用结果
      */
     @Override
-    public Object get(long timeout, TimeUnit unit) throws InterruptedException, ExecutionException, TimeoutException {
-        boolean success = sync.tryAcquireNanos(-1, unit.toNanos(timeout));
-        if (success) {
-            if (this.responseRpcProtocol != null) {
-                return this.responseRpcProtocol.getBody().getResult();
-            } else return null;
-        } else {
-            throw new RuntimeException("Timeout exception. Request id: " + this.requestRpcProtocol.getHeader().getRequestId() + ". Request class name: " + this.requestRpcProtocol.getBody().getClassName() + ". Request method: " + this.requestRpcProtocol.getBody().getMethodName());
+    public Object get(long timeout, TimeUnit unit) throws InterruptedException, ExecutionException {
+        try {
+            return super.get(timeout, unit);
+        } catch (TimeoutException e) {
+            throw newTimeoutException();
         }
     }
 
-    // 不支持取消操作
-    @Override
-    public boolean isCancelled() {
-        throw new UnsupportedOperationException();
+    public RpcTimeoutException newTimeoutException() {
+        return new RpcTimeoutException("Timeout exception. Request id: " + requestId + ". Request class name: " + className + ". Request method: " + methodName);
     }
 
-    // 不支持取消操作
+    /**
+     * 取消请求，取消成功后从连接的等待响应列表中移除并取消超时任务，之后到达的响应被忽略
+     * 请求已经写出时服务提供者仍会执行该请求
+     */
     @Override
     public boolean cancel(boolean mayInterruptIfRunning) {
-        throw new UnsupportedOperationException();
+        boolean cancelled = super.cancel(mayInterruptIfRunning);
+        if (cancelled) {
+            cancelTimeout();
+            RpcConsumerHandler current = this.handler;
+            if (current != null) {
+                current.removePending(getRequestId(), this);
+            }
+        }
+        return cancelled;
     }
 
     /**
-     * 完成RPC调用，设置响应结果并释放等待线程
+     * 完成RPC调用，正常响应以调用结果完成，错误响应以异常完成，并唤醒等待线程和执行回调
      * 同时记录响应时间，如果超过阈值则记录警告日志
      *
      * @param responseRpcProtocol RPC响应协议
      */
     public void done(RpcProtocol<RpcResponse> responseRpcProtocol) {
-        this.responseRpcProtocol = responseRpcProtocol;
-        sync.release(1);
-        invokeCallbacks();
+        cancelTimeout();
+        RpcResponse response = responseRpcProtocol.getBody();
+        if (response.isError()) {
+            completeExceptionally(new RuntimeException("Response error", new Throwable(response.getError())));
+        } else {
+            complete(response.getResult());
+        }
         //计算并检查响应时间
         long responseTime = System.currentTimeMillis() - startTime;
         // 响应时间阈值（毫秒），超过此值将记录警告日志
@@ -128,121 +168,98 @@ public class RPCFuture extends CompletableFuture<Object> {
     }
 
     /**
-     * 执行所有挂起的回调方法
-     * 此方法主要用于处理所有待处理的异步RPC回调，它会在一个安全的同步环境中执行每个回调
-     * 使用锁机制确保线程安全，避免并发问题
+     * 请求没有收到响应而失败，例如超时或连接建立失败，get方法抛出以cause为原因的ExecutionException
+     *
+     * @param cause 失败原因
      */
-    private void invokeCallbacks() {
-        // 加锁，确保线程安全
-        lock.lock();
-        try {
-            // 遍历所有挂起的回调方法
-            for (final AsyncRPCCallback callback : pendingCallbacks) {
-                // 执行当前回调方法
-                runCallback(callback);
-            }
-        } finally {
-            // 无论try块中发生什么，最终都要解锁，以确保不会发生死锁
-            lock.unlock();
+    public void fail(Throwable cause) {
+        cancelTimeout();
+        completeExceptionally(cause);
+    }
+
+    /**
+     * 请求写出完成后在EventLoop线程中执行，序列化、压缩或写出失败时请求不会到达服务提供者
+     */
+    @Override
+    public void operationComplete(ChannelFuture future) {
+        if (!future.isSuccess()) {
+            abort(future.cause());
         }
     }
 
+    /**
+     * 在时间轮线程中执行
+     */
+    private void expire() {
+        abort(newTimeoutException());
+    }
 
     /**
-     * 为异步RPC调用添加回调对象
-     * 此方法允许在RPC调用进行中或完成后执行特定操作
+     * 没有收到响应而结束请求，与响应、连接断开和取消竞争完成RPCFuture，只有先完成的一方生效
+     * 请求已经登记到连接上时从等待响应列表中移除；尚未登记时由登记方发现已完成后移除
+     */
+    private void abort(Throwable cause) {
+        fail(cause);
+        RpcConsumerHandler current = this.handler;
+        if (current != null) {
+            current.removePending(requestId, this);
+        }
+    }
+
+    private void cancelTimeout() {
+        Timeout task = this.timeout;
+        if (task != null) {
+            task.cancel();
+        }
+    }
+
+    /**
+     * 为异步RPC调用添加回调对象，回调登记在CompletableFuture的无锁回调栈中，由创建RPCFuture时指定的Executor执行
+     * 调用已经完成时直接执行回调
      *
      * @param callback 实现了AsyncRPCCallback接口的回调对象，用于在调用完成时执行
      * @return 返回当前的RPCFuture对象，支持链式调用
      */
     public RPCFuture addCallback(AsyncRPCCallback callback) {
-        // 加锁以确保线程安全
-        lock.lock();
-        try {
-            // 检查RPC调用是否已经完成
-            if (isDone()) {
-                // 如果已经完成，则直接执行回调
-                runCallback(callback);
-            } else {
-                // 如果尚未完成，则将回调添加到待处理列表中
-                this.pendingCallbacks.add(callback);
-            }
-        } finally {
-            // 无论如何都要释放锁
-            lock.unlock();
-        }
-        // 返回当前的RPCFuture对象，使得可以进行链式调用
-        return this;
+        return addCallback(callback, callbackExecutor);
     }
 
     /**
-     * 在客户端线程池中异步执行回调
-     * 此方法用于处理异步RPC调用的结果，并在客户端线程池中执行回调方法
-     * 如果响应没有错误，调用onSuccess方法并传入结果；如果有错误，创建一个RuntimeException并调用onException方法
+     * 为异步RPC调用添加回调对象，由指定的Executor执行
      *
-     * @param callback 异步RPC调用的回调接口，用于处理调用结果
+     * @param callback 回调对象
+     * @param executor 执行回调的Executor
+     * @return 返回当前的RPCFuture对象，支持链式调用
      */
-    private void runCallback(final AsyncRPCCallback callback) {
-        // 获取RPC响应的主体
-        final RpcResponse res = this.responseRpcProtocol.getBody();
-
-        // 提交一个任务到客户端线程池中执行
-        ClientThreadPool.submit(() -> {
-            // 判断响应是否没有错误
-            if (!res.isError()) {
-                // 如果没有错误，调用回调的onSuccess方法并传入结果
-                callback.onSuccess(res.getResult());
-            } else {
-                // 如果有错误，创建一个RuntimeException并调用回调的onException方法
-                callback.onException(new RuntimeException("Response error", new Throwable(res.getError())));
-            }
-        });
+    public RPCFuture addCallback(AsyncRPCCallback callback, Executor executor) {
+        whenComplete((result, cause) -> runCallback(callback, executor, result, cause));
+        return this;
     }
 
-
     /**
-     * 自定义同步器实现
-     * 使用AQS框架实现的同步器，用于控制RPC请求的完成状态
-     * - state=0 表示请求处理中（pending）
-     * - state=1 表示请求已完成（done）
+     * 在指定的Executor中执行回调
+     * 成功时调用onSuccess方法并传入结果，失败时以失败原因调用onException方法
+     * Executor拒绝执行时在当前线程中执行，回调不会丢失
+     *
+     * @param callback 异步RPC调用的回调接口，用于处理调用结果
      */
-    static class Sync extends AbstractQueuedSynchronizer {
-
-        private static final long serialVersionUID = 1L;
-
-        //定义Future状态
-        private final int done = 1;
-
-        /**
-         * 尝试获取同步状态
-         * 只有当state为done(1)时才能获取成功
-         */
-        @Override
-        protected boolean tryAcquire(int arg) {
-            return getState() == done;
-        }
-
-        /**
-         * 尝试释放同步状态
-         * 将state从pending(0)改为done(1)
-         */
-        @Override
-        protected boolean tryRelease(int releases) {
-            int pending = 0;
-            if (getState() == pending) {
-                if (compareAndSetState(pending, done)) {
-                    return true;
+    private void runCallback(final AsyncRPCCallback callback, Executor executor, final Object result, final Throwable cause) {
+        Runnable task = () -> {
+            try {
+                if (cause == null) {
+                    callback.onSuccess(result);
+                } else {
+                    callback.onException(cause instanceof Exception ? (Exception) cause : new RuntimeException(cause));
                 }
+            } catch (Throwable t) {
+                LOGGER.error("run callback of request {} failed.", getRequestId(), t);
             }
-            return false;
-        }
-
-        /**
-         * 判断请求是否完成
-         */
-        public boolean isDone() {
-            getState();
-            return getState() == done;
+        };
+        try {
+            executor.execute(task);
+        } catch (RejectedExecutionException e) {
+            LOGGER.warn("callback executor rejected callback of request {}, run in current thread.", getRequestId());
+            task.run();
         }
     }
 }
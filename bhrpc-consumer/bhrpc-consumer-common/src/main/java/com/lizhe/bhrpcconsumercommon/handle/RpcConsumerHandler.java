@@ -1,6 +1,7 @@
 package com.lizhe.bhrpcconsumercommon.handle;
 
-import com.alibaba.fastjson.JSON;
+import com.lizhe.bhrpcconstants.RpcConstants;
+import com.lizhe.bhrpcconsumercommon.callback.RpcCallbackExecutors;
 import com.lizhe.bhrpcconsumercommon.context.RpcContext;
 import com.lizhe.bhrpcprotocol.RpcProtocol;
 import com.lizhe.bhrpcprotocol.header.RpcHeader;
@@ -15,9 +16,9 @@ import io.netty.channel.SimpleChannelInboundHandler;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.net.ConnectException;
 import java.net.SocketAddress;
-import java.util.concurrent.ConcurrentHashMap;
-import java.util.Map;
+import java.util.concurrent.Executor;
 
 /**
  * RpcConsumerHandles
@@ -33,7 +34,7 @@ public class RpcConsumerHandler extends SimpleChannelInboundHandler<RpcProtocol<
     //存储请求ID与RpcResponse协议的映射关系
     /**
      * 存储请求ID与RPC响应的映射关系
-     * 使用ConcurrentHashMap保证线程安全，key为请求ID，value为对应的Future对象
+     * 使用RpcPendingTable按请求ID无锁登记和移除，请求ID不装箱，key为请求ID，value为对应的Future对象
      * CompletableFuture用于异步转同步，替代了传统的while循环轮询方式，具有以下优势：
      * 1. 非阻塞：不会占用CPU资源进行忙等待
      * 2. 超时控制：支持设置等待超时时间
@@ -43,10 +44,54 @@ public class RpcConsumerHandler extends SimpleChannelInboundHandler<RpcProtocol<
     //存储请求ID与RpcResponse协议的映射关系
     //private Map<Long, RpcProtocol<RpcResponse>> pendingResponse = new ConcurrentHashMap<>();
 
-    private final Map<Long, RPCFuture> pendingRPC = new ConcurrentHashMap<>();
+    private final RpcPendingTable pendingRPC = new RpcPendingTable(Integer.getInteger(RpcConstants.CONSUMER_PENDING_SLOTS_PROPERTY, RpcConstants.DEFAULT_CONSUMER_PENDING_SLOTS));
+
     private volatile Channel channel;
     private SocketAddress remotePeer;
 
+    /**
+     * 是否合并写出
+     */
+    private final boolean writeCoalescing;
+
+    /**
+     * 合并写出时每批最多写出的报文数
+     */
+    private final int writeBatchSize;
+
+    /**
+     * 合并写出队列，未开启合并写出时为null
+     */
+    private volatile RpcWriteQueue writeQueue;
+
+    /**
+     * 连接是否已经断开，断开后登记的请求直接失败，不再等待超时
+     */
+    private volatile boolean inactive;
+
+    /**
+     * 当前连接上的方法编号字典
+     */
+    private final RpcMethodDictionary methodDictionary = new RpcMethodDictionary();
+
+    /**
+     * 单向调用没有RPCFuture，写出失败时只记录日志
+     */
+    private final ChannelFutureListener onewayWriteListener = future -> {
+        if (!future.isSuccess()) {
+            logger.error("write oneway request to {} failed.", remotePeer, future.cause());
+        }
+    };
+
+    public RpcConsumerHandler() {
+        this(false, RpcConstants.DEFAULT_CONSUMER_WRITE_BATCH_SIZE);
+    }
+
+    public RpcConsumerHandler(boolean writeCoalescing, int writeBatchSize) {
+        this.writeCoalescing = writeCoalescing;
+        this.writeBatchSize = writeBatchSize;
+    }
+
     public Channel getChannel() {
         return channel;
     }
@@ -55,16 +100,55 @@ public class RpcConsumerHandler extends SimpleChannelInboundHandler<RpcProtocol<
         return remotePeer;
     }
 
+    /**
+     * 当前连接上等待响应的请求数
+     */
+    public int getPendingCount() {
+        return pendingRPC.size();
+    }
+
+    /**
+     * 连接是否可用
+     */
+    public boolean isActive() {
+        Channel current = this.channel;
+        return current != null && current.isActive();
+    }
+
     @Override
     public void channelActive(ChannelHandlerContext ctx) throws Exception {
         super.channelActive(ctx);
         this.remotePeer = this.channel.remoteAddress();
     }
 
+    /**
+     * 连接断开后不会再收到响应，丢弃还没有写出的报文，并以ConnectException结束所有等待响应的请求，
+     * 调用方不需要等到超时才能得知调用失败
+     */
+    @Override
+    public void channelInactive(ChannelHandlerContext ctx) throws Exception {
+        this.inactive = true;
+        RpcWriteQueue queue = this.writeQueue;
+        int discarded = queue == null ? 0 : queue.discard();
+        int pending = pendingRPC.size();
+        pendingRPC.drain(this::failOnInactive);
+        if (pending > 0 || discarded > 0) {
+            logger.warn("connection to {} closed, fail {} pending requests, discard {} queued messages", remotePeer, pending, discarded);
+        }
+        super.channelInactive(ctx);
+    }
+
+    private void failOnInactive(RPCFuture rpcFuture) {
+        rpcFuture.fail(new ConnectException("connection to " + remotePeer + " closed before response, requestId " + rpcFuture.getRequestId()));
+    }
+
     @Override
     public void channelRegistered(ChannelHandlerContext ctx) throws Exception {
         super.channelRegistered(ctx);
         this.channel = ctx.channel();
+        if (writeCoalescing) {
+            this.writeQueue = new RpcWriteQueue(channel, writeBatchSize);
+        }
     }
 
     /**
@@ -79,11 +163,16 @@ public class RpcConsumerHandler extends SimpleChannelInboundHandler<RpcProtocol<
         if (rpcResponseRpcProtocol == null) {
             return;
         }
-        logger.info("服务消费者接收到的数据===>>>{}", JSON.toJSONString(rpcResponseRpcProtocol));
         RpcHeader header = rpcResponseRpcProtocol.getHeader();
         long requestId = header.getRequestId();
+        if (logger.isDebugEnabled()) {
+            logger.debug("服务消费者接收到的响应===>>>{}", requestId);
+        }
         RPCFuture rpcFuture = pendingRPC.remove(requestId);
         if (rpcFuture != null){
+            if ((header.getFlags() & RpcConstants.FLAG_METHOD_BOUND) != 0) {
+                methodDictionary.markBound(rpcFuture.getRequestRpcProtocol().getBody().getMethodId());
+            }
             rpcFuture.done(rpcResponseRpcProtocol);
         }
     }
@@ -99,37 +188,118 @@ public class RpcConsumerHandler extends SimpleChannelInboundHandler<RpcProtocol<
      * @return 服务提供者的响应结果
      */
     public RPCFuture sendRequest(RpcProtocol<RpcRequest> rpcRequestRpcProtocol,boolean async, boolean oneway) {
-        logger.info("服务消费者发送的数据===>>>{}", JSON.toJSONString(rpcRequestRpcProtocol));
-        return oneway ? sendRequestOneway(rpcRequestRpcProtocol) : async ? sendRequestAsync(rpcRequestRpcProtocol) : sendRequestSync(rpcRequestRpcProtocol);
+        return sendRequest(rpcRequestRpcProtocol, async, oneway, RpcConstants.DEFAULT_REQUEST_TIMEOUT_MILLIS);
+    }
+
+    /**
+     * 发送RPC请求，超时时间到达前没有收到响应时RPCFuture以RpcTimeoutException失败
+     *
+     * @param timeoutMillis 超时时间，单位毫秒，小于等于0表示不超时
+     */
+    public RPCFuture sendRequest(RpcProtocol<RpcRequest> rpcRequestRpcProtocol, boolean async, boolean oneway, long timeoutMillis) {
+        return sendRequest(rpcRequestRpcProtocol, async, oneway, timeoutMillis, RpcCallbackExecutors.pool());
+    }
+
+    /**
+     * 发送RPC请求，RPCFuture上的AsyncRPCCallback由callbackExecutor执行
+     *
+     * @param callbackExecutor 执行回调的Executor，见RpcCallbackExecutors
+     */
+    public RPCFuture sendRequest(RpcProtocol<RpcRequest> rpcRequestRpcProtocol, boolean async, boolean oneway, long timeoutMillis, Executor callbackExecutor) {
+        if (logger.isDebugEnabled()) {
+            logger.debug("服务消费者发送的请求===>>>{}", rpcRequestRpcProtocol.getHeader().getRequestId());
+        }
+        return oneway ? sendRequestOneway(rpcRequestRpcProtocol) : async ? sendRequestAsync(rpcRequestRpcProtocol, timeoutMillis, callbackExecutor) : sendRequestSync(rpcRequestRpcProtocol, timeoutMillis, callbackExecutor);
+    }
+
+    /**
+     * 使用调用方已经创建的RPCFuture发送请求，用于连接建立完成后写出排队的请求
+     *
+     * @param rpcRequestRpcProtocol RPC请求协议对象
+     * @param rpcFuture             调用方创建的RPCFuture，单向调用时为null
+     */
+    public void sendRequest(RpcProtocol<RpcRequest> rpcRequestRpcProtocol, RPCFuture rpcFuture) {
+        if (rpcFuture != null) {
+            register(rpcRequestRpcProtocol.getHeader().getRequestId(), rpcFuture);
+        }
+        write(rpcRequestRpcProtocol, rpcFuture);
     }
 
-    private RPCFuture sendRequestSync(RpcProtocol<RpcRequest> rpcRequestRpcProtocol){
-        RPCFuture rpcFuture = this.getRpcFuture(rpcRequestRpcProtocol);
-        channel.writeAndFlush(rpcRequestRpcProtocol);
+    private RPCFuture sendRequestSync(RpcProtocol<RpcRequest> rpcRequestRpcProtocol, long timeoutMillis, Executor callbackExecutor){
+        RPCFuture rpcFuture = this.getRpcFuture(rpcRequestRpcProtocol, timeoutMillis, callbackExecutor);
+        write(rpcRequestRpcProtocol, rpcFuture);
         return rpcFuture;
     }
 
-    private RPCFuture sendRequestAsync(RpcProtocol<RpcRequest> rpcRequestRpcProtocol){
-        RPCFuture rpcFuture = this.getRpcFuture(rpcRequestRpcProtocol);
+    private RPCFuture sendRequestAsync(RpcProtocol<RpcRequest> rpcRequestRpcProtocol, long timeoutMillis, Executor callbackExecutor){
+        RPCFuture rpcFuture = this.getRpcFuture(rpcRequestRpcProtocol, timeoutMillis, callbackExecutor);
         //如果是异步调用，则将RPCFuture放入RpcContext
         RpcContext.getContext().setRPCFuture(rpcFuture);
-        channel.writeAndFlush(rpcRequestRpcProtocol);
+        write(rpcRequestRpcProtocol, rpcFuture);
         return null;
     }
 
     private RPCFuture sendRequestOneway(RpcProtocol<RpcRequest> protocol) {
-        channel.writeAndFlush(protocol);
+        write(protocol, null);
         return null;
     }
 
-    private RPCFuture getRpcFuture(RpcProtocol<RpcRequest> protocol) {
-        RPCFuture rpcFuture = new RPCFuture(protocol);
+    /**
+     * 写出请求，已登记方法编号的请求只写出方法编号和参数
+     * 开启合并写出时放入队列由EventLoop线程批量写出，否则直接writeAndFlush
+     * 编码或写出失败时请求不会到达服务提供者，由RPCFuture监听写出结果并立即以失败原因结束请求，单向调用只记录日志
+     *
+     * @param rpcFuture 等待响应的RPCFuture，单向调用时为null
+     */
+    private void write(RpcProtocol<RpcRequest> protocol, RPCFuture rpcFuture) {
+        RpcProtocol<RpcRequest> wireProtocol = methodDictionary.compact(protocol);
+        ChannelFutureListener listener = rpcFuture == null ? onewayWriteListener : rpcFuture;
+        RpcWriteQueue queue = this.writeQueue;
+        if (queue != null) {
+            queue.enqueue(wireProtocol, listener);
+        } else {
+            channel.writeAndFlush(wireProtocol).addListener(listener);
+        }
+    }
+
+    private RPCFuture getRpcFuture(RpcProtocol<RpcRequest> protocol, long timeoutMillis, Executor callbackExecutor) {
+        RPCFuture rpcFuture = new RPCFuture(protocol, timeoutMillis, callbackExecutor);
         RpcHeader header = protocol.getHeader();
         long requestId = header.getRequestId();
-        pendingRPC.put(requestId, rpcFuture);
+        register(requestId, rpcFuture);
         return rpcFuture;
     }
 
+    /**
+     * 登记等待响应的请求，超时任务在创建RPCFuture时已经登记到时间轮中
+     * 超时、取消与登记并发时，先设置handler再放入pendingRPC，之后检查完成状态，
+     * 保证无论哪一方先完成，请求都会从pendingRPC中移除
+     */
+    private void register(long requestId, RPCFuture rpcFuture) {
+        rpcFuture.setHandler(this);
+        pendingRPC.put(requestId, rpcFuture);
+        if (rpcFuture.isDone()) {
+            //登记前已经超时或被取消
+            pendingRPC.remove(requestId, rpcFuture);
+            return;
+        }
+        if (inactive) {
+            //连接已经断开，channelInactive不会再处理这个请求
+            if (pendingRPC.remove(requestId, rpcFuture)) {
+                failOnInactive(rpcFuture);
+            }
+        }
+    }
+
+    /**
+     * 取消的请求从等待响应列表中移除，之后到达的响应被忽略
+     *
+     * @param requestId 请求ID
+     * @param rpcFuture 被取消的RPCFuture
+     */
+    public void removePending(long requestId, RPCFuture rpcFuture) {
+        pendingRPC.remove(requestId, rpcFuture);
+    }
 
     public void close() {
         channel.writeAndFlush(Unpooled.EMPTY_BUFFER).addListener(ChannelFutureListener.CLOSE);
@@ -0,0 +1,112 @@
+package com.lizhe.bhrpcconsumercommon.handle;
+
+import com.lizhe.bhrpcconstants.RpcConstants;
+import com.lizhe.bhrpcprotocol.RpcProtocol;
+import com.lizhe.bhrpcprotocol.request.RpcMethodKey;
+import com.lizhe.bhrpcprotocol.request.RpcRequest;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * RpcMethodDictionary
+ * {@code @description} 连接级别的方法编号字典，每个连接对应一个实例
+ * 1. 服务消费者首次调用某个方法时为其分配连接内唯一的方法编号，随完整请求一起发送
+ * 2. 服务提供者登记方法编号后在响应报文头中置FLAG_METHOD_BOUND标识，收到标识后该方法标记为已登记
+ * 3. 已登记方法的请求只携带方法编号和参数，服务提供者按编号直接定位服务实例和方法，不再拼接和查找服务名称
+ * 登记只能通过v2报文头确认，v1连接上始终发送完整请求；Json序列化依赖parameterTypes还原参数类型，不使用方法编号
+ * 4. 以请求模板创建的RpcMethodKey作为key，同一个方法的请求携带同一个实例，按引用比较即可命中；
+ * 没有携带方法标识的请求每次按请求中的字段创建
+ *
+ * @author lizhe@joysuch.com
+ * {@code @date} 2025/3/14 上午10:22
+ * @version 1.0
+ */
+public class RpcMethodDictionary {
+
+    private final Map<RpcMethodKey, Entry> entries = new ConcurrentHashMap<>();
+
+    private final Map<Integer, Entry> entriesById = new ConcurrentHashMap<>();
+
+    private final AtomicInteger nextId = new AtomicInteger();
+
+    /**
+     * 为请求设置方法编号，方法已登记时返回只携带方法编号和参数的请求
+     * 原始请求保留完整的类名称和方法名称，用于超时等场景的日志输出
+     * 只携带方法编号的请求和RpcProtocol从对象池中获取，只由RpcEncoder持有，编码完成后由RpcEncoder回收
+     *
+     * @param protocol 原始请求
+     * @return 实际写出的请求
+     */
+    public RpcProtocol<RpcRequest> compact(RpcProtocol<RpcRequest> protocol) {
+        RpcRequest request = protocol.getBody();
+        if (request == null || request.getClassName() == null
+                || RpcConstants.SERIALIZATION_JSON.equals(protocol.getHeader().getSerializationType())) {
+            return protocol;
+        }
+        RpcMethodKey methodKey = request.getMethodKey();
+        if (methodKey == null) {
+            methodKey = RpcMethodKey.of(request);
+        }
+        Entry entry = entries.get(methodKey);
+        if (entry == null) {
+            entry = entries.computeIfAbsent(methodKey, key -> newEntry());
+        }
+        if (entry.id == 0) {
+            return protocol;
+        }
+        request.setMethodId(entry.id);
+        if (!entry.bound) {
+            return protocol;
+        }
+        RpcRequest compactRequest = RpcRequest.newInstance();
+        compactRequest.setMethodId(entry.id);
+        compactRequest.setParameters(request.getParameters());
+        compactRequest.setOneway(request.getOneway());
+        compactRequest.setAsync(request.getAsync());
+        RpcProtocol<RpcRequest> compactProtocol = RpcProtocol.newInstance();
+        compactProtocol.setHeader(protocol.getHeader());
+        compactProtocol.setBody(compactRequest);
+        return compactProtocol;
+    }
+
+    /**
+     * 服务提供者确认登记后标记方法编号为已登记
+     *
+     * @param methodId 方法编号
+     */
+    public void markBound(int methodId) {
+        Entry entry = entriesById.get(methodId);
+        if (entry != null) {
+            entry.bound = true;
+        }
+    }
+
+    /**
+     * 超过每个连接的方法编号上限后返回编号为0的条目，对应的方法始终发送完整请求
+     */
+    private Entry newEntry() {
+        int id = nextId.incrementAndGet();
+        if (id > RpcConstants.MAX_METHOD_ID) {
+            return new Entry(0);
+        }
+        Entry entry = new Entry(id);
+        entriesById.put(id, entry);
+        return entry;
+    }
+
+    private static final class Entry {
+
+        private final int id;
+
+        /**
+         * 服务提供者是否已确认登记
+         */
+        private volatile boolean bound;
+
+        Entry(int id) {
+            this.id = id;
+        }
+    }
+}
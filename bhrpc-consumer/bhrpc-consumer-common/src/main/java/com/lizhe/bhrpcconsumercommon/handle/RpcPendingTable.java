@@ -0,0 +1,137 @@
+package com.lizhe.bhrpcconsumercommon.handle;
+
+import com.lizhe.bhrpcconsumercommon.future.RPCFuture;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.function.Consumer;
+
+/**
+ * RpcPendingTable
+ * {@code @description} 连接级别的等待响应请求表，按请求ID登记和移除RPCFuture，请求ID不装箱
+ * 1. 请求ID由IdFactory递增生成，同一时刻等待响应的请求ID集中在一个连续区间内，
+ * 按请求ID对槽位数取模直接定位槽位，登记和移除都是一次CAS，不分配节点
+ * 2. 只有槽位已被仍在等待响应的另一个请求占用时才放入溢出表，槽位数远大于等待响应的请求数时溢出表始终为空
+ * 3. 调用方线程登记，EventLoop线程、超时线程和取消操作移除，所有操作都是无锁的，
+ * 通过CAS保证同一个RPCFuture只被移除一次
+ *
+ * @author lizhe@joysuch.com
+ * {@code @date} 2025/3/21 上午9:52
+ * @version 1.0
+ */
+public class RpcPendingTable {
+
+    private final AtomicReferenceArray<RPCFuture> slots;
+
+    private final int mask;
+
+    /**
+     * 槽位冲突时使用的溢出表
+     */
+    private final Map<Long, RPCFuture> overflow = new ConcurrentHashMap<>();
+
+    private final AtomicInteger size = new AtomicInteger();
+
+    /**
+     * @param capacity 槽位数，向上取整为2的幂
+     */
+    public RpcPendingTable(int capacity) {
+        if (capacity <= 0) {
+            throw new IllegalArgumentException("pending table capacity must be positive, " + capacity);
+        }
+        int length = Integer.highestOneBit(capacity);
+        if (length < capacity) {
+            length <<= 1;
+        }
+        this.slots = new AtomicReferenceArray<>(length);
+        this.mask = length - 1;
+    }
+
+    /**
+     * 登记等待响应的请求，同一个请求ID同时只能登记一次
+     *
+     * @param requestId 请求ID
+     * @param rpcFuture 请求对应的RPCFuture
+     */
+    public void put(long requestId, RPCFuture rpcFuture) {
+        if (!slots.compareAndSet(index(requestId), null, rpcFuture)) {
+            overflow.put(requestId, rpcFuture);
+        }
+        size.incrementAndGet();
+    }
+
+    /**
+     * 移除请求ID对应的RPCFuture
+     *
+     * @param requestId 请求ID
+     * @return 请求对应的RPCFuture，不存在或已被移除时返回null
+     */
+    public RPCFuture remove(long requestId) {
+        int index = index(requestId);
+        RPCFuture current = slots.get(index);
+        if (current != null && current.getRequestId() == requestId) {
+            if (slots.compareAndSet(index, current, null)) {
+                size.decrementAndGet();
+                return current;
+            }
+            return null;
+        }
+        RPCFuture removed = overflow.isEmpty() ? null : overflow.remove(requestId);
+        if (removed != null) {
+            size.decrementAndGet();
+        }
+        return removed;
+    }
+
+    /**
+     * 请求ID当前对应的是指定的RPCFuture时才移除，RPCFuture的请求ID与requestId不一致时不移除
+     *
+     * @return 是否移除成功
+     */
+    public boolean remove(long requestId, RPCFuture rpcFuture) {
+        if (rpcFuture.getRequestId() != requestId) {
+            return false;
+        }
+        if (slots.compareAndSet(index(requestId), rpcFuture, null)
+                || (!overflow.isEmpty() && overflow.remove(requestId, rpcFuture))) {
+            size.decrementAndGet();
+            return true;
+        }
+        return false;
+    }
+
+    /**
+     * 移除所有等待响应的请求，用于连接断开时结束这些请求
+     * 与响应、超时和取消操作并发执行时，同一个RPCFuture仍然只会被其中一方移除
+     *
+     * @param action 对每个移除的RPCFuture执行的操作
+     */
+    public void drain(Consumer<RPCFuture> action) {
+        for (int i = 0; i < slots.length(); i++) {
+            RPCFuture current = slots.get(i);
+            if (current != null && slots.compareAndSet(i, current, null)) {
+                size.decrementAndGet();
+                action.accept(current);
+            }
+        }
+        for (Map.Entry<Long, RPCFuture> entry : overflow.entrySet()) {
+            if (overflow.remove(entry.getKey(), entry.getValue())) {
+                size.decrementAndGet();
+                action.accept(entry.getValue());
+            }
+        }
+    }
+
+    /**
+     * 等待响应的请求数
+     */
+    public int size() {
+        return Math.max(size.get(), 0);
+    }
+
+    private int index(long requestId) {
+        return (int) requestId & mask;
+    }
+}
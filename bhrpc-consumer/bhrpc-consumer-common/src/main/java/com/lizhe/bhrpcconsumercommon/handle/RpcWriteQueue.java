@@ -0,0 +1,106 @@
+package com.lizhe.bhrpcconsumercommon.handle;
+
+import io.netty.channel.Channel;
+import io.netty.channel.ChannelFutureListener;
+import io.netty.util.internal.PlatformDependent;
+
+import java.util.Queue;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * RpcWriteQueue
+ * {@code @description} 合并写出队列
+ * 调用方线程只把报文放入队列，由EventLoop线程批量write后统一flush一次，多个请求合并为一次socket写出
+ * 1. 队列中有待写出的报文时只向EventLoop提交一次任务，避免每个请求都提交一次任务
+ * 2. 不额外等待，EventLoop执行到写出任务时立即写出队列中已有的报文，单个请求不会被延迟
+ * 3. 每批最多写出maxBatchSize个报文，剩余报文重新提交任务，避免长时间占用EventLoop线程影响读取响应
+ * 4. 每个报文带有写出结果的监听器，编码或写出失败时由监听器结束对应的请求
+ *
+ * @author lizhe@joysuch.com
+ * {@code @date} 2025/3/12 上午9:48
+ * @version 1.0
+ */
+public class RpcWriteQueue implements Runnable {
+
+    private final Channel channel;
+
+    private final int maxBatchSize;
+
+    /**
+     * 多生产者单消费者队列，生产者为调用方线程，消费者为EventLoop线程
+     */
+    private final Queue<Entry> queue = PlatformDependent.newMpscQueue();
+
+    /**
+     * 是否已经向EventLoop提交了写出任务
+     */
+    private final AtomicBoolean scheduled = new AtomicBoolean();
+
+    public RpcWriteQueue(Channel channel, int maxBatchSize) {
+        this.channel = channel;
+        this.maxBatchSize = maxBatchSize;
+    }
+
+    /**
+     * 将报文放入队列，等待EventLoop线程批量写出
+     *
+     * @param msg      待写出的报文
+     * @param listener 写出结果的监听器
+     */
+    public void enqueue(Object msg, ChannelFutureListener listener) {
+        queue.offer(new Entry(msg, listener));
+        scheduleFlush();
+    }
+
+    /**
+     * 丢弃队列中还没有写出的报文，用于连接断开时清理，报文对应的请求由等待响应请求表结束
+     *
+     * @return 丢弃的报文数
+     */
+    public int discard() {
+        int discarded = 0;
+        while (queue.poll() != null) {
+            discarded++;
+        }
+        return discarded;
+    }
+
+    private void scheduleFlush() {
+        if (scheduled.compareAndSet(false, true)) {
+            channel.eventLoop().execute(this);
+        }
+    }
+
+    /**
+     * 在EventLoop线程中执行，写出队列中的报文并flush
+     */
+    @Override
+    public void run() {
+        int written = 0;
+        Entry entry;
+        while (written < maxBatchSize && (entry = queue.poll()) != null) {
+            channel.write(entry.msg).addListener(entry.listener);
+            written++;
+        }
+        if (written > 0) {
+            channel.flush();
+        }
+        scheduled.set(false);
+        // 复位标识之后再次检查队列，避免与刚放入队列的报文错过
+        if (!queue.isEmpty()) {
+            scheduleFlush();
+        }
+    }
+
+    private static final class Entry {
+
+        private final Object msg;
+
+        private final ChannelFutureListener listener;
+
+        Entry(Object msg, ChannelFutureListener listener) {
+            this.msg = msg;
+            this.listener = listener;
+        }
+    }
+}
@@ -1,7 +1,9 @@
 package com.lizhe.bhrpcconsumercommon.initializer;
 
+import com.lizhe.bhrpccodec.RpcChunkedWriteHandler;
 import com.lizhe.bhrpccodec.RpcDecoder;
 import com.lizhe.bhrpccodec.RpcEncoder;
+import com.lizhe.bhrpcconstants.RpcConstants;
 import com.lizhe.bhrpcconsumercommon.handle.RpcConsumerHandler;
 import io.netty.channel.ChannelInitializer;
 import io.netty.channel.ChannelPipeline;
@@ -17,6 +19,29 @@ import io.netty.channel.socket.SocketChannel;
  */
 public class RpcConsumerInitializer extends ChannelInitializer<SocketChannel> {
 
+    /**
+     * 是否合并写出，开启后调用方线程只把请求放入队列，由EventLoop线程批量写出后统一flush
+     */
+    private final boolean writeCoalescing;
+
+    /**
+     * 合并写出时每批最多写出的报文数
+     */
+    private final int writeBatchSize;
+
+    /**
+     * 是否合并写出和每批报文数分别读取系统属性bhrpc.consumer.write.coalescing和bhrpc.consumer.write.batch.size，默认不合并
+     */
+    public RpcConsumerInitializer() {
+        this(Boolean.getBoolean(RpcConstants.CONSUMER_WRITE_COALESCING_PROPERTY),
+                Integer.getInteger(RpcConstants.CONSUMER_WRITE_BATCH_SIZE_PROPERTY, RpcConstants.DEFAULT_CONSUMER_WRITE_BATCH_SIZE));
+    }
+
+    public RpcConsumerInitializer(boolean writeCoalescing, int writeBatchSize) {
+        this.writeCoalescing = writeCoalescing;
+        this.writeBatchSize = writeBatchSize;
+    }
+
     /**
      * 初始化Channel，配置ChannelPipeline中的处理器
      * 该方法在Channel被注册到EventLoop后调用，用于设置Channel的处理器链
@@ -27,8 +52,9 @@ public class RpcConsumerInitializer extends ChannelInitializer<SocketChannel> {
     @Override
     protected void initChannel(SocketChannel channel) throws Exception {
         ChannelPipeline cp = channel.pipeline();
+        cp.addLast(new RpcChunkedWriteHandler()); // 大消息拆分为分片写出，避免阻塞同一连接上的小报文
         cp.addLast(new RpcEncoder()); // 添加RPC编码器，负责将请求对象编码为二进制数据
         cp.addLast(new RpcDecoder()); // 添加RPC解码器，负责将二进制数据解码为响应对象
-        cp.addLast(new RpcConsumerHandler()); // 添加RPC消费者处理器，负责处理RPC调用的核心逻辑
+        cp.addLast(new RpcConsumerHandler(writeCoalescing, writeBatchSize)); // 添加RPC消费者处理器，负责处理RPC调用的核心逻辑
     }
 }
@@ -0,0 +1,229 @@
+package com.lizhe.bhrpcconsumercommon.handle;
+
+import com.lizhe.bhrpccommon.exception.RpcTimeoutException;
+import com.lizhe.bhrpccommon.exception.SerializerException;
+import com.lizhe.bhrpcconstants.RpcConstants;
+import com.lizhe.bhrpcconsumercommon.callback.AsyncRPCCallback;
+import com.lizhe.bhrpcconsumercommon.callback.RpcCallbackExecutors;
+import com.lizhe.bhrpcconsumercommon.future.RPCFuture;
+import com.lizhe.bhrpcprotocol.RpcProtocol;
+import com.lizhe.bhrpcprotocol.header.RpcHeader;
+import com.lizhe.bhrpcprotocol.header.RpcHeaderFactory;
+import com.lizhe.bhrpcprotocol.request.RpcRequest;
+import com.lizhe.bhrpcprotocol.response.RpcResponse;
+import io.netty.channel.ChannelHandlerContext;
+import io.netty.channel.ChannelOutboundHandlerAdapter;
+import io.netty.channel.ChannelPromise;
+import io.netty.channel.embedded.EmbeddedChannel;
+import io.netty.util.ReferenceCountUtil;
+import org.junit.Test;
+
+import java.net.ConnectException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+/**
+ * RpcConsumerHandlerTest
+ * {@code @description} 服务消费者处理器测试，请求写入EmbeddedChannel，响应直接写入处理器
+ * 覆盖时间轮超时、超时与响应竞争、取消、连接建立前超时、写出失败和连接断开时等待响应列表的清理
+ *
+ * @author lizhe@joysuch.com
+ * {@code @date} 2025/3/28 下午4:45
+ * @version 1.0
+ */
+public class RpcConsumerHandlerTest {
+
+    private static final String CLASS_NAME = "com.lizhe.bhrpctest.DemoService";
+
+    @Test
+    public void testTimeoutRemovesPendingRequest() throws Exception {
+        RpcConsumerHandler handler = new RpcConsumerHandler();
+        EmbeddedChannel channel = new EmbeddedChannel(handler);
+        RPCFuture future = handler.sendRequest(newRequest(), false, false, 50);
+        assertEquals(1, handler.getPendingCount());
+
+        Throwable cause = awaitFailure(future);
+        assertTrue(cause instanceof RpcTimeoutException);
+        assertTrue(cause.getMessage().contains(CLASS_NAME));
+        awaitNoPending(handler);
+        channel.finishAndReleaseAll();
+    }
+
+    @Test
+    public void testResponseCancelsTimeout() throws Exception {
+        RpcConsumerHandler handler = new RpcConsumerHandler();
+        EmbeddedChannel channel = new EmbeddedChannel(handler);
+        RpcProtocol<RpcRequest> request = newRequest();
+        AtomicInteger callbacks = new AtomicInteger();
+        RPCFuture future = handler.sendRequest(request, false, false, 50, RpcCallbackExecutors.direct());
+        future.addCallback(countingCallback(callbacks));
+
+        channel.writeInbound(newResponse(request.getHeader().getRequestId(), "hello"));
+        assertEquals("hello", future.get(1, TimeUnit.SECONDS));
+        assertEquals(0, handler.getPendingCount());
+        // 超过超时时间后结果不变，回调只执行一次
+        Thread.sleep(150);
+        assertEquals("hello", future.get());
+        assertEquals(1, callbacks.get());
+        channel.finishAndReleaseAll();
+    }
+
+    @Test
+    public void testTimeoutRacingWithResponse() throws Exception {
+        RpcConsumerHandler handler = new RpcConsumerHandler();
+        EmbeddedChannel channel = new EmbeddedChannel(handler);
+        for (int i = 0; i < 50; i++) {
+            RpcProtocol<RpcRequest> request = newRequest();
+            AtomicInteger callbacks = new AtomicInteger();
+            RPCFuture future = handler.sendRequest(request, false, false, 20, RpcCallbackExecutors.direct());
+            future.addCallback(countingCallback(callbacks));
+            // 响应在超时时间附近到达，两者只有一方完成RPCFuture
+            Thread.sleep(15 + i % 10);
+            channel.writeInbound(newResponse(request.getHeader().getRequestId(), "hello"));
+            try {
+                assertEquals("hello", future.get(1, TimeUnit.SECONDS));
+            } catch (ExecutionException e) {
+                assertTrue(e.getCause() instanceof RpcTimeoutException);
+            }
+            assertEquals(1, callbacks.get());
+            awaitNoPending(handler);
+        }
+        channel.finishAndReleaseAll();
+    }
+
+    @Test
+    public void testCancelRemovesPendingRequest() throws Exception {
+        RpcConsumerHandler handler = new RpcConsumerHandler();
+        EmbeddedChannel channel = new EmbeddedChannel(handler);
+        RpcProtocol<RpcRequest> request = newRequest();
+        RPCFuture future = handler.sendRequest(request, false, false, 50);
+        assertEquals(1, handler.getPendingCount());
+
+        assertTrue(future.cancel(true));
+        assertEquals(0, handler.getPendingCount());
+        // 取消后到达的响应和超时都被忽略
+        channel.writeInbound(newResponse(request.getHeader().getRequestId(), "hello"));
+        Thread.sleep(100);
+        assertTrue(future.isCancelled());
+        assertEquals(0, handler.getPendingCount());
+        channel.finishAndReleaseAll();
+    }
+
+    @Test
+    public void testTimeoutBeforeConnected() throws Exception {
+        // 连接建立前创建的RPCFuture从创建时开始计时
+        RpcProtocol<RpcRequest> request = newRequest();
+        RPCFuture future = new RPCFuture(request, 50);
+        assertTrue(awaitFailure(future) instanceof RpcTimeoutException);
+
+        RpcConsumerHandler handler = new RpcConsumerHandler();
+        EmbeddedChannel channel = new EmbeddedChannel(handler);
+        handler.sendRequest(request, future);
+        assertEquals(0, handler.getPendingCount());
+        channel.finishAndReleaseAll();
+    }
+
+    @Test
+    public void testWriteFailureFailsRequest() throws Exception {
+        for (boolean writeCoalescing : new boolean[]{false, true}) {
+            RpcConsumerHandler handler = new RpcConsumerHandler(writeCoalescing, RpcConstants.DEFAULT_CONSUMER_WRITE_BATCH_SIZE);
+            EmbeddedChannel channel = new EmbeddedChannel(new ChannelOutboundHandlerAdapter() {
+                @Override
+                public void write(ChannelHandlerContext ctx, Object msg, ChannelPromise promise) {
+                    ReferenceCountUtil.release(msg);
+                    promise.setFailure(new SerializerException("serialization type not found"));
+                }
+            }, handler);
+            RPCFuture future = handler.sendRequest(newRequest(), false, false, 5000);
+            channel.runPendingTasks();
+            assertTrue(future.isDone());
+            assertTrue(awaitFailure(future) instanceof SerializerException);
+            assertEquals(0, handler.getPendingCount());
+            channel.finishAndReleaseAll();
+        }
+    }
+
+    @Test
+    public void testInactiveFailsPendingRequests() throws Exception {
+        RpcConsumerHandler handler = new RpcConsumerHandler();
+        EmbeddedChannel channel = new EmbeddedChannel(handler);
+        RPCFuture first = handler.sendRequest(newRequest(), false, false, 5000);
+        RPCFuture second = handler.sendRequest(newRequest(), false, false, 0);
+        channel.close();
+        assertTrue(awaitFailure(first) instanceof ConnectException);
+        assertTrue(awaitFailure(second) instanceof ConnectException);
+        assertEquals(0, handler.getPendingCount());
+
+        // 连接断开后发送的请求直接失败
+        RPCFuture late = new RPCFuture(newRequest(), 5000);
+        handler.sendRequest(late.getRequestRpcProtocol(), late);
+        assertTrue(awaitFailure(late) instanceof ConnectException);
+        assertEquals(0, handler.getPendingCount());
+        channel.finishAndReleaseAll();
+    }
+
+    private static Throwable awaitFailure(RPCFuture future) throws Exception {
+        try {
+            future.get(1, TimeUnit.SECONDS);
+        } catch (ExecutionException e) {
+            return e.getCause();
+        }
+        fail("request should fail");
+        return null;
+    }
+
+    /**
+     * 超时任务先完成RPCFuture再从等待响应列表中移除，等待移除完成
+     */
+    private static void awaitNoPending(RpcConsumerHandler handler) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 1000;
+        while (handler.getPendingCount() > 0 && System.currentTimeMillis() < deadline) {
+            Thread.sleep(1);
+        }
+        assertEquals(0, handler.getPendingCount());
+    }
+
+    private static AsyncRPCCallback countingCallback(AtomicInteger callbacks) {
+        return new AsyncRPCCallback() {
+            @Override
+            public void onSuccess(Object result) {
+                callbacks.incrementAndGet();
+            }
+
+            @Override
+            public void onException(Exception e) {
+                callbacks.incrementAndGet();
+            }
+        };
+    }
+
+    private static RpcProtocol<RpcRequest> newRequest() {
+        RpcRequest request = new RpcRequest();
+        request.setClassName(CLASS_NAME);
+        request.setMethodName("hello");
+        request.setVersion("1.0.0");
+        request.setGroup("binghe");
+        request.setParameterTypes(new Class<?>[]{String.class});
+        request.setParameters(new Object[]{"binghe"});
+        RpcProtocol<RpcRequest> protocol = new RpcProtocol<>();
+        protocol.setHeader(RpcHeaderFactory.getRpcRequestHeader(RpcConstants.SERIALIZATION_JDK));
+        protocol.setBody(request);
+        return protocol;
+    }
+
+    private static RpcProtocol<RpcResponse> newResponse(long requestId, Object result) {
+        RpcHeader header = new RpcHeader();
+        header.setRequestId(requestId);
+        RpcResponse response = new RpcResponse();
+        response.setResult(result);
+        RpcProtocol<RpcResponse> protocol = new RpcProtocol<>();
+        protocol.setHeader(header);
+        protocol.setBody(response);
+        return protocol;
+    }
+}
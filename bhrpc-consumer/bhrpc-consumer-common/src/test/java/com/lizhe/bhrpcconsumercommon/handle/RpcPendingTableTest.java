@@ -0,0 +1,189 @@
+package com.lizhe.bhrpcconsumercommon.handle;
+
+import com.lizhe.bhrpcconsumercommon.future.RPCFuture;
+import com.lizhe.bhrpcprotocol.RpcProtocol;
+import com.lizhe.bhrpcprotocol.header.RpcHeader;
+import com.lizhe.bhrpcprotocol.request.RpcRequest;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * RpcPendingTableTest
+ * {@code @description} 等待响应请求表测试，包括槽位冲突时的溢出表、两种移除方式、清空与移除并发以及请求数统计
+ *
+ * @author lizhe@joysuch.com
+ * {@code @date} 2025/3/28 下午4:10
+ * @version 1.0
+ */
+public class RpcPendingTableTest {
+
+    @Test
+    public void testPutAndRemove() {
+        RpcPendingTable table = new RpcPendingTable(8);
+        RPCFuture first = newFuture(1);
+        RPCFuture second = newFuture(2);
+        table.put(1, first);
+        table.put(2, second);
+        assertEquals(2, table.size());
+
+        assertSame(first, table.remove(1));
+        assertNull(table.remove(1));
+        assertNull(table.remove(3));
+        assertEquals(1, table.size());
+        assertSame(second, table.remove(2));
+        assertEquals(0, table.size());
+    }
+
+    @Test
+    public void testSlotCollisionGoesToOverflow() {
+        // 容量向上取整为4，请求ID 1、5、9落在同一个槽位
+        RpcPendingTable table = new RpcPendingTable(3);
+        RPCFuture first = newFuture(1);
+        RPCFuture second = newFuture(5);
+        RPCFuture third = newFuture(9);
+        table.put(1, first);
+        table.put(5, second);
+        table.put(9, third);
+        assertEquals(3, table.size());
+
+        // 槽位中的请求与溢出表中的请求互不影响
+        assertSame(second, table.remove(5));
+        assertSame(first, table.remove(1));
+        assertEquals(1, table.size());
+
+        // 槽位空出后新请求直接使用槽位，溢出表中的请求仍然可以移除
+        RPCFuture fourth = newFuture(13);
+        table.put(13, fourth);
+        assertSame(third, table.remove(9));
+        assertSame(fourth, table.remove(13));
+        assertEquals(0, table.size());
+    }
+
+    @Test
+    public void testRemoveOnlyMatchingFuture() {
+        RpcPendingTable table = new RpcPendingTable(4);
+        RPCFuture slotted = newFuture(2);
+        RPCFuture overflowed = newFuture(6);
+        table.put(2, slotted);
+        table.put(6, overflowed);
+
+        // 请求ID对应的不是指定的RPCFuture时不移除
+        assertFalse(table.remove(2, overflowed));
+        assertFalse(table.remove(6, slotted));
+        assertFalse(table.remove(10, slotted));
+        assertEquals(2, table.size());
+
+        assertTrue(table.remove(6, overflowed));
+        assertFalse(table.remove(6, overflowed));
+        assertTrue(table.remove(2, slotted));
+        assertFalse(table.remove(2, slotted));
+        assertNull(table.remove(2));
+        assertEquals(0, table.size());
+    }
+
+    @Test
+    public void testDrain() {
+        RpcPendingTable table = new RpcPendingTable(4);
+        List<RPCFuture> futures = new ArrayList<>();
+        for (int i = 0; i < 10; i++) {
+            RPCFuture future = newFuture(i);
+            futures.add(future);
+            table.put(i, future);
+        }
+        assertEquals(10, table.size());
+
+        Set<RPCFuture> drained = Collections.newSetFromMap(new IdentityHashMap<>());
+        table.drain(drained::add);
+        assertEquals(10, drained.size());
+        assertTrue(drained.containsAll(futures));
+        assertEquals(0, table.size());
+        for (int i = 0; i < 10; i++) {
+            assertNull(table.remove(i));
+        }
+    }
+
+    @Test
+    public void testDrainRacingWithRemove() throws Exception {
+        int requests = 20000;
+        int removers = 4;
+        for (int round = 0; round < 20; round++) {
+            // 槽位数小于请求数，同时覆盖槽位和溢出表
+            RpcPendingTable table = new RpcPendingTable(1024);
+            RPCFuture[] futures = new RPCFuture[requests];
+            for (int i = 0; i < requests; i++) {
+                futures[i] = newFuture(i);
+                table.put(i, futures[i]);
+            }
+            AtomicInteger[] removed = new AtomicInteger[requests];
+            for (int i = 0; i < requests; i++) {
+                removed[i] = new AtomicInteger();
+            }
+            CountDownLatch start = new CountDownLatch(1);
+            List<Thread> threads = new ArrayList<>();
+            for (int t = 0; t < removers; t++) {
+                int offset = t;
+                threads.add(new Thread(() -> {
+                    await(start);
+                    for (int i = offset; i < requests; i += removers) {
+                        // 交替使用两种移除方式
+                        boolean success = (i & 1) == 0 ? table.remove(i) != null : table.remove(i, futures[i]);
+                        if (success) {
+                            removed[i].incrementAndGet();
+                        }
+                    }
+                }));
+            }
+            threads.add(new Thread(() -> {
+                await(start);
+                table.drain(future -> removed[(int) future.getRequestId()].incrementAndGet());
+            }));
+            for (Thread thread : threads) {
+                thread.start();
+            }
+            start.countDown();
+            for (Thread thread : threads) {
+                thread.join();
+            }
+            // 每个请求恰好被移除一次
+            for (int i = 0; i < requests; i++) {
+                assertEquals("request " + i, 1, removed[i].get());
+            }
+            assertEquals(0, table.size());
+        }
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testNonPositiveCapacity() {
+        new RpcPendingTable(0);
+    }
+
+    private static RPCFuture newFuture(long requestId) {
+        RpcHeader header = new RpcHeader();
+        header.setRequestId(requestId);
+        RpcProtocol<RpcRequest> protocol = new RpcProtocol<>();
+        protocol.setHeader(header);
+        protocol.setBody(new RpcRequest());
+        return new RPCFuture(protocol, 0);
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -1,6 +1,8 @@
 package com.lizhe.bhrpcprotocol;
 
+import com.lizhe.bhrpcprotocol.base.RpcObjectPool;
 import com.lizhe.bhrpcprotocol.header.RpcHeader;
+import io.netty.util.Recycler;
 
 import java.io.Serializable;
 
@@ -24,6 +26,46 @@ public class RpcProtocol<T> implements Serializable {
      */
     private T body;
 
+    private static final Recycler<RpcProtocol<?>> RECYCLER = new Recycler<RpcProtocol<?>>() {
+        @Override
+        protected RpcProtocol<?> newObject(Handle<RpcProtocol<?>> handle) {
+            return new RpcProtocol<>(handle);
+        }
+    };
+
+    /**
+     * 对象池句柄，非池化对象为null
+     */
+    private final transient Recycler.Handle<RpcProtocol<?>> handle;
+
+    public RpcProtocol() {
+        this(null);
+    }
+
+    private RpcProtocol(Recycler.Handle<RpcProtocol<?>> handle) {
+        this.handle = handle;
+    }
+
+    /**
+     * 开启对象池时从对象池中获取，否则直接创建
+     */
+    @SuppressWarnings("unchecked")
+    public static <T> RpcProtocol<T> newInstance() {
+        return RpcObjectPool.isEnabled() ? (RpcProtocol<T>) RECYCLER.get() : new RpcProtocol<>();
+    }
+
+    /**
+     * 只回收RpcProtocol本身，消息头和消息体由各自的持有方回收，非池化对象为空操作
+     */
+    public void recycle() {
+        if (handle == null) {
+            return;
+        }
+        header = null;
+        body = null;
+        handle.recycle(this);
+    }
+
     public RpcHeader getHeader() {
         return header;
     }
@@ -11,6 +11,9 @@ import java.io.Serializable;
  * @version 1.0
  */
 public class RpcMessage implements Serializable {
+    //与未声明serialVersionUID时的默认值保持一致，兼容旧版本节点的JDK序列化
+    private static final long serialVersionUID = -8950128985943157948L;
+
     //单向发送
     private boolean oneway;
     //异步调用
@@ -31,4 +34,10 @@ public class RpcMessage implements Serializable {
     public void setAsync(boolean async) {
         this.async = async;
     }
+
+    /**
+     * 回收池化对象，非池化对象为空操作
+     */
+    public void recycle() {
+    }
 }
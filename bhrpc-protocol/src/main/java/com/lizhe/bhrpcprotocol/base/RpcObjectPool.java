@@ -0,0 +1,31 @@
+package com.lizhe.bhrpcprotocol.base;
+
+import com.lizhe.bhrpcconstants.RpcConstants;
+
+/**
+ * RpcObjectPool
+ * {@code @description} 协议对象池开关，通过系统属性bhrpc.object.pool开启，默认关闭
+ * 开启后RpcHeader、RpcProtocol、RpcRequest和RpcResponse的newInstance方法从Netty Recycler中获取对象，
+ * 关闭时newInstance直接创建对象，recycle为空操作
+ * 对象归属规则：
+ * 1. 池化对象只能由最后持有它的一方调用一次recycle，回收后不能再访问
+ * 2. RpcDecoder解码出的报文交给下一个处理器，服务提供者处理完请求后回收请求的RpcProtocol和RpcRequest，
+ * 消息头转移到响应报文中继续使用
+ * 3. 写入连接的池化报文由RpcEncoder编码完成后回收，包括消息头、消息体和RpcProtocol本身
+ * 4. 服务消费者收到的响应交给RPCFuture和业务代码持有，不回收，由GC处理
+ *
+ * @author lizhe@joysuch.com
+ * {@code @date} 2025/3/17 上午9:36
+ * @version 1.0
+ */
+public final class RpcObjectPool {
+
+    private static final boolean ENABLED = Boolean.getBoolean(RpcConstants.OBJECT_POOL_PROPERTY);
+
+    private RpcObjectPool() {
+    }
+
+    public static boolean isEnabled() {
+        return ENABLED;
+    }
+}
@@ -16,19 +16,28 @@ public enum RpcType {
     //心跳消息
     HEARTBEAT(3);
 
+    private static final RpcType[] TYPE_TABLE = new RpcType[256];
+
+    static {
+        for (RpcType rpcType : values()) {
+            TYPE_TABLE[rpcType.type] = rpcType;
+        }
+    }
+
     private final int type;
 
     RpcType(int type) {
         this.type = type;
     }
 
+    /**
+     * 根据报文类型查找，直接按下标取值，不遍历values()，也不复制values()数组
+     *
+     * @param type 报文类型
+     * @return 对应的报文类型，不存在时返回null
+     */
     public static RpcType findByType(int type) {
-        for (RpcType rpcType : values()) {
-            if (rpcType.type == type) {
-                return rpcType;
-            }
-        }
-        return null;
+        return type >= 0 && type < TYPE_TABLE.length ? TYPE_TABLE[type] : null;
     }
 
     public int getType() {
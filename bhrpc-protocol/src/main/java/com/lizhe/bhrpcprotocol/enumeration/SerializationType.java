@@ -0,0 +1,79 @@
+package com.lizhe.bhrpcprotocol.enumeration;
+
+import com.lizhe.bhrpcconstants.RpcConstants;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * SerializationType
+ * {@code @description} 序列化类型与v2协议头中1字节序列化ID的映射
+ *
+ * @author lizhe@joysuch.com
+ * {@code @date} 2025/3/3 上午10:12
+ * @version 1.0
+ */
+public enum SerializationType {
+    //jdk序列化
+    JDK(1, RpcConstants.SERIALIZATION_JDK),
+    //json序列化
+    JSON(2, RpcConstants.SERIALIZATION_JSON),
+    //hessian2序列化
+    HESSIAN2(3, RpcConstants.SERIALIZATION_HESSIAN2),
+    //protostuff序列化
+    PROTOSTUFF(4, RpcConstants.SERIALIZATION_PROTOSTUFF),
+    //kryo序列化
+    KRYO(5, RpcConstants.SERIALIZATION_KRYO),
+    //fst序列化
+    FST(6, RpcConstants.SERIALIZATION_FST),
+    //fast序列化
+    FAST(7, RpcConstants.SERIALIZATION_FAST);
+
+    private static final SerializationType[] ID_TABLE = new SerializationType[256];
+
+    private static final Map<String, SerializationType> NAME_TABLE = new HashMap<>();
+
+    static {
+        for (SerializationType type : values()) {
+            ID_TABLE[type.id & 0xFF] = type;
+            NAME_TABLE.put(type.name, type);
+        }
+    }
+
+    private final byte id;
+
+    private final String name;
+
+    SerializationType(int id, String name) {
+        this.id = (byte) id;
+        this.name = name;
+    }
+
+    /**
+     * 根据序列化ID查找序列化类型
+     *
+     * @param id 协议头中的序列化ID
+     * @return 对应的序列化类型，不存在时返回null
+     */
+    public static SerializationType findById(byte id) {
+        return ID_TABLE[id & 0xFF];
+    }
+
+    /**
+     * 根据序列化名称查找序列化类型
+     *
+     * @param name 序列化名称，例如jdk、protostuff
+     * @return 对应的序列化类型，不存在时返回null
+     */
+    public static SerializationType findByName(String name) {
+        return name == null ? null : NAME_TABLE.get(name);
+    }
+
+    public byte getId() {
+        return id;
+    }
+
+    public String getName() {
+        return name;
+    }
+}
@@ -1,10 +1,13 @@
 package com.lizhe.bhrpcprotocol.header;
 
+import com.lizhe.bhrpcprotocol.base.RpcObjectPool;
+import io.netty.util.Recycler;
+
 import java.io.Serializable;
 
 /**
  * RpcHeader
- * {@code @description} Rpc请求消息头，目前固定为32字符
+ * {@code @description} Rpc请求消息头，v1版本固定为32字节，v2版本固定为21字节
  *
  * @author lizhe@joysuch.com
  * {@code @date} 2025/2/12 下午2:37
@@ -19,12 +22,26 @@ public class RpcHeader implements Serializable {
     +---------------------------------------------------------------+
     |           序列化类型 16byte      |        数据长度 4byte          |
     +---------------------------------------------------------------+
+    */
+
+     /*
+    v2版本，序列化类型改为1字节的序列化ID，版本号字节的最高位固定为1，用于与v1区分
+    压缩算法 2byte为发送方支持的压缩算法ID位图，第n位为1表示支持ID为n的压缩算法
+    +------------------------------------------------------------------------------------+
+    | 魔数 2byte | 版本 1byte | 报文类型 1byte | 状态 1byte | 标志 1byte | 序列化ID 1byte |
+    +------------------------------------------------------------------------------------+
+    | 压缩算法 2byte |          消息 ID 8byte          |         数据长度 4byte          |
+    +------------------------------------------------------------------------------------+
     */
 
     /**
      * 魔数 2字节
      */
     private short magic;
+    /**
+     * 协议版本 1字节，仅v2及以上版本在报文中传输，v1报文解码后为1
+     */
+    private byte version;
     /**
      * 报文类型 1字节
      */
@@ -49,6 +66,62 @@ public class RpcHeader implements Serializable {
      */
     private int msgLen;
 
+    /**
+     * 标志位 1字节，仅v2及以上版本在报文中传输
+     */
+    private byte flags;
+
+    /**
+     * 消息体大小的预估值，不在报文中传输，编码器据此分配出站缓冲区的初始容量，小于等于0表示不指定
+     */
+    private int sizeHint;
+
+    private static final Recycler<RpcHeader> RECYCLER = new Recycler<RpcHeader>() {
+        @Override
+        protected RpcHeader newObject(Handle<RpcHeader> handle) {
+            return new RpcHeader(handle);
+        }
+    };
+
+    /**
+     * 对象池句柄，非池化对象为null
+     */
+    private final transient Recycler.Handle<RpcHeader> handle;
+
+    public RpcHeader() {
+        this(null);
+    }
+
+    private RpcHeader(Recycler.Handle<RpcHeader> handle) {
+        this.handle = handle;
+    }
+
+    /**
+     * 开启对象池时从对象池中获取，否则直接创建
+     */
+    public static RpcHeader newInstance() {
+        return RpcObjectPool.isEnabled() ? RECYCLER.get() : new RpcHeader();
+    }
+
+    /**
+     * 重置字段后放回对象池，非池化对象为空操作
+     */
+    public void recycle() {
+        if (handle == null) {
+            return;
+        }
+        magic = 0;
+        version = 0;
+        msgType = 0;
+        status = 0;
+        requestId = 0;
+        serializationType = null;
+        msgLen = 0;
+        flags = 0;
+        sizeHint = 0;
+        handle.recycle(this);
+    }
+
 
     public short getMagic() {
         return magic;
@@ -58,6 +131,14 @@ public class RpcHeader implements Serializable {
         this.magic = magic;
     }
 
+    public byte getVersion() {
+        return version;
+    }
+
+    public void setVersion(byte version) {
+        this.version = version;
+    }
+
     public byte getMsgType() {
         return msgType;
     }
@@ -97,4 +178,20 @@ public class RpcHeader implements Serializable {
     public void setMsgLen(int msgLen) {
         this.msgLen = msgLen;
     }
+
+    public byte getFlags() {
+        return flags;
+    }
+
+    public void setFlags(byte flags) {
+        this.flags = flags;
+    }
+
+    public int getSizeHint() {
+        return sizeHint;
+    }
+
+    public void setSizeHint(int sizeHint) {
+        this.sizeHint = sizeHint;
+    }
 }
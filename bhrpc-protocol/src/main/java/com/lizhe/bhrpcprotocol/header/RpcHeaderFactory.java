@@ -18,6 +18,7 @@ public class RpcHeaderFactory {
         long requestId = IdFactory.getId();
         header.setRequestId(requestId);
         header.setMagic(RpcConstants.MAGIC);
+        header.setVersion(RpcConstants.VERSION);
         header.setMsgType((byte) RpcType.REQUEST.getType());
         header.setStatus((byte) 0x1);
         header.setSerializationType(serializationType);
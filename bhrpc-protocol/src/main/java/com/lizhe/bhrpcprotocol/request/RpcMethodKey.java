@@ -0,0 +1,76 @@
+package com.lizhe.bhrpcprotocol.request;
+
+import java.util.Arrays;
+import java.util.Objects;
+
+/**
+ * RpcMethodKey
+ * {@code @description} 服务名称、版本号、分组、方法名称和参数类型确定的方法标识
+ * 1. 服务消费者的请求模板为每个方法创建一次，随请求一起传递，连接上的方法编号字典以其作为key，
+ * 同一个方法的请求使用同一个实例，查找时按引用比较即可命中，不需要逐个比较字符串
+ * 2. 哈希值在创建时计算并缓存
+ *
+ * @author lizhe@joysuch.com
+ * {@code @date} 2025/3/28 上午11:05
+ * @version 1.0
+ */
+public final class RpcMethodKey {
+
+    private final String className;
+
+    private final String methodName;
+
+    private final String version;
+
+    private final String group;
+
+    private final Class<?>[] parameterTypes;
+
+    private final int hash;
+
+    public RpcMethodKey(String className, String methodName, String version, String group, Class<?>[] parameterTypes) {
+        this.className = className;
+        this.methodName = methodName;
+        this.version = version;
+        this.group = group;
+        this.parameterTypes = parameterTypes;
+        this.hash = Objects.hash(className, methodName, version, group) * 31 + Arrays.hashCode(parameterTypes);
+    }
+
+    /**
+     * 为没有携带方法标识的完整请求创建方法标识
+     *
+     * @param request 完整请求
+     * @return 方法标识
+     */
+    public static RpcMethodKey of(RpcRequest request) {
+        return new RpcMethodKey(request.getClassName(), request.getMethodName(), request.getVersion(), request.getGroup(), request.getParameterTypes());
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof RpcMethodKey)) {
+            return false;
+        }
+        RpcMethodKey that = (RpcMethodKey) o;
+        return hash == that.hash
+                && Objects.equals(className, that.className)
+                && Objects.equals(methodName, that.methodName)
+                && Objects.equals(version, that.version)
+                && Objects.equals(group, that.group)
+                && Arrays.equals(parameterTypes, that.parameterTypes);
+    }
+
+    @Override
+    public int hashCode() {
+        return hash;
+    }
+
+    @Override
+    public String toString() {
+        return className + "#" + version + "#" + group + "." + methodName + Arrays.toString(parameterTypes);
+    }
+}
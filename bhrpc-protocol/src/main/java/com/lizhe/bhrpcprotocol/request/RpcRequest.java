@@ -1,6 +1,8 @@
 package com.lizhe.bhrpcprotocol.request;
 
 import com.lizhe.bhrpcprotocol.base.RpcMessage;
+import com.lizhe.bhrpcprotocol.base.RpcObjectPool;
+import io.netty.util.Recycler;
 
 /**
  * RpcRequest
@@ -37,6 +39,60 @@ public class RpcRequest extends RpcMessage {
      * 服务分组
      */
     private String group;
+    /**
+     * 连接上登记的方法编号，0表示未登记
+     * 方法编号登记完成后请求中只携带方法编号和参数，类名称、方法名称、参数类型、版本号和分组为null
+     */
+    private int methodId;
+    /**
+     * 请求模板创建的方法标识，只在服务消费者本地使用，不参与序列化
+     */
+    private transient RpcMethodKey methodKey;
+
+    private static final Recycler<RpcRequest> RECYCLER = new Recycler<RpcRequest>() {
+        @Override
+        protected RpcRequest newObject(Handle<RpcRequest> handle) {
+            return new RpcRequest(handle);
+        }
+    };
+
+    /**
+     * 对象池句柄，非池化对象为null
+     */
+    private final transient Recycler.Handle<RpcRequest> handle;
+
+    public RpcRequest() {
+        this(null);
+    }
+
+    private RpcRequest(Recycler.Handle<RpcRequest> handle) {
+        this.handle = handle;
+    }
+
+    /**
+     * 开启对象池时从对象池中获取，否则直接创建
+     */
+    public static RpcRequest newInstance() {
+        return RpcObjectPool.isEnabled() ? RECYCLER.get() : new RpcRequest();
+    }
+
+    @Override
+    public void recycle() {
+        if (handle == null) {
+            return;
+        }
+        className = null;
+        methodName = null;
+        parameterTypes = null;
+        parameters = null;
+        version = null;
+        group = null;
+        methodId = 0;
+        methodKey = null;
+        setOneway(false);
+        setAsync(false);
+        handle.recycle(this);
+    }
 
     public String getClassName() {
         return className;
@@ -85,4 +141,20 @@ public class RpcRequest extends RpcMessage {
     public void setGroup(String group) {
         this.group = group;
     }
+
+    public int getMethodId() {
+        return methodId;
+    }
+
+    public void setMethodId(int methodId) {
+        this.methodId = methodId;
+    }
+
+    public RpcMethodKey getMethodKey() {
+        return methodKey;
+    }
+
+    public void setMethodKey(RpcMethodKey methodKey) {
+        this.methodKey = methodKey;
+    }
 }
@@ -1,6 +1,8 @@
 package com.lizhe.bhrpcprotocol.response;
 
 import com.lizhe.bhrpcprotocol.base.RpcMessage;
+import com.lizhe.bhrpcprotocol.base.RpcObjectPool;
+import io.netty.util.Recycler;
 
 /**
  * RpcResponse
@@ -22,6 +24,45 @@ public class RpcResponse extends RpcMessage {
      */
     private Object result;
 
+    private static final Recycler<RpcResponse> RECYCLER = new Recycler<RpcResponse>() {
+        @Override
+        protected RpcResponse newObject(Handle<RpcResponse> handle) {
+            return new RpcResponse(handle);
+        }
+    };
+
+    /**
+     * 对象池句柄，非池化对象为null
+     */
+    private final transient Recycler.Handle<RpcResponse> handle;
+
+    public RpcResponse() {
+        this(null);
+    }
+
+    private RpcResponse(Recycler.Handle<RpcResponse> handle) {
+        this.handle = handle;
+    }
+
+    /**
+     * 开启对象池时从对象池中获取，否则直接创建
+     */
+    public static RpcResponse newInstance() {
+        return RpcObjectPool.isEnabled() ? RECYCLER.get() : new RpcResponse();
+    }
+
+    @Override
+    public void recycle() {
+        if (handle == null) {
+            return;
+        }
+        error = null;
+        result = null;
+        setOneway(false);
+        setAsync(false);
+        handle.recycle(this);
+    }
+
     public boolean isError() {
         return error != null;
     }
@@ -0,0 +1,64 @@
+package com.lizhe.bhrpcprovidercommon.handler;
+
+import com.lizhe.bhrpcconstants.RpcConstants;
+import com.lizhe.bhrpcprovidercommon.invoker.RpcMethodInvoker;
+
+/**
+ * RpcMethodTable
+ * {@code @description} 连接级别的方法编号表，每个连接对应一个实例
+ * 服务消费者分配的方法编号作为数组下标，按编号直接取出方法调用器
+ * 登记只在每个方法首次调用时发生，采用写时复制，查找不加锁
+ *
+ * @author lizhe@joysuch.com
+ * {@code @date} 2025/3/14 上午10:22
+ * @version 1.0
+ */
+public class RpcMethodTable {
+
+    private volatile RpcMethodInvoker[] invokers = new RpcMethodInvoker[16];
+
+    /**
+     * 查找方法编号对应的方法调用器
+     *
+     * @param methodId 方法编号
+     * @return 方法调用器，未登记时返回null
+     */
+    public RpcMethodInvoker get(int methodId) {
+        RpcMethodInvoker[] current = invokers;
+        return methodId > 0 && methodId < current.length ? current[methodId] : null;
+    }
+
+    /**
+     * 登记方法编号对应的方法调用器
+     * 同一个方法编号已经登记为同一个方法调用器时直接返回，不加锁也不复制数组；
+     * 已经登记为其他方法调用器时不覆盖，该方法不再使用方法编号，服务消费者继续发送完整请求
+     *
+     * @param methodId 方法编号
+     * @param invoker  方法调用器
+     * @return 是否登记成功，方法编号超出范围或已被其他方法占用时返回false
+     */
+    public boolean bind(int methodId, RpcMethodInvoker invoker) {
+        if (methodId <= 0 || methodId > RpcConstants.MAX_METHOD_ID) {
+            return false;
+        }
+        RpcMethodInvoker bound = get(methodId);
+        if (bound != null) {
+            return bound == invoker;
+        }
+        synchronized (this) {
+            RpcMethodInvoker[] current = invokers;
+            if (methodId < current.length && current[methodId] != null) {
+                return current[methodId] == invoker;
+            }
+            int length = current.length;
+            while (length <= methodId) {
+                length <<= 1;
+            }
+            RpcMethodInvoker[] updated = new RpcMethodInvoker[length];
+            System.arraycopy(current, 0, updated, 0, current.length);
+            updated[methodId] = invoker;
+            invokers = updated;
+            return true;
+        }
+    }
+}
@@ -0,0 +1,35 @@
+package com.lizhe.bhrpcprovidercommon.invoker;
+
+import net.sf.cglib.reflect.FastClass;
+
+/**
+ * CglibMethodInvoker
+ * {@code @description} 使用Cglib的FastClass按方法下标调用服务方法，同一个服务类的FastClass只在服务启动时创建一次
+ * 方法下标按包含返回值类型的方法签名查找，协变返回类型产生的桥接方法与实际方法的名称和参数类型相同，只按名称和参数类型查找无法区分
+ *
+ * @author lizhe@joysuch.com
+ * {@code @date} 2025/3/26 上午9:40
+ * @version 1.0
+ */
+public class CglibMethodInvoker implements RpcMethodInvoker {
+
+    private final Object serviceBean;
+
+    private final FastClass fastClass;
+
+    private final int methodIndex;
+
+    public CglibMethodInvoker(Object serviceBean, FastClass fastClass, int methodIndex) {
+        if (methodIndex < 0) {
+            throw new IllegalArgumentException("method not found in " + fastClass.getJavaClass().getName());
+        }
+        this.serviceBean = serviceBean;
+        this.fastClass = fastClass;
+        this.methodIndex = methodIndex;
+    }
+
+    @Override
+    public Object invoke(Object[] parameters) throws Throwable {
+        return fastClass.invoke(methodIndex, serviceBean, parameters);
+    }
+}
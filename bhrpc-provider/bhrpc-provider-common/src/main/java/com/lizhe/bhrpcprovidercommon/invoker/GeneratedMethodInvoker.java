@@ -0,0 +1,31 @@
+package com.lizhe.bhrpcprovidercommon.invoker;
+
+import com.lizhe.bhrpcannotation.stub.RpcServiceSkeleton;
+
+/**
+ * GeneratedMethodInvoker
+ * {@code @description} 使用编译期生成的服务端骨架调用服务方法，方法下标在创建时确定，骨架按下标用switch直接调用服务方法
+ *
+ * @author lizhe@joysuch.com
+ * {@code @date} 2025/3/26 上午9:40
+ * @version 1.0
+ */
+public class GeneratedMethodInvoker implements RpcMethodInvoker {
+
+    private final Object serviceBean;
+
+    private final RpcServiceSkeleton skeleton;
+
+    private final int methodIndex;
+
+    public GeneratedMethodInvoker(Object serviceBean, RpcServiceSkeleton skeleton, int methodIndex) {
+        this.serviceBean = serviceBean;
+        this.skeleton = skeleton;
+        this.methodIndex = methodIndex;
+    }
+
+    @Override
+    public Object invoke(Object[] parameters) throws Throwable {
+        return skeleton.invoke(serviceBean, methodIndex, parameters);
+    }
+}
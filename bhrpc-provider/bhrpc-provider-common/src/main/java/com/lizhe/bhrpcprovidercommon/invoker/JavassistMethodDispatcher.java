@@ -0,0 +1,164 @@
+package com.lizhe.bhrpcprovidercommon.invoker;
+
+import javassist.ClassClassPath;
+import javassist.ClassPool;
+import javassist.CtClass;
+import javassist.CtNewConstructor;
+import javassist.CtNewMethod;
+import javassist.LoaderClassPath;
+
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * JavassistMethodDispatcher
+ * {@code @description} 使用javassist为服务类生成方法分发器，每个服务类在服务启动时生成一次
+ * 1. 服务类的每个公有方法分配一个方法编号，分发方法用switch按编号直接调用服务方法，参数强制转换为方法的参数类型，基本类型直接拆箱
+ * 2. 基本类型的返回值由javassist的($w)装箱，void方法返回null，服务方法抛出的异常直接抛出
+ * 3. 生成的类通过独立的类加载器定义，服务类不是公有类时通过公有的服务接口调用，都无法访问的方法不分配编号
+ *
+ * @author lizhe@joysuch.com
+ * {@code @date} 2025/3/27 上午10:20
+ * @version 1.0
+ */
+public final class JavassistMethodDispatcher {
+
+    private static final AtomicInteger DISPATCHER_COUNTER = new AtomicInteger();
+
+    private final RpcMethodDispatcher dispatcher;
+
+    /**
+     * 服务类的方法与方法编号的映射关系
+     */
+    private final Map<Method, Integer> methodIds;
+
+    private JavassistMethodDispatcher(RpcMethodDispatcher dispatcher, Map<Method, Integer> methodIds) {
+        this.dispatcher = dispatcher;
+        this.methodIds = methodIds;
+    }
+
+    /**
+     * 为服务类生成方法分发器
+     *
+     * @param serviceClass 服务类
+     * @return 方法分发器
+     */
+    public static JavassistMethodDispatcher create(Class<?> serviceClass) {
+        List<Method> targets = new ArrayList<>();
+        Map<Method, Integer> methodIds = new HashMap<>();
+        for (Method method : serviceClass.getMethods()) {
+            if (method.getDeclaringClass() == Object.class) {
+                continue;
+            }
+            Method target = MethodAccess.publicMethod(serviceClass, method);
+            if (target != null) {
+                methodIds.put(method, targets.size());
+                targets.add(target);
+            }
+        }
+        try {
+            ClassPool pool = new ClassPool(true);
+            pool.appendClassPath(new LoaderClassPath(serviceClass.getClassLoader()));
+            pool.appendClassPath(new ClassClassPath(RpcMethodDispatcher.class));
+            String dispatcherClassName = serviceClass.getName() + "$BhrpcJavassistDispatcher" + DISPATCHER_COUNTER.incrementAndGet();
+            CtClass dispatcherClass = pool.makeClass(dispatcherClassName);
+            dispatcherClass.addInterface(pool.get(RpcMethodDispatcher.class.getName()));
+            dispatcherClass.addConstructor(CtNewConstructor.defaultConstructor(dispatcherClass));
+            dispatcherClass.addMethod(CtNewMethod.make(dispatchSource(targets), dispatcherClass));
+            byte[] bytecode = dispatcherClass.toBytecode();
+            dispatcherClass.detach();
+            Class<?> clazz = new DispatcherClassLoader(serviceClass.getClassLoader()).define(dispatcherClassName, bytecode);
+            return new JavassistMethodDispatcher((RpcMethodDispatcher) clazz.newInstance(), methodIds);
+        } catch (Exception e) {
+            throw new IllegalStateException("create javassist dispatcher for " + serviceClass.getName() + " failed", e);
+        }
+    }
+
+    /**
+     * 创建服务方法的调用器
+     *
+     * @param serviceBean 服务实例
+     * @param method      服务类的方法
+     * @return 方法调用器，方法没有分配编号时返回null
+     */
+    public RpcMethodInvoker invoker(Object serviceBean, Method method) {
+        Integer methodId = methodIds.get(method);
+        return methodId == null ? null : new JavassistMethodInvoker(serviceBean, dispatcher, methodId);
+    }
+
+    /**
+     * 生成分发方法的源码，$1为服务实例，$2为方法编号，$3为参数数组
+     */
+    private static String dispatchSource(List<Method> targets) {
+        StringBuilder source = new StringBuilder();
+        source.append("public Object dispatch(Object serviceBean, int methodId, Object[] parameters) throws Throwable {\n");
+        source.append("    switch ($2) {\n");
+        for (int i = 0; i < targets.size(); i++) {
+            Method method = targets.get(i);
+            StringBuilder call = new StringBuilder();
+            call.append("((").append(sourceName(method.getDeclaringClass())).append(") $1).").append(method.getName()).append('(');
+            Class<?>[] parameterTypes = method.getParameterTypes();
+            for (int j = 0; j < parameterTypes.length; j++) {
+                call.append(j == 0 ? "" : ", ").append(argument(parameterTypes[j], j));
+            }
+            call.append(')');
+            source.append("        case ").append(i).append(":\n");
+            if (method.getReturnType() == void.class) {
+                source.append("            ").append(call).append(";\n");
+                source.append("            return null;\n");
+            } else {
+                source.append("            return ($w) ").append(call).append(";\n");
+            }
+        }
+        source.append("        default:\n");
+        source.append("            throw new IllegalArgumentException(\"unknown method id \" + $2);\n");
+        source.append("    }\n");
+        source.append("}");
+        return source.toString();
+    }
+
+    /**
+     * 第index个参数的源码，引用类型强制转换，基本类型从包装类型拆箱
+     */
+    private static String argument(Class<?> type, int index) {
+        String parameter = "$3[" + index + "]";
+        if (!type.isPrimitive()) {
+            return "(" + sourceName(type) + ") " + parameter;
+        }
+        String wrapper;
+        if (type == int.class) {
+            wrapper = "Integer";
+        } else if (type == char.class) {
+            wrapper = "Character";
+        } else {
+            String name = type.getName();
+            wrapper = Character.toUpperCase(name.charAt(0)) + name.substring(1);
+        }
+        return "((java.lang." + wrapper + ") " + parameter + ")." + type.getName() + "Value()";
+    }
+
+    /**
+     * 类型在javassist源码中的名称，数组使用[]形式，嵌套类使用$分隔的二进制名称
+     */
+    private static String sourceName(Class<?> type) {
+        return type.isArray() ? sourceName(type.getComponentType()) + "[]" : type.getName();
+    }
+
+    /**
+     * 定义分发器类的类加载器，父加载器为服务类的类加载器
+     */
+    private static final class DispatcherClassLoader extends ClassLoader {
+
+        DispatcherClassLoader(ClassLoader parent) {
+            super(parent);
+        }
+
+        Class<?> define(String name, byte[] bytecode) {
+            return defineClass(name, bytecode, 0, bytecode.length);
+        }
+    }
+}
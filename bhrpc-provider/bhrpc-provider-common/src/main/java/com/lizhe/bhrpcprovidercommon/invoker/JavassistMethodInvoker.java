@@ -0,0 +1,29 @@
+package com.lizhe.bhrpcprovidercommon.invoker;
+
+/**
+ * JavassistMethodInvoker
+ * {@code @description} 使用javassist生成的方法分发器调用服务方法，方法编号在创建时确定
+ *
+ * @author lizhe@joysuch.com
+ * {@code @date} 2025/3/27 上午10:20
+ * @version 1.0
+ */
+public class JavassistMethodInvoker implements RpcMethodInvoker {
+
+    private final Object serviceBean;
+
+    private final RpcMethodDispatcher dispatcher;
+
+    private final int methodId;
+
+    public JavassistMethodInvoker(Object serviceBean, RpcMethodDispatcher dispatcher, int methodId) {
+        this.serviceBean = serviceBean;
+        this.dispatcher = dispatcher;
+        this.methodId = methodId;
+    }
+
+    @Override
+    public Object invoke(Object[] parameters) throws Throwable {
+        return dispatcher.dispatch(serviceBean, methodId, parameters);
+    }
+}
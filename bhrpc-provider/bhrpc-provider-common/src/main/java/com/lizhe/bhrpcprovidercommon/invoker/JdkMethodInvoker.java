@@ -0,0 +1,29 @@
+package com.lizhe.bhrpcprovidercommon.invoker;
+
+import java.lang.reflect.Method;
+
+/**
+ * JdkMethodInvoker
+ * {@code @description} 使用JDK反射调用服务方法，Method在创建时查找并设置为可访问，调用时不再查找
+ *
+ * @author lizhe@joysuch.com
+ * {@code @date} 2025/3/26 上午9:40
+ * @version 1.0
+ */
+public class JdkMethodInvoker implements RpcMethodInvoker {
+
+    private final Object serviceBean;
+
+    private final Method method;
+
+    public JdkMethodInvoker(Object serviceBean, Method method) {
+        method.setAccessible(true);
+        this.serviceBean = serviceBean;
+        this.method = method;
+    }
+
+    @Override
+    public Object invoke(Object[] parameters) throws Throwable {
+        return method.invoke(serviceBean, parameters);
+    }
+}
@@ -0,0 +1,169 @@
+package com.lizhe.bhrpcprovidercommon.invoker;
+
+import java.lang.invoke.CallSite;
+import java.lang.invoke.LambdaMetafactory;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Method;
+
+/**
+ * LambdaMethodInvoker
+ * {@code @description} 使用LambdaMetafactory为每个服务方法生成直接调用服务方法的实现类
+ * 1. 生成的实现类捕获服务实例，按参数个数实现对应的函数式接口，参数从Object强制转换，基本类型自动拆箱和装箱
+ * 2. 调用时按参数个数展开Object[]后调用函数式接口，调用链上都是普通的方法调用，JIT可以将服务方法内联
+ * 3. 服务类不是公有类时通过公有的服务接口调用，参数个数超过MAX_PARAMETER_COUNT等无法生成实现类时create抛出异常，由调用方改用其他调用方式
+ *
+ * @author lizhe@joysuch.com
+ * {@code @date} 2025/3/26 下午2:15
+ * @version 1.0
+ */
+public final class LambdaMethodInvoker {
+
+    /**
+     * 支持的最大参数个数
+     */
+    public static final int MAX_PARAMETER_COUNT = 5;
+
+    private static final Class<?>[] CALL_TYPES = {Call0.class, Call1.class, Call2.class, Call3.class, Call4.class, Call5.class};
+
+    private static final Class<?>[] VOID_CALL_TYPES = {VoidCall0.class, VoidCall1.class, VoidCall2.class, VoidCall3.class, VoidCall4.class, VoidCall5.class};
+
+    private LambdaMethodInvoker() {
+    }
+
+    /**
+     * 为服务方法生成调用器
+     *
+     * @param serviceBean 服务实例
+     * @param method      服务方法
+     * @return 方法调用器
+     * @throws Throwable 无法为该方法生成实现类
+     */
+    public static RpcMethodInvoker create(Object serviceBean, Method method) throws Throwable {
+        int count = method.getParameterCount();
+        if (count > MAX_PARAMETER_COUNT) {
+            throw new IllegalArgumentException("too many parameters for lambda invoker, " + count);
+        }
+        // 服务类不是公有类时改用公有服务接口中声明的同一个方法，通过接口调用服务方法
+        Method publicMethod = MethodAccess.publicMethod(serviceBean.getClass(), method);
+        if (publicMethod != null) {
+            method = publicMethod;
+        }
+        boolean isVoid = method.getReturnType() == void.class;
+        MethodHandles.Lookup lookup = MethodHandles.lookup();
+        MethodHandle implMethod = lookup.unreflect(method);
+        // 函数式接口的方法签名全部为Object，实际签名使用方法的参数类型和返回值类型的包装类型
+        MethodType samMethodType = MethodType.genericMethodType(count);
+        MethodType instantiatedMethodType = MethodType.methodType(method.getReturnType(), method.getParameterTypes()).wrap();
+        if (isVoid) {
+            samMethodType = samMethodType.changeReturnType(void.class);
+            instantiatedMethodType = instantiatedMethodType.changeReturnType(void.class);
+        }
+        Class<?> callType = (isVoid ? VOID_CALL_TYPES : CALL_TYPES)[count];
+        CallSite callSite = LambdaMetafactory.metafactory(lookup, "call", MethodType.methodType(callType, method.getDeclaringClass()),
+                samMethodType, implMethod, instantiatedMethodType);
+        Object call = callSite.getTarget().invoke(serviceBean);
+        return isVoid ? voidInvoker(count, call) : invoker(count, call);
+    }
+
+    private static RpcMethodInvoker invoker(int count, Object call) {
+        switch (count) {
+            case 0:
+                return parameters -> ((Call0) call).call();
+            case 1:
+                return parameters -> ((Call1) call).call(parameters[0]);
+            case 2:
+                return parameters -> ((Call2) call).call(parameters[0], parameters[1]);
+            case 3:
+                return parameters -> ((Call3) call).call(parameters[0], parameters[1], parameters[2]);
+            case 4:
+                return parameters -> ((Call4) call).call(parameters[0], parameters[1], parameters[2], parameters[3]);
+            default:
+                return parameters -> ((Call5) call).call(parameters[0], parameters[1], parameters[2], parameters[3], parameters[4]);
+        }
+    }
+
+    private static RpcMethodInvoker voidInvoker(int count, Object call) {
+        switch (count) {
+            case 0:
+                return parameters -> {
+                    ((VoidCall0) call).call();
+                    return null;
+                };
+            case 1:
+                return parameters -> {
+                    ((VoidCall1) call).call(parameters[0]);
+                    return null;
+                };
+            case 2:
+                return parameters -> {
+                    ((VoidCall2) call).call(parameters[0], parameters[1]);
+                    return null;
+                };
+            case 3:
+                return parameters -> {
+                    ((VoidCall3) call).call(parameters[0], parameters[1], parameters[2]);
+                    return null;
+                };
+            case 4:
+                return parameters -> {
+                    ((VoidCall4) call).call(parameters[0], parameters[1], parameters[2], parameters[3]);
+                    return null;
+                };
+            default:
+                return parameters -> {
+                    ((VoidCall5) call).call(parameters[0], parameters[1], parameters[2], parameters[3], parameters[4]);
+                    return null;
+                };
+        }
+    }
+
+    interface Call0 {
+        Object call();
+    }
+
+    interface Call1 {
+        Object call(Object p0);
+    }
+
+    interface Call2 {
+        Object call(Object p0, Object p1);
+    }
+
+    interface Call3 {
+        Object call(Object p0, Object p1, Object p2);
+    }
+
+    interface Call4 {
+        Object call(Object p0, Object p1, Object p2, Object p3);
+    }
+
+    interface Call5 {
+        Object call(Object p0, Object p1, Object p2, Object p3, Object p4);
+    }
+
+    interface VoidCall0 {
+        void call();
+    }
+
+    interface VoidCall1 {
+        void call(Object p0);
+    }
+
+    interface VoidCall2 {
+        void call(Object p0, Object p1);
+    }
+
+    interface VoidCall3 {
+        void call(Object p0, Object p1, Object p2);
+    }
+
+    interface VoidCall4 {
+        void call(Object p0, Object p1, Object p2, Object p3);
+    }
+
+    interface VoidCall5 {
+        void call(Object p0, Object p1, Object p2, Object p3, Object p4);
+    }
+}
@@ -0,0 +1,43 @@
+package com.lizhe.bhrpcprovidercommon.invoker;
+
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+
+/**
+ * MethodAccess
+ * {@code @description} 查找可以在服务类所在包之外直接调用的方法声明
+ * 生成的调用代码不在服务类所在的包中，服务类不是公有类时只能通过公有的服务接口调用服务方法
+ *
+ * @author lizhe@joysuch.com
+ * {@code @date} 2025/3/27 上午10:20
+ * @version 1.0
+ */
+final class MethodAccess {
+
+    private MethodAccess() {
+    }
+
+    /**
+     * @param serviceClass 服务类
+     * @param method       服务类的公有方法
+     * @return 声明在公有类或公有服务接口中的同一个方法，找不到时返回null
+     */
+    static Method publicMethod(Class<?> serviceClass, Method method) {
+        if (Modifier.isPublic(method.getDeclaringClass().getModifiers())) {
+            return method;
+        }
+        for (Class<?> clazz = serviceClass; clazz != null; clazz = clazz.getSuperclass()) {
+            for (Class<?> serviceInterface : clazz.getInterfaces()) {
+                if (!Modifier.isPublic(serviceInterface.getModifiers())) {
+                    continue;
+                }
+                try {
+                    return serviceInterface.getMethod(method.getName(), method.getParameterTypes());
+                } catch (NoSuchMethodException e) {
+                    // 该接口中没有此方法
+                }
+            }
+        }
+        return null;
+    }
+}
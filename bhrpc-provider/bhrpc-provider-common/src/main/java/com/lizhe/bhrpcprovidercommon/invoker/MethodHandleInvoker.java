@@ -0,0 +1,40 @@
+package com.lizhe.bhrpcprovidercommon.invoker;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Method;
+
+/**
+ * MethodHandleInvoker
+ * {@code @description} 使用MethodHandle调用服务方法
+ * 创建时绑定服务实例，并适配为(Object[])Object的统一签名，参数按数组展开并按方法的参数类型转换，基本类型的返回值自动装箱，void方法返回null
+ * 调用使用invokeExact，不经过Method.invoke的访问检查和参数复制，服务方法抛出的异常直接抛出，不包装为InvocationTargetException
+ *
+ * @author lizhe@joysuch.com
+ * {@code @date} 2025/3/26 下午2:15
+ * @version 1.0
+ */
+public class MethodHandleInvoker implements RpcMethodInvoker {
+
+    private static final MethodType INVOKER_TYPE = MethodType.methodType(Object.class, Object[].class);
+
+    private static final Object[] NO_PARAMETERS = new Object[0];
+
+    private final MethodHandle methodHandle;
+
+    public MethodHandleInvoker(Object serviceBean, Method method) throws IllegalAccessException {
+        method.setAccessible(true);
+        // 可变参数方法按固定参数个数处理，可变参数部分作为一个数组参数传入
+        this.methodHandle = MethodHandles.lookup().unreflect(method)
+                .asFixedArity()
+                .bindTo(serviceBean)
+                .asSpreader(Object[].class, method.getParameterCount())
+                .asType(INVOKER_TYPE);
+    }
+
+    @Override
+    public Object invoke(Object[] parameters) throws Throwable {
+        return (Object) methodHandle.invokeExact(parameters == null ? NO_PARAMETERS : parameters);
+    }
+}
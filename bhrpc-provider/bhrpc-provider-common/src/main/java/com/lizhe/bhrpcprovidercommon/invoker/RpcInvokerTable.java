@@ -0,0 +1,211 @@
+package com.lizhe.bhrpcprovidercommon.invoker;
+
+import com.lizhe.bhrpcannotation.stub.RpcServiceSkeleton;
+import com.lizhe.bhrpcconstants.RpcConstants;
+import net.sf.cglib.core.ReflectUtils;
+import net.sf.cglib.reflect.FastClass;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+
+/**
+ * RpcInvokerTable
+ * {@code @description} 服务方法调用器表，服务启动时按反射类型为handlerMap中每个服务的每个公有方法创建调用器
+ * 1. 按服务名称#版本号#分组、方法名称和参数类型查找调用器，同名方法按参数类型逐个比较，查找过程不创建对象
+ * 2. 创建后不再修改，所有连接共享同一个实例，查找不加锁
+ * 3. 方法查找、setAccessible、FastClass的创建和分发器的生成都只在服务启动时执行一次
+ *
+ * @author lizhe@joysuch.com
+ * {@code @date} 2025/3/26 上午9:40
+ * @version 1.0
+ */
+public final class RpcInvokerTable {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(RpcInvokerTable.class);
+
+    private static final Class<?>[] NO_PARAMETER_TYPES = new Class<?>[0];
+
+    /**
+     * 服务名称#版本号#分组 -> 方法名称 -> 同名方法的调用器
+     */
+    private final Map<String, Map<String, Entry[]>> services;
+
+    private RpcInvokerTable(Map<String, Map<String, Entry[]>> services) {
+        this.services = services;
+    }
+
+    /**
+     * 创建调用器表
+     *
+     * @param reflectType 反射类型
+     * @param handlerMap  服务名称#版本号#分组与服务实例的映射关系
+     * @return 调用器表
+     * @throws IllegalArgumentException 反射类型不受支持
+     */
+    public static RpcInvokerTable create(String reflectType, Map<String, Object> handlerMap) {
+        Map<String, Map<String, Entry[]>> services = new HashMap<>();
+        int count = 0;
+        for (Map.Entry<String, Object> service : handlerMap.entrySet()) {
+            Map<String, Entry[]> methods = createMethods(service.getValue(), invokerFactory(reflectType, service.getValue()));
+            for (Entry[] entries : methods.values()) {
+                count += entries.length;
+            }
+            services.put(service.getKey(), methods);
+        }
+        LOGGER.info("Create {} method invokers for {} services with reflect type {}", count, services.size(), reflectType);
+        return new RpcInvokerTable(Collections.unmodifiableMap(services));
+    }
+
+    /**
+     * 查找方法调用器
+     *
+     * @param serviceKey     服务名称#版本号#分组
+     * @param methodName     方法名称
+     * @param parameterTypes 方法参数类型，null按无参数处理
+     * @return 方法调用器，服务或方法不存在时返回null
+     */
+    public RpcMethodInvoker get(String serviceKey, String methodName, Class<?>[] parameterTypes) {
+        Map<String, Entry[]> methods = services.get(serviceKey);
+        if (methods == null) {
+            return null;
+        }
+        Entry[] entries = methods.get(methodName);
+        if (entries == null) {
+            return null;
+        }
+        Class<?>[] types = parameterTypes == null ? NO_PARAMETER_TYPES : parameterTypes;
+        for (Entry entry : entries) {
+            if (Arrays.equals(entry.parameterTypes, types)) {
+                return entry.invoker;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * @param serviceKey 服务名称#版本号#分组
+     * @return 服务是否存在
+     */
+    public boolean containsService(String serviceKey) {
+        return services.containsKey(serviceKey);
+    }
+
+    /**
+     * 按反射类型返回为服务实例的方法创建调用器的函数，函数返回null表示该方法不能调用
+     */
+    private static Function<Method, RpcMethodInvoker> invokerFactory(String reflectType, Object serviceBean) {
+        switch (reflectType) {
+            case RpcConstants.REFLECT_TYPE_JDK:
+                return method -> new JdkMethodInvoker(serviceBean, method);
+            case RpcConstants.REFLECT_TYPE_CGLIB: {
+                FastClass fastClass = FastClass.create(serviceBean.getClass());
+                return method -> new CglibMethodInvoker(serviceBean, fastClass, fastClass.getIndex(ReflectUtils.getSignature(method)));
+            }
+            case RpcConstants.REFLECT_TYPE_GENERATED: {
+                // 只有生成了骨架的服务接口中的方法可以调用
+                RpcServiceSkeleton[] skeletons = RpcSkeletonRegistry.get(serviceBean.getClass());
+                return method -> {
+                    for (RpcServiceSkeleton skeleton : skeletons) {
+                        int methodIndex = skeleton.getMethodIndex(method.getName(), method.getParameterTypes());
+                        if (methodIndex >= 0) {
+                            return new GeneratedMethodInvoker(serviceBean, skeleton, methodIndex);
+                        }
+                    }
+                    return null;
+                };
+            }
+            case RpcConstants.REFLECT_TYPE_METHOD_HANDLE:
+                return method -> methodHandleInvoker(serviceBean, method);
+            case RpcConstants.REFLECT_TYPE_LAMBDA:
+                return method -> {
+                    try {
+                        return LambdaMethodInvoker.create(serviceBean, method);
+                    } catch (Throwable t) {
+                        LOGGER.warn("Create lambda invoker for {} failed, use method handle instead: {}", method, t.toString());
+                        return methodHandleInvoker(serviceBean, method);
+                    }
+                };
+            case RpcConstants.REFLECT_TYPE_JAVASSIST: {
+                JavassistMethodDispatcher dispatcher = JavassistMethodDispatcher.create(serviceBean.getClass());
+                // 分发器无法直接访问的方法使用JDK反射调用
+                return method -> {
+                    RpcMethodInvoker invoker = dispatcher.invoker(serviceBean, method);
+                    return invoker != null ? invoker : new JdkMethodInvoker(serviceBean, method);
+                };
+            }
+            default:
+                throw new IllegalArgumentException("not support reflect type " + reflectType);
+        }
+    }
+
+    private static RpcMethodInvoker methodHandleInvoker(Object serviceBean, Method method) {
+        try {
+            return new MethodHandleInvoker(serviceBean, method);
+        } catch (IllegalAccessException e) {
+            throw new IllegalStateException("create method handle for " + method + " failed", e);
+        }
+    }
+
+    /**
+     * 为服务类的公有方法创建调用器，不包括Object中声明的方法
+     * 协变返回类型产生的桥接方法与实际方法签名相同，只保留实际方法
+     */
+    private static Map<String, Entry[]> createMethods(Object serviceBean, Function<Method, RpcMethodInvoker> factory) {
+        Map<String, List<Entry>> methods = new LinkedHashMap<>();
+        for (Method method : serviceBean.getClass().getMethods()) {
+            if (method.getDeclaringClass() == Object.class) {
+                continue;
+            }
+            List<Entry> entries = methods.computeIfAbsent(method.getName(), name -> new ArrayList<>());
+            Entry existing = null;
+            for (Entry entry : entries) {
+                if (Arrays.equals(entry.parameterTypes, method.getParameterTypes())) {
+                    existing = entry;
+                    break;
+                }
+            }
+            if (existing != null && (method.isBridge() || !existing.bridge)) {
+                continue;
+            }
+            RpcMethodInvoker invoker = factory.apply(method);
+            if (invoker == null) {
+                continue;
+            }
+            if (existing != null) {
+                entries.remove(existing);
+            }
+            entries.add(new Entry(method.getParameterTypes(), invoker, method.isBridge()));
+        }
+        Map<String, Entry[]> result = new HashMap<>();
+        for (Map.Entry<String, List<Entry>> method : methods.entrySet()) {
+            if (!method.getValue().isEmpty()) {
+                result.put(method.getKey(), method.getValue().toArray(new Entry[0]));
+            }
+        }
+        return Collections.unmodifiableMap(result);
+    }
+
+    private static final class Entry {
+
+        private final Class<?>[] parameterTypes;
+
+        private final RpcMethodInvoker invoker;
+
+        private final boolean bridge;
+
+        Entry(Class<?>[] parameterTypes, RpcMethodInvoker invoker, boolean bridge) {
+            this.parameterTypes = parameterTypes;
+            this.invoker = invoker;
+            this.bridge = bridge;
+        }
+    }
+}
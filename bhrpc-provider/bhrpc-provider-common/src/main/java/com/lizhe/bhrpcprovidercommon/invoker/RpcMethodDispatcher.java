@@ -0,0 +1,23 @@
+package com.lizhe.bhrpcprovidercommon.invoker;
+
+/**
+ * RpcMethodDispatcher
+ * {@code @description} 服务类的方法分发器，由JavassistMethodDispatcher在服务启动时为每个服务类生成实现类
+ *
+ * @author lizhe@joysuch.com
+ * {@code @date} 2025/3/27 上午10:20
+ * @version 1.0
+ */
+public interface RpcMethodDispatcher {
+
+    /**
+     * 按方法编号调用服务方法
+     *
+     * @param serviceBean 服务实例
+     * @param methodId    生成分发器时分配的方法编号
+     * @param parameters  方法参数
+     * @return 方法调用结果，基本类型自动装箱，void方法返回null
+     * @throws Throwable 服务方法抛出的异常
+     */
+    Object dispatch(Object serviceBean, int methodId, Object[] parameters) throws Throwable;
+}
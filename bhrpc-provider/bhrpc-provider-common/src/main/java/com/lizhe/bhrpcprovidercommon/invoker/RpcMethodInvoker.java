@@ -0,0 +1,21 @@
+package com.lizhe.bhrpcprovidercommon.invoker;
+
+/**
+ * RpcMethodInvoker
+ * {@code @description} 服务方法调用器，绑定服务实例和方法，在服务启动时按反射类型创建，之后每次请求直接调用
+ *
+ * @author lizhe@joysuch.com
+ * {@code @date} 2025/3/26 上午9:40
+ * @version 1.0
+ */
+public interface RpcMethodInvoker {
+
+    /**
+     * 调用服务方法
+     *
+     * @param parameters 方法参数
+     * @return 方法调用结果，void方法返回null
+     * @throws Throwable 方法调用过程中抛出的异常
+     */
+    Object invoke(Object[] parameters) throws Throwable;
+}
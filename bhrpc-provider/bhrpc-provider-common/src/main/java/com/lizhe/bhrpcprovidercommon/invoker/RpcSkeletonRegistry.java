@@ -0,0 +1,58 @@
+package com.lizhe.bhrpcprovidercommon.invoker;
+
+import com.lizhe.bhrpcannotation.stub.RpcServiceSkeleton;
+import com.lizhe.bhrpcannotation.stub.RpcStubNames;
+
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * RpcSkeletonRegistry
+ * {@code @description} 按服务实现类查找RpcStubProcessor在编译期生成的服务端骨架
+ * 实现类及其父类实现的每个接口按RpcStubNames的命名规则加载骨架，结果缓存在ClassValue中，每个实现类只加载一次
+ *
+ * @author lizhe@joysuch.com
+ * {@code @date} 2025/3/25 下午2:40
+ * @version 1.0
+ */
+public final class RpcSkeletonRegistry {
+
+    private static final RpcServiceSkeleton[] EMPTY = new RpcServiceSkeleton[0];
+
+    private static final ClassValue<RpcServiceSkeleton[]> SKELETONS = new ClassValue<RpcServiceSkeleton[]>() {
+        @Override
+        protected RpcServiceSkeleton[] computeValue(Class<?> serviceClass) {
+            Set<Class<?>> interfaces = new LinkedHashSet<>();
+            for (Class<?> clazz = serviceClass; clazz != null; clazz = clazz.getSuperclass()) {
+                for (Class<?> serviceInterface : clazz.getInterfaces()) {
+                    interfaces.add(serviceInterface);
+                }
+            }
+            List<RpcServiceSkeleton> skeletons = new ArrayList<>();
+            for (Class<?> serviceInterface : interfaces) {
+                try {
+                    Class<?> skeletonClass = Class.forName(RpcStubNames.skeletonClassName(serviceInterface.getName()), true, serviceInterface.getClassLoader());
+                    skeletons.add((RpcServiceSkeleton) skeletonClass.newInstance());
+                } catch (ClassNotFoundException e) {
+                    // 该接口没有生成骨架
+                } catch (ReflectiveOperationException e) {
+                    throw new IllegalStateException("create skeleton for " + serviceInterface.getName() + " failed", e);
+                }
+            }
+            return skeletons.isEmpty() ? EMPTY : skeletons.toArray(EMPTY);
+        }
+    };
+
+    private RpcSkeletonRegistry() {
+    }
+
+    /**
+     * @param serviceClass 服务实现类
+     * @return 实现类的服务接口对应的骨架，没有生成骨架时返回空数组
+     */
+    public static RpcServiceSkeleton[] get(Class<?> serviceClass) {
+        return SKELETONS.get(serviceClass);
+    }
+}
@@ -15,9 +15,11 @@ package com.lizhe.bhrpcprovidercommon.server.base;
  * limitations under the License.
  */
 
+import com.lizhe.bhrpccodec.RpcChunkedWriteHandler;
 import com.lizhe.bhrpccodec.RpcDecoder;
 import com.lizhe.bhrpccodec.RpcEncoder;
 import com.lizhe.bhrpcprovidercommon.handler.RpcProviderHandler;
+import com.lizhe.bhrpcprovidercommon.invoker.RpcInvokerTable;
 import com.lizhe.bhrpcprovidercommon.server.api.Server;
 import io.netty.bootstrap.ServerBootstrap;
 import io.netty.channel.ChannelFuture;
@@ -59,8 +61,8 @@ public class BaseServer implements Server {
             String[] serverArray = serverAddress.split(":");
             this.host = serverArray[0];
             this.port = Integer.parseInt(serverArray[1]);
-            this.reflectType = reflectType;
         }
+        this.reflectType = reflectType;
     }
 
     /**
@@ -70,6 +72,8 @@ public class BaseServer implements Server {
      */
     @Override
     public void startNettyServer() {
+        // 服务启动时一次性创建所有服务方法的调用器，所有连接共享
+        RpcInvokerTable invokerTable = RpcInvokerTable.create(reflectType, handlerMap);
         // 创建线程组 负责接收客户端连接请求
         EventLoopGroup bossGroup = new NioEventLoopGroup();
         // 负责处理连接后的IO操作
@@ -87,10 +91,12 @@ public class BaseServer implements Server {
                             // 初始化通道的处理管道
                             channel.pipeline()
                                     .addLast(new RpcDecoder())
+                                    // 大消息拆分为分片写出，避免阻塞同一连接上的小报文
+                                    .addLast(new RpcChunkedWriteHandler())
                                     // 添加字符串编码器，将字符串转换为字节发送
                                     .addLast(new RpcEncoder())
                                     // 添加自定义的处理器处理接收到的消息
-                                    .addLast(new RpcProviderHandler(reflectType,handlerMap));
+                                    .addLast(new RpcProviderHandler(invokerTable));
                         }
                     })
                     .option(ChannelOption.SO_BACKLOG, 128)
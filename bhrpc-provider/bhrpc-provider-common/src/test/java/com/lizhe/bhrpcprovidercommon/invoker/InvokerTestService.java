@@ -0,0 +1,36 @@
+package com.lizhe.bhrpcprovidercommon.invoker;
+
+import java.io.IOException;
+
+/**
+ * InvokerTestService
+ * {@code @description} 方法调用器测试使用的服务接口，覆盖基本类型、重载、可变参数、协变返回类型和超过LambdaMethodInvoker最大参数个数的方法
+ *
+ * @author lizhe@joysuch.com
+ * {@code @date} 2025/3/28 下午3:20
+ * @version 1.0
+ */
+public interface InvokerTestService {
+
+    String hello();
+
+    String hello(String name);
+
+    String hello(String name, int times);
+
+    int add(int a, int b);
+
+    long primitives(boolean z, byte b, short s, char c, long l);
+
+    double widen(long l, float f, double d, int i, short s, byte b);
+
+    int[] reverse(int[] values);
+
+    String format(String pattern, Object... args);
+
+    Number number();
+
+    void record(String value);
+
+    String fail(String message) throws IOException;
+}
@@ -0,0 +1,86 @@
+package com.lizhe.bhrpcprovidercommon.invoker;
+
+import com.lizhe.bhrpcannotation.RpcService;
+
+import java.io.IOException;
+
+/**
+ * InvokerTestServiceImpl
+ * {@code @description} 方法调用器测试使用的服务实现类，number方法使用协变返回类型，编译时生成桥接方法
+ *
+ * @author lizhe@joysuch.com
+ * {@code @date} 2025/3/28 下午3:20
+ * @version 1.0
+ */
+@RpcService(interfaceClass = InvokerTestService.class, version = "1.0.0", group = "invoker")
+public class InvokerTestServiceImpl implements InvokerTestService {
+
+    private volatile String recorded;
+
+    @Override
+    public String hello() {
+        return "hello";
+    }
+
+    @Override
+    public String hello(String name) {
+        return "hello " + name;
+    }
+
+    @Override
+    public String hello(String name, int times) {
+        StringBuilder builder = new StringBuilder();
+        for (int i = 0; i < times; i++) {
+            builder.append(hello(name));
+        }
+        return builder.toString();
+    }
+
+    @Override
+    public int add(int a, int b) {
+        return a + b;
+    }
+
+    @Override
+    public long primitives(boolean z, byte b, short s, char c, long l) {
+        return (z ? 1 : 0) + b + s + c + l;
+    }
+
+    @Override
+    public double widen(long l, float f, double d, int i, short s, byte b) {
+        return l + f + d + i + s + b;
+    }
+
+    @Override
+    public int[] reverse(int[] values) {
+        int[] reversed = new int[values.length];
+        for (int i = 0; i < values.length; i++) {
+            reversed[i] = values[values.length - 1 - i];
+        }
+        return reversed;
+    }
+
+    @Override
+    public String format(String pattern, Object... args) {
+        return String.format(pattern, args);
+    }
+
+    @Override
+    public Integer number() {
+        return 42;
+    }
+
+    @Override
+    public void record(String value) {
+        recorded = value;
+    }
+
+    @Override
+    public String fail(String message) throws IOException {
+        throw new IOException(message);
+    }
+
+    public String getRecorded() {
+        return recorded;
+    }
+}
@@ -0,0 +1,208 @@
+package com.lizhe.bhrpcprovidercommon.invoker;
+
+import org.junit.Test;
+
+import java.lang.reflect.Field;
+import java.lang.reflect.Method;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.fail;
+
+/**
+ * JavassistMethodDispatcherTest
+ * {@code @description} javassist生成的分发器测试，包括switch按方法编号分发、基本类型参数的拆箱和返回值的装箱、
+ * 数组和嵌套类的类型名称，以及服务类不是公有类时通过服务接口调用
+ *
+ * @author lizhe@joysuch.com
+ * {@code @date} 2025/3/28 下午4:10
+ * @version 1.0
+ */
+public class JavassistMethodDispatcherTest {
+
+    @Test
+    public void testPrimitiveUnboxingAndBoxing() throws Throwable {
+        PublicTypesService serviceBean = new PublicTypesService();
+        JavassistMethodDispatcher dispatcher = JavassistMethodDispatcher.create(PublicTypesService.class);
+        assertEquals(false, invoke(dispatcher, serviceBean, "not", boolean.class, true));
+        assertEquals((byte) -2, invoke(dispatcher, serviceBean, "negate", byte.class, (byte) 2));
+        assertEquals((short) -300, invoke(dispatcher, serviceBean, "negate", short.class, (short) 300));
+        assertEquals('b', invoke(dispatcher, serviceBean, "next", char.class, 'a'));
+        assertEquals(-7, invoke(dispatcher, serviceBean, "negate", int.class, 7));
+        assertEquals(-123456789012L, invoke(dispatcher, serviceBean, "negate", long.class, 123456789012L));
+        assertEquals(-1.5f, invoke(dispatcher, serviceBean, "negate", float.class, 1.5f));
+        assertEquals(-2.25d, invoke(dispatcher, serviceBean, "negate", double.class, 2.25d));
+    }
+
+    @Test
+    public void testArrayAndNestedTypes() throws Throwable {
+        PublicTypesService serviceBean = new PublicTypesService();
+        JavassistMethodDispatcher dispatcher = JavassistMethodDispatcher.create(PublicTypesService.class);
+        String[][] matrix = {{"a", "b"}, {"c"}};
+        assertArrayEquals(new String[][]{{"c"}, {"a", "b"}}, (String[][]) invoke(dispatcher, serviceBean, "reverse", String[][].class, (Object) matrix));
+        Holder holder = new Holder("bhrpc");
+        assertSame(holder, invoke(dispatcher, serviceBean, "echo", Holder.class, holder));
+    }
+
+    @Test
+    public void testVoidMethodReturnsNull() throws Throwable {
+        PublicTypesService serviceBean = new PublicTypesService();
+        JavassistMethodDispatcher dispatcher = JavassistMethodDispatcher.create(PublicTypesService.class);
+        RpcMethodInvoker invoker = dispatcher.invoker(serviceBean, PublicTypesService.class.getMethod("run"));
+        assertNull(invoker.invoke(new Object[0]));
+        assertEquals(1, serviceBean.runs);
+    }
+
+    @Test
+    public void testWrongParameterType() throws Throwable {
+        PublicTypesService serviceBean = new PublicTypesService();
+        JavassistMethodDispatcher dispatcher = JavassistMethodDispatcher.create(PublicTypesService.class);
+        RpcMethodInvoker invoker = dispatcher.invoker(serviceBean, PublicTypesService.class.getMethod("negate", int.class));
+        try {
+            invoker.invoke(new Object[]{7L});
+            fail("long parameter can not be cast to Integer");
+        } catch (ClassCastException e) {
+            // expected
+        }
+        try {
+            invoker.invoke(new Object[]{null});
+            fail("null can not be unboxed");
+        } catch (NullPointerException e) {
+            // expected
+        }
+    }
+
+    @Test
+    public void testUnknownMethodId() throws Throwable {
+        PublicTypesService serviceBean = new PublicTypesService();
+        JavassistMethodDispatcher dispatcher = JavassistMethodDispatcher.create(PublicTypesService.class);
+        try {
+            new JavassistMethodInvoker(serviceBean, getDispatcher(dispatcher), Integer.MAX_VALUE).invoke(new Object[0]);
+            fail("unknown method id should be rejected");
+        } catch (IllegalArgumentException e) {
+            assertEquals("unknown method id " + Integer.MAX_VALUE, e.getMessage());
+        }
+        assertNull(dispatcher.invoker(serviceBean, Object.class.getMethod("toString")));
+    }
+
+    @Test
+    public void testNonPublicServiceClass() throws Throwable {
+        HiddenService serviceBean = new HiddenService();
+        JavassistMethodDispatcher dispatcher = JavassistMethodDispatcher.create(HiddenService.class);
+        // 服务接口中的方法通过接口调用
+        RpcMethodInvoker invoker = dispatcher.invoker(serviceBean, HiddenService.class.getMethod("add", int.class, int.class));
+        assertNotNull(invoker);
+        assertEquals(42, invoker.invoke(new Object[]{17, 25}));
+        // 不在公有服务接口中的方法无法在服务类所在包之外调用，不分配编号
+        assertNull(dispatcher.invoker(serviceBean, HiddenService.class.getMethod("hidden")));
+    }
+
+    @Test
+    public void testDispatchersAreIndependent() throws Throwable {
+        JavassistMethodDispatcher first = JavassistMethodDispatcher.create(PublicTypesService.class);
+        JavassistMethodDispatcher second = JavassistMethodDispatcher.create(PublicTypesService.class);
+        assertNotSame(getDispatcher(first).getClass(), getDispatcher(second).getClass());
+        assertEquals(-1, invoke(second, new PublicTypesService(), "negate", int.class, 1));
+    }
+
+    private static Object invoke(JavassistMethodDispatcher dispatcher, Object serviceBean, String methodName,
+                                 Class<?> parameterType, Object parameter) throws Throwable {
+        Method method = serviceBean.getClass().getMethod(methodName, parameterType);
+        RpcMethodInvoker invoker = dispatcher.invoker(serviceBean, method);
+        assertNotNull(method.toString(), invoker);
+        return invoker.invoke(new Object[]{parameter});
+    }
+
+    private static RpcMethodDispatcher getDispatcher(JavassistMethodDispatcher dispatcher) throws Exception {
+        Field field = JavassistMethodDispatcher.class.getDeclaredField("dispatcher");
+        field.setAccessible(true);
+        return (RpcMethodDispatcher) field.get(dispatcher);
+    }
+
+    public static class Holder {
+
+        private final String value;
+
+        public Holder(String value) {
+            this.value = value;
+        }
+
+        public String getValue() {
+            return value;
+        }
+    }
+
+    public static class PublicTypesService {
+
+        private int runs;
+
+        public boolean not(boolean value) {
+            return !value;
+        }
+
+        public byte negate(byte value) {
+            return (byte) -value;
+        }
+
+        public short negate(short value) {
+            return (short) -value;
+        }
+
+        public char next(char value) {
+            return (char) (value + 1);
+        }
+
+        public int negate(int value) {
+            return -value;
+        }
+
+        public long negate(long value) {
+            return -value;
+        }
+
+        public float negate(float value) {
+            return -value;
+        }
+
+        public double negate(double value) {
+            return -value;
+        }
+
+        public String[][] reverse(String[][] matrix) {
+            String[][] reversed = new String[matrix.length][];
+            for (int i = 0; i < matrix.length; i++) {
+                reversed[i] = matrix[matrix.length - 1 - i];
+            }
+            return reversed;
+        }
+
+        public Holder echo(Holder holder) {
+            return holder;
+        }
+
+        public void run() {
+            runs++;
+        }
+    }
+
+    public interface Calculator {
+
+        int add(int a, int b);
+    }
+
+    static class HiddenService implements Calculator {
+
+        @Override
+        public int add(int a, int b) {
+            return a + b;
+        }
+
+        public String hidden() {
+            return "hidden";
+        }
+    }
+}
@@ -0,0 +1,168 @@
+package com.lizhe.bhrpcprovidercommon.invoker;
+
+import com.lizhe.bhrpcconstants.RpcConstants;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.Parameterized;
+
+import java.io.IOException;
+import java.lang.reflect.InvocationTargetException;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+/**
+ * RpcInvokerTableTest
+ * {@code @description} 按每种反射类型为同一个服务创建调用器表，调用结果应当一致
+ *
+ * @author lizhe@joysuch.com
+ * {@code @date} 2025/3/28 下午3:20
+ * @version 1.0
+ */
+@RunWith(Parameterized.class)
+public class RpcInvokerTableTest {
+
+    private static final String SERVICE_KEY = "invoker";
+
+    @Parameterized.Parameters(name = "{0}")
+    public static Collection<Object[]> reflectTypes() {
+        return Arrays.asList(new Object[][]{
+                {RpcConstants.REFLECT_TYPE_JDK},
+                {RpcConstants.REFLECT_TYPE_CGLIB},
+                {RpcConstants.REFLECT_TYPE_METHOD_HANDLE},
+                {RpcConstants.REFLECT_TYPE_LAMBDA},
+                {RpcConstants.REFLECT_TYPE_JAVASSIST},
+                {RpcConstants.REFLECT_TYPE_GENERATED}
+        });
+    }
+
+    private final String reflectType;
+
+    private InvokerTestServiceImpl serviceBean;
+
+    private RpcInvokerTable table;
+
+    public RpcInvokerTableTest(String reflectType) {
+        this.reflectType = reflectType;
+    }
+
+    @Before
+    public void setUp() {
+        serviceBean = new InvokerTestServiceImpl();
+        table = RpcInvokerTable.create(reflectType, Collections.singletonMap(SERVICE_KEY, serviceBean));
+    }
+
+    @Test
+    public void testOverloads() throws Throwable {
+        assertEquals("hello", invoke("hello", new Class<?>[0]));
+        assertEquals("hello", invoke("hello", null));
+        assertEquals("hello bhrpc", invoke("hello", new Class<?>[]{String.class}, "bhrpc"));
+        assertEquals("hello bhrpchello bhrpc", invoke("hello", new Class<?>[]{String.class, int.class}, "bhrpc", 2));
+        assertNull(table.get(SERVICE_KEY, "hello", new Class<?>[]{Object.class}));
+    }
+
+    @Test
+    public void testPrimitives() throws Throwable {
+        assertEquals(42, invoke("add", new Class<?>[]{int.class, int.class}, 17, 25));
+        assertEquals(1L + 2 + 3 + 'a' + 4L, invoke("primitives",
+                new Class<?>[]{boolean.class, byte.class, short.class, char.class, long.class}, true, (byte) 2, (short) 3, 'a', 4L));
+        assertEquals(21.5d, invoke("widen",
+                new Class<?>[]{long.class, float.class, double.class, int.class, short.class, byte.class}, 1L, 2.5f, 3d, 4, (short) 5, (byte) 6));
+        assertArrayEquals(new int[]{3, 2, 1}, (int[]) invoke("reverse", new Class<?>[]{int[].class}, (Object) new int[]{1, 2, 3}));
+    }
+
+    @Test
+    public void testVarargs() throws Throwable {
+        // 可变参数按固定参数个数调用，可变参数部分作为一个数组传入
+        assertEquals("a-1", invoke("format", new Class<?>[]{String.class, Object[].class}, "%s-%d", new Object[]{"a", 1}));
+    }
+
+    @Test
+    public void testVoidMethod() throws Throwable {
+        assertNull(invoke("record", new Class<?>[]{String.class}, "bhrpc"));
+        assertEquals("bhrpc", serviceBean.getRecorded());
+    }
+
+    @Test
+    public void testBridgeMethod() throws Throwable {
+        // 协变返回类型的桥接方法与实际方法签名相同，只保留一个调用器
+        assertEquals(42, invoke("number", new Class<?>[0]));
+    }
+
+    @Test
+    public void testCheckedException() throws Throwable {
+        try {
+            invoke("fail", new Class<?>[]{String.class}, "boom");
+            fail("service exception should be thrown");
+        } catch (IOException e) {
+            assertEquals("boom", e.getMessage());
+        }
+    }
+
+    @Test
+    public void testUnknownServiceAndMethod() {
+        assertTrue(table.containsService(SERVICE_KEY));
+        assertFalse(table.containsService("unknown"));
+        assertNull(table.get("unknown", "hello", null));
+        assertNull(table.get(SERVICE_KEY, "unknown", null));
+        assertNull(table.get(SERVICE_KEY, "toString", null));
+    }
+
+    @Test
+    public void testInvokerType() {
+        RpcMethodInvoker invoker = table.get(SERVICE_KEY, "add", new Class<?>[]{int.class, int.class});
+        RpcMethodInvoker sixParameters = table.get(SERVICE_KEY, "widen",
+                new Class<?>[]{long.class, float.class, double.class, int.class, short.class, byte.class});
+        switch (reflectType) {
+            case RpcConstants.REFLECT_TYPE_JDK:
+                assertTrue(invoker instanceof JdkMethodInvoker);
+                break;
+            case RpcConstants.REFLECT_TYPE_CGLIB:
+                assertTrue(invoker instanceof CglibMethodInvoker);
+                break;
+            case RpcConstants.REFLECT_TYPE_METHOD_HANDLE:
+                assertTrue(invoker instanceof MethodHandleInvoker);
+                break;
+            case RpcConstants.REFLECT_TYPE_LAMBDA:
+                assertNotNull(invoker);
+                assertFalse(invoker instanceof MethodHandleInvoker);
+                assertFalse(table.get(SERVICE_KEY, "primitives",
+                        new Class<?>[]{boolean.class, byte.class, short.class, char.class, long.class}) instanceof MethodHandleInvoker);
+                // 参数个数超过LambdaMethodInvoker.MAX_PARAMETER_COUNT时改用MethodHandle
+                assertTrue(sixParameters instanceof MethodHandleInvoker);
+                break;
+            case RpcConstants.REFLECT_TYPE_JAVASSIST:
+                assertTrue(invoker instanceof JavassistMethodInvoker);
+                break;
+            case RpcConstants.REFLECT_TYPE_GENERATED:
+                assertTrue(invoker instanceof GeneratedMethodInvoker);
+                // 只有服务接口中的方法生成了骨架
+                assertNull(table.get(SERVICE_KEY, "getRecorded", null));
+                break;
+            default:
+                fail("unknown reflect type " + reflectType);
+        }
+    }
+
+    /**
+     * JDK反射抛出的InvocationTargetException按服务方法抛出的异常处理
+     */
+    private Object invoke(String methodName, Class<?>[] parameterTypes, Object... parameters) throws Throwable {
+        RpcMethodInvoker invoker = table.get(SERVICE_KEY, methodName, parameterTypes);
+        assertNotNull(methodName + " invoker", invoker);
+        try {
+            return invoker.invoke(parameters);
+        } catch (InvocationTargetException e) {
+            throw e.getCause();
+        }
+    }
+}
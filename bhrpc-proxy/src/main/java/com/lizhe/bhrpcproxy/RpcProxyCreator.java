@@ -0,0 +1,58 @@
+package com.lizhe.bhrpcproxy;
+
+import com.lizhe.bhrpcannotation.RpcReference;
+import com.lizhe.bhrpccommon.scanner.reference.RpcReferenceProxyCreator;
+import com.lizhe.bhrpcconstants.RpcConstants;
+import com.lizhe.bhrpcconsumercommon.RpcConsumer;
+import com.lizhe.bhrpcproxy.api.ProxyFactory;
+import com.lizhe.bhrpcproxy.api.RpcInvoker;
+import com.lizhe.bhrpcproxy.cglib.CglibProxyFactory;
+import com.lizhe.bhrpcproxy.generated.GeneratedProxyFactory;
+import com.lizhe.bhrpcproxy.javassist.JavassistProxyFactory;
+import com.lizhe.bhrpcproxy.jdk.JdkProxyFactory;
+
+/**
+ * RpcProxyCreator
+ * {@code @description} 按@RpcReference的proxy创建服务消费者代理对象，支持jdk、javassist、cglib和编译期生成的存根
+ * 传给RpcReferenceScanner后，扫描到的@RpcReference字段都会创建代理对象
+ *
+ * @author lizhe@joysuch.com
+ * {@code @date} 2025/3/24 上午11:06
+ * @version 1.0
+ */
+public class RpcProxyCreator implements RpcReferenceProxyCreator {
+
+    private final RpcInvoker invoker;
+
+    public RpcProxyCreator() {
+        this(new RpcInvoker(RpcConsumer.getInstance()));
+    }
+
+    public RpcProxyCreator(RpcInvoker invoker) {
+        this.invoker = invoker;
+    }
+
+    @Override
+    public Object createProxy(Class<?> interfaceClass, RpcReference reference) {
+        return getProxy(interfaceClass, reference);
+    }
+
+    public <T> T getProxy(Class<T> interfaceClass, RpcReference reference) {
+        return getProxyFactory(reference.proxy()).getProxy(interfaceClass, reference, invoker);
+    }
+
+    private static ProxyFactory getProxyFactory(String proxy) {
+        switch (proxy) {
+            case RpcConstants.PROXY_JDK:
+                return new JdkProxyFactory();
+            case RpcConstants.PROXY_JAVASSIST:
+                return new JavassistProxyFactory();
+            case RpcConstants.PROXY_CGLIB:
+                return new CglibProxyFactory();
+            case RpcConstants.PROXY_GENERATED:
+                return new GeneratedProxyFactory();
+            default:
+                throw new IllegalArgumentException("unsupported proxy type, " + proxy);
+        }
+    }
+}
@@ -0,0 +1,37 @@
+package com.lizhe.bhrpcproxy.api;
+
+import com.lizhe.bhrpcannotation.RpcReference;
+
+import java.lang.reflect.Method;
+
+/**
+ * AbstractProxyFactory
+ * {@code @description} 代理工厂基类，为服务接口的每个方法生成请求模板
+ *
+ * @author lizhe@joysuch.com
+ * {@code @date} 2025/3/24 上午10:02
+ * @version 1.0
+ */
+public abstract class AbstractProxyFactory implements ProxyFactory {
+
+    @Override
+    public <T> T getProxy(Class<T> interfaceClass, RpcReference reference, RpcInvoker invoker) {
+        if (!interfaceClass.isInterface()) {
+            throw new IllegalArgumentException("@RpcReference must be declared on an interface type, " + interfaceClass.getName());
+        }
+        Method[] methods = interfaceClass.getMethods();
+        RpcRequestTemplate[] templates = new RpcRequestTemplate[methods.length];
+        for (int i = 0; i < methods.length; i++) {
+            templates[i] = new RpcRequestTemplate(interfaceClass, methods[i], reference);
+        }
+        return createProxy(interfaceClass, methods, templates, invoker);
+    }
+
+    /**
+     * 创建代理对象
+     *
+     * @param methods   服务接口的方法，与templates一一对应
+     * @param templates 方法对应的请求模板
+     */
+    protected abstract <T> T createProxy(Class<T> interfaceClass, Method[] methods, RpcRequestTemplate[] templates, RpcInvoker invoker);
+}
@@ -0,0 +1,24 @@
+package com.lizhe.bhrpcproxy.api;
+
+import com.lizhe.bhrpcannotation.RpcReference;
+
+/**
+ * ProxyFactory
+ * {@code @description} 服务消费者代理工厂，按@RpcReference的proxy选择实现
+ *
+ * @author lizhe@joysuch.com
+ * {@code @date} 2025/3/24 上午10:02
+ * @version 1.0
+ */
+public interface ProxyFactory {
+
+    /**
+     * 创建服务接口的代理对象
+     *
+     * @param interfaceClass 服务接口
+     * @param reference      服务引用配置
+     * @param invoker        发送请求的RpcInvoker
+     * @return 代理对象
+     */
+    <T> T getProxy(Class<T> interfaceClass, RpcReference reference, RpcInvoker invoker);
+}
@@ -0,0 +1,49 @@
+package com.lizhe.bhrpcproxy.api;
+
+import com.lizhe.bhrpcconsumercommon.RpcConsumer;
+import com.lizhe.bhrpcconsumercommon.future.RPCFuture;
+
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * RpcInvoker
+ * {@code @description} 代理对象发送请求的公共入口，所有类型的代理都通过该类按请求模板发送请求
+ * 1. 同步调用等待RPCFuture完成，超时由时间轮控制，等待时同样以请求的超时时间为上限，失败时抛出原始异常
+ * 2. 异步调用的RPCFuture放在RpcContext中，单向调用不等待响应，两者都直接返回默认值
+ *
+ * @author lizhe@joysuch.com
+ * {@code @date} 2025/3/24 上午9:55
+ * @version 1.0
+ */
+public class RpcInvoker {
+
+    private final RpcConsumer consumer;
+
+    public RpcInvoker(RpcConsumer consumer) {
+        this.consumer = consumer;
+    }
+
+    /**
+     * 按请求模板发送请求
+     *
+     * @param template 方法对应的请求模板
+     * @param args     调用参数
+     * @return 调用结果
+     * @throws Throwable 服务提供者返回的错误、超时或连接异常
+     */
+    public Object invoke(RpcRequestTemplate template, Object[] args) throws Throwable {
+        RPCFuture rpcFuture = consumer.sendRequest(template.newProtocol(args), template.getTimeout(), template.getCallbackExecutor());
+        if (rpcFuture == null) {
+            return template.getDefaultValue();
+        }
+        Object result;
+        try {
+            long timeout = template.getTimeout();
+            result = timeout > 0 ? rpcFuture.get(timeout, TimeUnit.MILLISECONDS) : rpcFuture.get();
+        } catch (ExecutionException e) {
+            throw e.getCause();
+        }
+        return result == null ? template.getDefaultValue() : result;
+    }
+}
@@ -0,0 +1,149 @@
+package com.lizhe.bhrpcproxy.api;
+
+import com.lizhe.bhrpcannotation.RpcReference;
+import com.lizhe.bhrpccommon.helper.RpcReferenceHelper;
+import com.lizhe.bhrpcconsumercommon.callback.RpcCallbackExecutors;
+import com.lizhe.bhrpcprotocol.RpcProtocol;
+import com.lizhe.bhrpcprotocol.header.RpcHeaderFactory;
+import com.lizhe.bhrpcprotocol.request.RpcMethodKey;
+import com.lizhe.bhrpcprotocol.request.RpcRequest;
+
+import java.lang.reflect.Method;
+import java.util.concurrent.Executor;
+
+/**
+ * RpcRequestTemplate
+ * {@code @description} 代理接口中单个方法的请求模板，创建代理对象时为每个方法预先生成
+ * 模板中保存服务名称、方法名称、参数类型、版本号、分组、序列化类型、超时时间、异步和单向调用标识以及回调执行器，
+ * 调用时只需要生成请求ID并填入参数，不再反射读取注解和方法信息，也不拼接字符串
+ * 方法标识RpcMethodKey随模板创建一次，每个请求都携带同一个实例，连接上的方法编号字典按引用即可查找
+ *
+ * @author lizhe@joysuch.com
+ * {@code @date} 2025/3/24 上午9:41
+ * @version 1.0
+ */
+public class RpcRequestTemplate {
+
+    private static final Object[] EMPTY_ARGS = new Object[0];
+
+    private final String className;
+
+    private final String methodName;
+
+    private final Class<?>[] parameterTypes;
+
+    private final String version;
+
+    private final String group;
+
+    private final String serializationType;
+
+    private final long timeout;
+
+    private final boolean async;
+
+    private final boolean oneway;
+
+    private final Executor callbackExecutor;
+
+    private final RpcMethodKey methodKey;
+
+    /**
+     * 返回值为基本类型时，没有返回结果（异步、单向调用或结果为null）使用的默认值
+     */
+    private final Object defaultValue;
+
+    public RpcRequestTemplate(Class<?> interfaceClass, Method method, RpcReference reference) {
+        this.className = interfaceClass.getName();
+        this.methodName = method.getName();
+        this.parameterTypes = method.getParameterTypes();
+        this.version = reference.version();
+        this.group = reference.group();
+        this.serializationType = RpcReferenceHelper.getSerializationType(reference, methodName);
+        this.timeout = RpcReferenceHelper.getTimeout(reference, methodName);
+        this.async = reference.async();
+        this.oneway = reference.oneway();
+        this.callbackExecutor = RpcCallbackExecutors.get(reference.callbackExecutor());
+        this.methodKey = new RpcMethodKey(className, methodName, version, group, parameterTypes);
+        this.defaultValue = defaultValue(method.getReturnType());
+    }
+
+    /**
+     * 按模板创建请求，请求对象不从对象池中获取，RPCFuture在收到响应前一直持有请求
+     *
+     * @param args 调用参数
+     * @return 请求报文
+     */
+    public RpcProtocol<RpcRequest> newProtocol(Object[] args) {
+        RpcProtocol<RpcRequest> protocol = new RpcProtocol<>();
+        protocol.setHeader(RpcHeaderFactory.getRpcRequestHeader(serializationType));
+        RpcRequest request = new RpcRequest();
+        request.setClassName(className);
+        request.setMethodName(methodName);
+        request.setParameterTypes(parameterTypes);
+        request.setParameters(args == null ? EMPTY_ARGS : args);
+        request.setVersion(version);
+        request.setGroup(group);
+        request.setAsync(async);
+        request.setOneway(oneway);
+        request.setMethodKey(methodKey);
+        protocol.setBody(request);
+        return protocol;
+    }
+
+    public String getClassName() {
+        return className;
+    }
+
+    public String getMethodName() {
+        return methodName;
+    }
+
+    public long getTimeout() {
+        return timeout;
+    }
+
+    public boolean isAsync() {
+        return async;
+    }
+
+    public boolean isOneway() {
+        return oneway;
+    }
+
+    public Executor getCallbackExecutor() {
+        return callbackExecutor;
+    }
+
+    public Object getDefaultValue() {
+        return defaultValue;
+    }
+
+    private static Object defaultValue(Class<?> type) {
+        if (!type.isPrimitive() || type == void.class) {
+            return null;
+        }
+        if (type == boolean.class) {
+            return Boolean.FALSE;
+        }
+        if (type == char.class) {
+            return (char) 0;
+        }
+        if (type == byte.class) {
+            return (byte) 0;
+        }
+        if (type == short.class) {
+            return (short) 0;
+        }
+        if (type == int.class) {
+            return 0;
+        }
+        if (type == long.class) {
+            return 0L;
+        }
+        if (type == float.class) {
+            return 0F;
+        }
+        return 0D;
+    }
+}
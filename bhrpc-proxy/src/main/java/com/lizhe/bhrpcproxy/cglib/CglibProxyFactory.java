@@ -0,0 +1,67 @@
+package com.lizhe.bhrpcproxy.cglib;
+
+import com.lizhe.bhrpcproxy.api.AbstractProxyFactory;
+import com.lizhe.bhrpcproxy.api.RpcInvoker;
+import com.lizhe.bhrpcproxy.api.RpcRequestTemplate;
+import net.sf.cglib.proxy.Callback;
+import net.sf.cglib.proxy.CallbackFilter;
+import net.sf.cglib.proxy.Enhancer;
+import net.sf.cglib.proxy.MethodInterceptor;
+import net.sf.cglib.proxy.NoOp;
+
+import java.lang.reflect.Method;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * CglibProxyFactory
+ * {@code @description} 基于cglib的代理工厂
+ * 每个接口方法对应一个绑定了请求模板的MethodInterceptor，CallbackFilter只在生成代理类时为方法选择回调，
+ * 调用时直接进入对应的回调，不需要按Method查找模板；Object的方法使用NoOp执行Object的实现
+ *
+ * @author lizhe@joysuch.com
+ * {@code @date} 2025/3/24 上午10:32
+ * @version 1.0
+ */
+public class CglibProxyFactory extends AbstractProxyFactory {
+
+    @Override
+    @SuppressWarnings("unchecked")
+    protected <T> T createProxy(Class<T> interfaceClass, Method[] methods, RpcRequestTemplate[] templates, RpcInvoker invoker) {
+        Callback[] callbacks = new Callback[methods.length + 1];
+        Map<Method, Integer> indexes = new HashMap<>(methods.length * 2);
+        for (int i = 0; i < methods.length; i++) {
+            RpcRequestTemplate template = templates[i];
+            callbacks[i] = (MethodInterceptor) (obj, method, args, methodProxy) -> invoker.invoke(template, args);
+            indexes.put(methods[i], i);
+        }
+        callbacks[methods.length] = NoOp.INSTANCE;
+        Enhancer enhancer = new Enhancer();
+        enhancer.setClassLoader(interfaceClass.getClassLoader());
+        enhancer.setInterfaces(new Class<?>[]{interfaceClass});
+        enhancer.setCallbackFilter(new TemplateCallbackFilter(indexes, methods.length));
+        enhancer.setCallbacks(callbacks);
+        return (T) enhancer.create();
+    }
+
+    /**
+     * 按方法选择回调，接口方法对应各自的MethodInterceptor，其余方法对应最后一个NoOp
+     */
+    private static final class TemplateCallbackFilter implements CallbackFilter {
+
+        private final Map<Method, Integer> indexes;
+
+        private final int defaultIndex;
+
+        TemplateCallbackFilter(Map<Method, Integer> indexes, int defaultIndex) {
+            this.indexes = indexes;
+            this.defaultIndex = defaultIndex;
+        }
+
+        @Override
+        public int accept(Method method) {
+            Integer index = indexes.get(method);
+            return index == null ? defaultIndex : index;
+        }
+    }
+}
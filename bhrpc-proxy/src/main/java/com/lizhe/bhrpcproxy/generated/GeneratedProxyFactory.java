@@ -0,0 +1,40 @@
+package com.lizhe.bhrpcproxy.generated;
+
+import com.lizhe.bhrpcannotation.RpcReference;
+import com.lizhe.bhrpcannotation.stub.RpcStubInvoker;
+import com.lizhe.bhrpcannotation.stub.RpcStubNames;
+import com.lizhe.bhrpcproxy.api.ProxyFactory;
+import com.lizhe.bhrpcproxy.api.RpcInvoker;
+import com.lizhe.bhrpcproxy.api.RpcRequestTemplate;
+
+/**
+ * GeneratedProxyFactory
+ * {@code @description} 使用RpcStubProcessor在编译期生成的客户端存根作为代理对象
+ * 请求模板按存根的METHOD_NAMES和PARAMETER_TYPES的顺序创建，存根中的方法直接按下标取出模板，不需要查找，也不经过反射
+ *
+ * @author lizhe@joysuch.com
+ * {@code @date} 2025/3/25 下午3:05
+ * @version 1.0
+ */
+public class GeneratedProxyFactory implements ProxyFactory {
+
+    @Override
+    public <T> T getProxy(Class<T> interfaceClass, RpcReference reference, RpcInvoker invoker) {
+        String stubClassName = RpcStubNames.stubClassName(interfaceClass.getName());
+        try {
+            Class<?> stubClass = Class.forName(stubClassName, true, interfaceClass.getClassLoader());
+            String[] methodNames = (String[]) stubClass.getField("METHOD_NAMES").get(null);
+            Class<?>[][] parameterTypes = (Class<?>[][]) stubClass.getField("PARAMETER_TYPES").get(null);
+            RpcRequestTemplate[] templates = new RpcRequestTemplate[methodNames.length];
+            for (int i = 0; i < methodNames.length; i++) {
+                templates[i] = new RpcRequestTemplate(interfaceClass, interfaceClass.getMethod(methodNames[i], parameterTypes[i]), reference);
+            }
+            RpcStubInvoker stubInvoker = (methodIndex, args) -> invoker.invoke(templates[methodIndex], args);
+            return interfaceClass.cast(stubClass.getConstructor(RpcStubInvoker.class).newInstance(stubInvoker));
+        } catch (ClassNotFoundException e) {
+            throw new IllegalStateException("generated stub " + stubClassName + " not found, the @RpcReference field must be compiled with bhrpc-annotation on the classpath", e);
+        } catch (ReflectiveOperationException e) {
+            throw new IllegalStateException("create generated stub " + stubClassName + " failed", e);
+        }
+    }
+}
@@ -0,0 +1,90 @@
+package com.lizhe.bhrpcproxy.javassist;
+
+import com.lizhe.bhrpcproxy.api.AbstractProxyFactory;
+import com.lizhe.bhrpcproxy.api.RpcInvoker;
+import com.lizhe.bhrpcproxy.api.RpcRequestTemplate;
+import javassist.ClassClassPath;
+import javassist.ClassPool;
+import javassist.CtClass;
+import javassist.CtConstructor;
+import javassist.CtField;
+import javassist.CtMethod;
+import javassist.CtNewMethod;
+import javassist.LoaderClassPath;
+
+import java.lang.reflect.Method;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * JavassistProxyFactory
+ * {@code @description} 基于javassist的代理工厂
+ * 为每个代理生成实现服务接口的类，第i个接口方法的方法体直接调用invoker.invoke(templates[i], $args)，
+ * 调用时既不查找模板也不经过反射；返回值由javassist的($r)转换为方法的返回类型
+ * 生成的类通过独立的类加载器定义，不依赖反射调用ClassLoader.defineClass
+ *
+ * @author lizhe@joysuch.com
+ * {@code @date} 2025/3/24 上午10:48
+ * @version 1.0
+ */
+public class JavassistProxyFactory extends AbstractProxyFactory {
+
+    private static final AtomicInteger PROXY_COUNTER = new AtomicInteger();
+
+    @Override
+    @SuppressWarnings("unchecked")
+    protected <T> T createProxy(Class<T> interfaceClass, Method[] methods, RpcRequestTemplate[] templates, RpcInvoker invoker) {
+        try {
+            ClassPool pool = new ClassPool(true);
+            pool.appendClassPath(new LoaderClassPath(interfaceClass.getClassLoader()));
+            pool.appendClassPath(new ClassClassPath(RpcInvoker.class));
+            String proxyClassName = interfaceClass.getName() + "$BhrpcJavassistProxy" + PROXY_COUNTER.incrementAndGet();
+            CtClass proxyClass = pool.makeClass(proxyClassName);
+            proxyClass.addInterface(pool.get(interfaceClass.getName()));
+            proxyClass.addField(CtField.make("private final " + RpcInvoker.class.getName() + " invoker;", proxyClass));
+            proxyClass.addField(CtField.make("private final " + RpcRequestTemplate.class.getName() + "[] templates;", proxyClass));
+            CtConstructor constructor = new CtConstructor(new CtClass[]{pool.get(RpcInvoker.class.getName()), pool.get(RpcRequestTemplate.class.getName() + "[]")}, proxyClass);
+            constructor.setBody("{ this.invoker = $1; this.templates = $2; }");
+            proxyClass.addConstructor(constructor);
+            for (int i = 0; i < methods.length; i++) {
+                proxyClass.addMethod(makeMethod(pool, proxyClass, methods[i], i));
+            }
+            proxyClass.addMethod(CtNewMethod.make("public String toString() { return \"RpcProxy[" + interfaceClass.getName() + "]\"; }", proxyClass));
+            byte[] bytecode = proxyClass.toBytecode();
+            proxyClass.detach();
+            Class<?> clazz = new ProxyClassLoader(interfaceClass.getClassLoader()).define(proxyClassName, bytecode);
+            return (T) clazz.getConstructor(RpcInvoker.class, RpcRequestTemplate[].class).newInstance(invoker, templates);
+        } catch (Exception e) {
+            throw new IllegalStateException("create javassist proxy for " + interfaceClass.getName() + " failed", e);
+        }
+    }
+
+    private CtMethod makeMethod(ClassPool pool, CtClass proxyClass, Method method, int index) throws Exception {
+        Class<?>[] parameterTypes = method.getParameterTypes();
+        CtClass[] parameters = new CtClass[parameterTypes.length];
+        for (int i = 0; i < parameterTypes.length; i++) {
+            parameters[i] = pool.get(parameterTypes[i].getName());
+        }
+        Class<?>[] exceptionTypes = method.getExceptionTypes();
+        CtClass[] exceptions = new CtClass[exceptionTypes.length];
+        for (int i = 0; i < exceptionTypes.length; i++) {
+            exceptions[i] = pool.get(exceptionTypes[i].getName());
+        }
+        String invoke = "invoker.invoke(templates[" + index + "], $args)";
+        String body = method.getReturnType() == void.class ? "{ " + invoke + "; }" : "{ return ($r) " + invoke + "; }";
+        return CtNewMethod.make(pool.get(method.getReturnType().getName()), method.getName(), parameters, exceptions, body, proxyClass);
+    }
+
+    /**
+     * 定义代理类的类加载器，父加载器为服务接口的类加载器
+     */
+    private static final class ProxyClassLoader extends ClassLoader {
+
+        ProxyClassLoader(ClassLoader parent) {
+            super(parent);
+        }
+
+        Class<?> define(String name, byte[] bytecode) {
+            return defineClass(name, bytecode, 0, bytecode.length);
+        }
+    }
+}
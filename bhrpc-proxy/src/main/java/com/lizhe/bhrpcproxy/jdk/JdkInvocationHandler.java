@@ -0,0 +1,55 @@
+package com.lizhe.bhrpcproxy.jdk;
+
+import com.lizhe.bhrpcproxy.api.RpcInvoker;
+import com.lizhe.bhrpcproxy.api.RpcRequestTemplate;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Method;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * JdkInvocationHandler
+ * {@code @description} JDK动态代理的调用处理器
+ * 创建时建立Method与请求模板的映射，调用时按Method查找模板，Method的哈希值由类名称和方法名称的缓存哈希值计算，
+ * 查找过程中不反射读取注解，也不拼接字符串；Object的方法在本地处理
+ *
+ * @author lizhe@joysuch.com
+ * {@code @date} 2025/3/24 上午10:15
+ * @version 1.0
+ */
+public class JdkInvocationHandler implements InvocationHandler {
+
+    private final Class<?> interfaceClass;
+
+    private final Map<Method, RpcRequestTemplate> templates;
+
+    private final RpcInvoker invoker;
+
+    public JdkInvocationHandler(Class<?> interfaceClass, Method[] methods, RpcRequestTemplate[] templates, RpcInvoker invoker) {
+        this.interfaceClass = interfaceClass;
+        this.invoker = invoker;
+        this.templates = new HashMap<>(methods.length * 2);
+        for (int i = 0; i < methods.length; i++) {
+            this.templates.put(methods[i], templates[i]);
+        }
+    }
+
+    @Override
+    public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+        RpcRequestTemplate template = templates.get(method);
+        if (template != null) {
+            return invoker.invoke(template, args);
+        }
+        switch (method.getName()) {
+            case "equals":
+                return proxy == args[0];
+            case "hashCode":
+                return System.identityHashCode(proxy);
+            case "toString":
+                return "RpcProxy[" + interfaceClass.getName() + "]";
+            default:
+                throw new UnsupportedOperationException(method.toString());
+        }
+    }
+}
@@ -0,0 +1,26 @@
+package com.lizhe.bhrpcproxy.jdk;
+
+import com.lizhe.bhrpcproxy.api.AbstractProxyFactory;
+import com.lizhe.bhrpcproxy.api.RpcInvoker;
+import com.lizhe.bhrpcproxy.api.RpcRequestTemplate;
+
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+
+/**
+ * JdkProxyFactory
+ * {@code @description} 基于JDK动态代理的代理工厂
+ *
+ * @author lizhe@joysuch.com
+ * {@code @date} 2025/3/24 上午10:15
+ * @version 1.0
+ */
+public class JdkProxyFactory extends AbstractProxyFactory {
+
+    @Override
+    @SuppressWarnings("unchecked")
+    protected <T> T createProxy(Class<T> interfaceClass, Method[] methods, RpcRequestTemplate[] templates, RpcInvoker invoker) {
+        return (T) Proxy.newProxyInstance(interfaceClass.getClassLoader(), new Class<?>[]{interfaceClass},
+                new JdkInvocationHandler(interfaceClass, methods, templates, invoker));
+    }
+}
@@ -0,0 +1,189 @@
+package com.lizhe.bhrpcproxy;
+
+import com.lizhe.bhrpcannotation.RpcReference;
+import com.lizhe.bhrpcconstants.RpcConstants;
+import com.lizhe.bhrpcproxy.api.ProxyFactory;
+import com.lizhe.bhrpcproxy.api.RpcInvoker;
+import com.lizhe.bhrpcproxy.api.RpcRequestTemplate;
+import com.lizhe.bhrpcproxy.cglib.CglibProxyFactory;
+import com.lizhe.bhrpcproxy.generated.GeneratedProxyFactory;
+import com.lizhe.bhrpcproxy.javassist.JavassistProxyFactory;
+import com.lizhe.bhrpcproxy.jdk.JdkProxyFactory;
+import com.lizhe.bhrpcprotocol.RpcProtocol;
+import com.lizhe.bhrpcprotocol.request.RpcRequest;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.Parameterized;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import java.util.function.Function;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+/**
+ * ProxyFactoryTest
+ * {@code @description} 按每种代理类型为同一个服务接口创建代理对象，调用都应当按方法对应的请求模板交给RpcInvoker
+ * RpcInvoker替换为记录调用的实现，不连接服务提供者
+ *
+ * @author lizhe@joysuch.com
+ * {@code @date} 2025/3/28 下午4:40
+ * @version 1.0
+ */
+@RunWith(Parameterized.class)
+public class ProxyFactoryTest {
+
+    /**
+     * 编译时RpcStubProcessor为该字段的接口类型生成存根
+     */
+    @RpcReference(version = "2.0.0", group = "proxy", timeout = 1000, callbackExecutor = RpcConstants.CALLBACK_EXECUTOR_DIRECT)
+    private ProxyTestService reference;
+
+    @Parameterized.Parameters(name = "{0}")
+    public static Collection<Object[]> proxyFactories() {
+        return Arrays.asList(new Object[][]{
+                {RpcConstants.PROXY_JDK, new JdkProxyFactory()},
+                {RpcConstants.PROXY_JAVASSIST, new JavassistProxyFactory()},
+                {RpcConstants.PROXY_CGLIB, new CglibProxyFactory()},
+                {RpcConstants.PROXY_GENERATED, new GeneratedProxyFactory()}
+        });
+    }
+
+    private final ProxyFactory proxyFactory;
+
+    private RecordingInvoker invoker;
+
+    private ProxyTestService proxy;
+
+    public ProxyFactoryTest(String proxyType, ProxyFactory proxyFactory) {
+        this.proxyFactory = proxyFactory;
+    }
+
+    @Before
+    public void setUp() throws Exception {
+        RpcReference rpcReference = ProxyFactoryTest.class.getDeclaredField("reference").getAnnotation(RpcReference.class);
+        invoker = new RecordingInvoker();
+        proxy = proxyFactory.getProxy(ProxyTestService.class, rpcReference, invoker);
+    }
+
+    @Test
+    public void testOverloadsUseTheirOwnTemplates() throws Throwable {
+        invoker.answer = template -> template.getMethodName();
+        assertEquals("hello", proxy.hello("bhrpc"));
+        assertEquals("hello", proxy.hello("bhrpc", 2));
+
+        RpcRequest first = invoker.requests.get(0);
+        assertEquals(ProxyTestService.class.getName(), first.getClassName());
+        assertEquals("2.0.0", first.getVersion());
+        assertEquals("proxy", first.getGroup());
+        assertArrayEquals(new Class<?>[]{String.class}, first.getParameterTypes());
+        assertArrayEquals(new Object[]{"bhrpc"}, first.getParameters());
+
+        RpcRequest second = invoker.requests.get(1);
+        assertArrayEquals(new Class<?>[]{String.class, int.class}, second.getParameterTypes());
+        assertArrayEquals(new Object[]{"bhrpc", 2}, second.getParameters());
+        assertEquals(1000, invoker.templates.get(1).getTimeout());
+    }
+
+    @Test
+    public void testPrimitiveAndArrayResults() throws Throwable {
+        invoker.answer = template -> "add".equals(template.getMethodName()) ? 42 : new int[]{3, 2, 1};
+        assertEquals(42, proxy.add(17, 25));
+        assertArrayEquals(new int[]{3, 2, 1}, proxy.reverse(new int[]{1, 2, 3}));
+        assertArrayEquals(new Object[]{17, 25}, invoker.requests.get(0).getParameters());
+    }
+
+    @Test
+    public void testNullResultUsesDefaultValue() {
+        // 基本类型返回值没有结果时返回默认值，不在代理中拆箱null
+        assertEquals(0L, proxy.count());
+        assertArrayEquals(new Object[0], invoker.requests.get(0).getParameters());
+    }
+
+    @Test
+    public void testVoidMethod() {
+        proxy.record("bhrpc");
+        assertEquals(1, invoker.requests.size());
+        assertEquals("record", invoker.requests.get(0).getMethodName());
+    }
+
+    @Test
+    public void testCheckedExceptionIsNotWrapped() {
+        IOException exception = new IOException("boom");
+        invoker.answer = template -> {
+            throw new ThrowException(exception);
+        };
+        try {
+            proxy.fail("boom");
+            fail("exception from the invoker should be thrown");
+        } catch (IOException e) {
+            assertSame(exception, e);
+        }
+    }
+
+    @Test
+    public void testObjectMethodsAreLocal() {
+        assertTrue(proxy.equals(proxy));
+        assertFalse(proxy.equals(new Object()));
+        assertEquals(proxy.hashCode(), proxy.hashCode());
+        proxy.toString();
+        assertTrue(invoker.requests.isEmpty());
+    }
+
+    @Test
+    public void testTemplatesAreCreatedPerMethod() {
+        proxy.hello("a");
+        proxy.hello("b");
+        assertSame(invoker.templates.get(0), invoker.templates.get(1));
+        assertSame(invoker.requests.get(0).getMethodKey(), invoker.requests.get(1).getMethodKey());
+    }
+
+    /**
+     * 记录每次调用的请求模板和按模板创建的请求，返回值由answer决定，没有结果时与RpcInvoker一样返回默认值
+     */
+    private static final class RecordingInvoker extends RpcInvoker {
+
+        private final List<RpcRequestTemplate> templates = new ArrayList<>();
+
+        private final List<RpcRequest> requests = new ArrayList<>();
+
+        private Function<RpcRequestTemplate, Object> answer = template -> null;
+
+        RecordingInvoker() {
+            super(null);
+        }
+
+        @Override
+        public Object invoke(RpcRequestTemplate template, Object[] args) throws Throwable {
+            RpcProtocol<RpcRequest> protocol = template.newProtocol(args);
+            templates.add(template);
+            requests.add(protocol.getBody());
+            Object result;
+            try {
+                result = answer.apply(template);
+            } catch (ThrowException e) {
+                throw e.getCause();
+            }
+            return result == null ? template.getDefaultValue() : result;
+        }
+    }
+
+    /**
+     * 在answer中抛出受检异常
+     */
+    private static final class ThrowException extends RuntimeException {
+
+        ThrowException(Throwable cause) {
+            super(cause);
+        }
+    }
+}
@@ -0,0 +1,28 @@
+package com.lizhe.bhrpcproxy;
+
+import java.io.IOException;
+
+/**
+ * ProxyTestService
+ * {@code @description} 代理工厂测试使用的服务接口，覆盖重载、基本类型返回值、数组、void方法和受检异常
+ *
+ * @author lizhe@joysuch.com
+ * {@code @date} 2025/3/28 下午4:40
+ * @version 1.0
+ */
+public interface ProxyTestService {
+
+    String hello(String name);
+
+    String hello(String name, int times);
+
+    int add(int a, int b);
+
+    long count();
+
+    int[] reverse(int[] values);
+
+    void record(String value);
+
+    String fail(String message) throws IOException;
+}
@@ -15,6 +15,9 @@
  */
 package com.lizhe.bhrpcserialzationapi;
 
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.ByteBufUtil;
+
 /**
  * @author lizhe
  * @version 1.0.0
@@ -22,6 +25,11 @@ package com.lizhe.bhrpcserialzationapi;
  */
 public interface Serialization {
 
+    /**
+     * 序列化类型名称，与消息头中的serializationType以及RpcConstants中的SERIALIZATION_*常量对应
+     */
+    String getType();
+
     /**
      * 序列化
      */
@@ -31,4 +39,28 @@ public interface Serialization {
      * 反序列化
      */
     <T> T deserialize(byte[] data, Class<T> cls);
+
+    /**
+     * 直接序列化到ByteBuf中，数据从out的writerIndex开始写入
+     * 默认实现退化为字节数组方式，具体的序列化实现可覆盖此方法，直接写入出站缓冲区避免中间字节数组
+     *
+     * @param obj 待序列化的对象
+     * @param out 出站缓冲区，通常是编码器分配的池化ByteBuf
+     */
+    default <T> void serialize(T obj, ByteBuf out) {
+        out.writeBytes(serialize(obj));
+    }
+
+    /**
+     * 直接从ByteBuf中反序列化，读取in中全部可读字节
+     * 默认实现退化为字节数组方式，具体的序列化实现可覆盖此方法，直接读取ByteBuf避免额外的内存拷贝
+     *
+     * @param in  消息体对应的ByteBuf，通常是解码器从接收缓冲区中切出的slice，仅在本次调用期间有效
+     * @param cls 反序列化的目标类型
+     */
+    default <T> T deserialize(ByteBuf in, Class<T> cls) {
+        byte[] data = ByteBufUtil.getBytes(in, in.readerIndex(), in.readableBytes(), false);
+        in.skipBytes(in.readableBytes());
+        return deserialize(data, cls);
+    }
 }
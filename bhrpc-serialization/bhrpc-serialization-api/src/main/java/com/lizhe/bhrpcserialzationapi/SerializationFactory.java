@@ -0,0 +1,66 @@
+package com.lizhe.bhrpcserialzationapi;
+
+import com.lizhe.bhrpccommon.exception.SerializerException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.Map;
+import java.util.ServiceLoader;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * SerializationFactory
+ * {@code @description} 序列化实现注册表，通过SPI加载bhrpc-serialization各模块中的序列化实现
+ * 每种序列化类型只保留一个实例，序列化实现需要保证线程安全
+ *
+ * @author lizhe@joysuch.com
+ * {@code @date} 2025/3/4 上午9:36
+ * @version 1.0
+ */
+public class SerializationFactory {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(SerializationFactory.class);
+
+    /**
+     * 存储序列化类型名称与序列化实例的映射关系
+     */
+    private static final Map<String, Serialization> SERIALIZATION_MAP = new ConcurrentHashMap<>();
+
+    static {
+        for (Serialization serialization : ServiceLoader.load(Serialization.class)) {
+            register(serialization);
+        }
+        LOGGER.info("load serialization types: {}", SERIALIZATION_MAP.keySet());
+    }
+
+    /**
+     * 注册序列化实现，同名的序列化类型会被覆盖
+     *
+     * @param serialization 序列化实现
+     */
+    public static void register(Serialization serialization) {
+        SERIALIZATION_MAP.put(serialization.getType(), serialization);
+    }
+
+    /**
+     * 根据序列化类型名称获取序列化实例
+     *
+     * @param type 序列化类型名称，例如jdk、protostuff
+     * @return 序列化实例
+     * @throws SerializerException 序列化类型未注册时抛出
+     */
+    public static Serialization getSerialization(String type) {
+        Serialization serialization = type == null ? null : SERIALIZATION_MAP.get(type);
+        if (serialization == null) {
+            throw new SerializerException("serialization type not found: " + type);
+        }
+        return serialization;
+    }
+
+    /**
+     * 判断序列化类型是否已注册
+     */
+    public static boolean contains(String type) {
+        return type != null && SERIALIZATION_MAP.containsKey(type);
+    }
+}
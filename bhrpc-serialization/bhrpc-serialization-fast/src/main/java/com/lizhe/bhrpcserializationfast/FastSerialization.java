@@ -0,0 +1,235 @@
+package com.lizhe.bhrpcserializationfast;
+
+import com.lizhe.bhrpccommon.exception.SerializerException;
+import com.lizhe.bhrpcconstants.RpcConstants;
+import com.lizhe.bhrpcprotocol.request.RpcRequest;
+import com.lizhe.bhrpcprotocol.response.RpcResponse;
+import com.lizhe.bhrpcserialzationapi.Serialization;
+import com.lizhe.bhrpcserialzationapi.SerializationFactory;
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.ByteBufUtil;
+import io.netty.buffer.Unpooled;
+
+import java.util.function.Supplier;
+
+import static com.lizhe.bhrpcserializationfast.FastValueCodec.*;
+
+/**
+ * FastSerialization
+ * {@code @description} 针对RpcRequest和RpcResponse手写的二进制序列化
+ * 1. 逐字段写入RpcRequest和RpcResponse，不写类描述和字段名
+ * 2. 基本类型、字符串和基本类型数组直接编码到ByteBuf中，不经过装箱和通用序列化
+ * 3. 其他对象交给兜底序列化，兜底序列化类型通过系统属性bhrpc.serialization.fast.fallback配置，
+ * 默认使用hessian2，不存在时使用jdk
+ * 报文格式：
+ * RpcRequest：标识位(1) + methodId + className + methodName + version + group + 参数类型个数 + 参数类型 + 参数个数 + 参数
+ * RpcResponse：标识位(1) + error + result
+ * 个数加1后写入，0表示null
+ *
+ * @author lizhe@joysuch.com
+ * {@code @date} 2025/3/10 上午10:05
+ * @version 1.0
+ */
+public class FastSerialization implements Serialization {
+
+    /**
+     * 兜底序列化类型的系统属性
+     */
+    public static final String FALLBACK_PROPERTY = "bhrpc.serialization.fast.fallback";
+
+    private static final int FLAG_ONEWAY = 0x01;
+    private static final int FLAG_ASYNC = 0x02;
+
+    /**
+     * 兜底序列化，首次使用时从SerializationFactory中获取，避免在SerializationFactory加载过程中循环调用
+     */
+    private volatile Serialization fallback;
+
+    /**
+     * 只有遇到复杂对象时才需要兜底序列化
+     */
+    private final Supplier<Serialization> fallbackSupplier = this::getFallback;
+
+    @Override
+    public String getType() {
+        return RpcConstants.SERIALIZATION_FAST;
+    }
+
+    /**
+     * 将给定的对象序列化为字节数组
+     *
+     * @param obj 待序列化的对象
+     * @return 序列化后的字节数组
+     * @throws SerializerException 如果序列化过程中发生错误或对象为null，则抛出此异常
+     */
+    @Override
+    public <T> byte[] serialize(T obj) {
+        if (obj == null) {
+            throw new SerializerException("serialize object is null");
+        }
+        ByteBuf out = Unpooled.buffer();
+        try {
+            serialize(obj, out);
+            return ByteBufUtil.getBytes(out);
+        } finally {
+            out.release();
+        }
+    }
+
+    /**
+     * 将给定的对象直接序列化到ByteBuf中
+     *
+     * @param obj 待序列化的对象
+     * @param out 出站缓冲区
+     * @throws SerializerException 如果序列化过程中发生错误或对象为null，则抛出此异常
+     */
+    @Override
+    public <T> void serialize(T obj, ByteBuf out) {
+        if (obj == null) {
+            throw new SerializerException("serialize object is null");
+        }
+        if (obj instanceof RpcRequest) {
+            writeRequest(out, (RpcRequest) obj);
+        } else if (obj instanceof RpcResponse) {
+            writeResponse(out, (RpcResponse) obj);
+        } else {
+            writeValue(out, obj, fallbackSupplier);
+        }
+    }
+
+    /**
+     * 反序列化指定字节数据为指定类的对象
+     *
+     * @param data 字节数据
+     * @param cls  指定的类
+     * @return 反序列化后的对象
+     * @throws SerializerException 如果反序列化过程中发生异常，抛出此异常
+     */
+    @Override
+    public <T> T deserialize(byte[] data, Class<T> cls) {
+        if (data == null) {
+            throw new SerializerException("deserialize data is null");
+        }
+        return deserialize(Unpooled.wrappedBuffer(data), cls);
+    }
+
+    /**
+     * 直接从ByteBuf中反序列化指定类的对象
+     *
+     * @param in  待反序列化的ByteBuf
+     * @param cls 指定的类
+     * @return 反序列化后的对象
+     * @throws SerializerException 如果反序列化过程中发生异常，抛出此异常
+     */
+    @Override
+    public <T> T deserialize(ByteBuf in, Class<T> cls) {
+        if (in == null) {
+            throw new SerializerException("deserialize data is null");
+        }
+        try {
+            if (cls == RpcRequest.class) {
+                return cls.cast(readRequest(in));
+            }
+            if (cls == RpcResponse.class) {
+                return cls.cast(readResponse(in));
+            }
+            return (T) readValue(in, fallbackSupplier);
+        } catch (IndexOutOfBoundsException e) {
+            throw new SerializerException("deserialize data is truncated", e);
+        }
+    }
+
+    private void writeRequest(ByteBuf out, RpcRequest request) {
+        out.writeByte(flags(request.getOneway(), request.getAsync()));
+        writeVarInt(out, request.getMethodId());
+        writeString(out, request.getClassName());
+        writeString(out, request.getMethodName());
+        writeString(out, request.getVersion());
+        writeString(out, request.getGroup());
+        Class<?>[] parameterTypes = request.getParameterTypes();
+        if (parameterTypes == null) {
+            out.writeByte(0);
+        } else {
+            writeVarInt(out, parameterTypes.length + 1);
+            for (Class<?> parameterType : parameterTypes) {
+                writeType(out, parameterType);
+            }
+        }
+        Object[] parameters = request.getParameters();
+        if (parameters == null) {
+            out.writeByte(0);
+        } else {
+            writeVarInt(out, parameters.length + 1);
+            for (Object parameter : parameters) {
+                writeValue(out, parameter, fallbackSupplier);
+            }
+        }
+    }
+
+    private RpcRequest readRequest(ByteBuf in) {
+        RpcRequest request = RpcRequest.newInstance();
+        byte flags = in.readByte();
+        request.setOneway((flags & FLAG_ONEWAY) != 0);
+        request.setAsync((flags & FLAG_ASYNC) != 0);
+        request.setMethodId(readVarInt(in));
+        request.setClassName(readString(in));
+        request.setMethodName(readString(in));
+        request.setVersion(readString(in));
+        request.setGroup(readString(in));
+        int typeCount = readVarInt(in) - 1;
+        if (typeCount != -1) {
+            checkLength(in, typeCount, 1);
+            Class<?>[] parameterTypes = new Class<?>[typeCount];
+            for (int i = 0; i < typeCount; i++) {
+                parameterTypes[i] = readType(in);
+            }
+            request.setParameterTypes(parameterTypes);
+        }
+        int parameterCount = readVarInt(in) - 1;
+        if (parameterCount != -1) {
+            checkLength(in, parameterCount, 1);
+            Object[] parameters = new Object[parameterCount];
+            for (int i = 0; i < parameterCount; i++) {
+                parameters[i] = readValue(in, fallbackSupplier);
+            }
+            request.setParameters(parameters);
+        }
+        return request;
+    }
+
+    private void writeResponse(ByteBuf out, RpcResponse response) {
+        out.writeByte(flags(response.getOneway(), response.getAsync()));
+        writeString(out, response.getError());
+        writeValue(out, response.getResult(), fallbackSupplier);
+    }
+
+    private RpcResponse readResponse(ByteBuf in) {
+        RpcResponse response = RpcResponse.newInstance();
+        byte flags = in.readByte();
+        response.setOneway((flags & FLAG_ONEWAY) != 0);
+        response.setAsync((flags & FLAG_ASYNC) != 0);
+        response.setError(readString(in));
+        response.setResult(readValue(in, fallbackSupplier));
+        return response;
+    }
+
+    private static int flags(boolean oneway, boolean async) {
+        return (oneway ? FLAG_ONEWAY : 0) | (async ? FLAG_ASYNC : 0);
+    }
+
+    private Serialization getFallback() {
+        Serialization serialization = fallback;
+        if (serialization == null) {
+            String type = System.getProperty(FALLBACK_PROPERTY, RpcConstants.SERIALIZATION_HESSIAN2);
+            if (!SerializationFactory.contains(type)) {
+                type = RpcConstants.SERIALIZATION_JDK;
+            }
+            if (RpcConstants.SERIALIZATION_FAST.equals(type)) {
+                throw new SerializerException("fast serialization can not be its own fallback");
+            }
+            serialization = SerializationFactory.getSerialization(type);
+            fallback = serialization;
+        }
+        return serialization;
+    }
+}
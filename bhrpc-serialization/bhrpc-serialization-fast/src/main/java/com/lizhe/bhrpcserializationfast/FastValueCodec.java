@@ -0,0 +1,439 @@
+package com.lizhe.bhrpcserializationfast;
+
+import com.lizhe.bhrpccommon.exception.SerializerException;
+import com.lizhe.bhrpcserialzationapi.Serialization;
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.ByteBufUtil;
+import io.netty.util.CharsetUtil;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+
+/**
+ * FastValueCodec
+ * {@code @description} fast序列化使用的基础编码
+ * 1. int和long使用zigzag变长编码，小数值只占1到2个字节
+ * 2. 字符串写入变长的UTF-8字节长度后直接写入UTF-8字节，长度为0表示null
+ * 3. 值前面写入1字节类型标签，基本类型、字符串和基本类型数组直接编码，不装箱
+ * 4. 其他对象写入类名，再写入兜底序列化的长度和结果
+ *
+ * @author lizhe@joysuch.com
+ * {@code @date} 2025/3/10 上午10:05
+ * @version 1.0
+ */
+final class FastValueCodec {
+
+    static final byte TAG_NULL = 0;
+    static final byte TAG_TRUE = 1;
+    static final byte TAG_FALSE = 2;
+    static final byte TAG_BYTE = 3;
+    static final byte TAG_SHORT = 4;
+    static final byte TAG_CHAR = 5;
+    static final byte TAG_INT = 6;
+    static final byte TAG_LONG = 7;
+    static final byte TAG_FLOAT = 8;
+    static final byte TAG_DOUBLE = 9;
+    static final byte TAG_STRING = 10;
+    static final byte TAG_BYTE_ARRAY = 11;
+    static final byte TAG_INT_ARRAY = 12;
+    static final byte TAG_LONG_ARRAY = 13;
+    static final byte TAG_DOUBLE_ARRAY = 14;
+    static final byte TAG_FLOAT_ARRAY = 15;
+    static final byte TAG_BOOLEAN_ARRAY = 16;
+    static final byte TAG_SHORT_ARRAY = 17;
+    static final byte TAG_CHAR_ARRAY = 18;
+    static final byte TAG_STRING_ARRAY = 19;
+    static final byte TAG_OBJECT = 20;
+
+    /**
+     * 参数类型中常见的类型，按下标编码，下标+1写入报文，0表示后面跟随类名
+     * 只能在末尾追加，不能调整已有顺序
+     */
+    private static final Class<?>[] KNOWN_TYPES = {
+            boolean.class, byte.class, short.class, char.class, int.class, long.class, float.class, double.class,
+            Boolean.class, Byte.class, Short.class, Character.class, Integer.class, Long.class, Float.class, Double.class,
+            String.class, Object.class,
+            boolean[].class, byte[].class, short[].class, char[].class, int[].class, long[].class, float[].class, double[].class,
+            String[].class, Object[].class
+    };
+
+    private static final Map<Class<?>, Integer> KNOWN_TYPE_INDEX = new HashMap<>();
+
+    private static final Map<String, Class<?>> PRIMITIVE_TYPES = new HashMap<>();
+
+    private static final Map<String, Class<?>> CLASS_CACHE = new ConcurrentHashMap<>();
+
+    static {
+        for (int i = 0; i < KNOWN_TYPES.length; i++) {
+            KNOWN_TYPE_INDEX.put(KNOWN_TYPES[i], i);
+            if (KNOWN_TYPES[i].isPrimitive()) {
+                PRIMITIVE_TYPES.put(KNOWN_TYPES[i].getName(), KNOWN_TYPES[i]);
+            }
+        }
+        PRIMITIVE_TYPES.put(void.class.getName(), void.class);
+    }
+
+    private FastValueCodec() {
+    }
+
+    static void writeVarInt(ByteBuf out, int value) {
+        while ((value & ~0x7F) != 0) {
+            out.writeByte((value & 0x7F) | 0x80);
+            value >>>= 7;
+        }
+        out.writeByte(value);
+    }
+
+    static int readVarInt(ByteBuf in) {
+        int result = 0;
+        for (int shift = 0; shift < 32; shift += 7) {
+            byte b = in.readByte();
+            result |= (b & 0x7F) << shift;
+            if (b >= 0) {
+                return result;
+            }
+        }
+        throw new SerializerException("malformed varint");
+    }
+
+    static void writeVarLong(ByteBuf out, long value) {
+        while ((value & ~0x7FL) != 0) {
+            out.writeByte((int) ((value & 0x7F) | 0x80));
+            value >>>= 7;
+        }
+        out.writeByte((int) value);
+    }
+
+    static long readVarLong(ByteBuf in) {
+        long result = 0;
+        for (int shift = 0; shift < 64; shift += 7) {
+            byte b = in.readByte();
+            result |= (long) (b & 0x7F) << shift;
+            if (b >= 0) {
+                return result;
+            }
+        }
+        throw new SerializerException("malformed varlong");
+    }
+
+    static void writeZigZagInt(ByteBuf out, int value) {
+        writeVarInt(out, (value << 1) ^ (value >> 31));
+    }
+
+    static int readZigZagInt(ByteBuf in) {
+        int value = readVarInt(in);
+        return (value >>> 1) ^ -(value & 1);
+    }
+
+    static void writeZigZagLong(ByteBuf out, long value) {
+        writeVarLong(out, (value << 1) ^ (value >> 63));
+    }
+
+    static long readZigZagLong(ByteBuf in) {
+        long value = readVarLong(in);
+        return (value >>> 1) ^ -(value & 1);
+    }
+
+    /**
+     * 写入字符串，长度加1后写入，0表示null
+     */
+    static void writeString(ByteBuf out, String value) {
+        if (value == null) {
+            out.writeByte(0);
+            return;
+        }
+        writeVarInt(out, ByteBufUtil.utf8Bytes(value) + 1);
+        ByteBufUtil.writeUtf8(out, value);
+    }
+
+    static String readString(ByteBuf in) {
+        int length = readVarInt(in) - 1;
+        if (length == -1) {
+            return null;
+        }
+        checkLength(in, length, 1);
+        String value = in.toString(in.readerIndex(), length, CharsetUtil.UTF_8);
+        in.skipBytes(length);
+        return value;
+    }
+
+    /**
+     * 读取数组长度
+     *
+     * @param minElementSize 每个元素编码后的最小字节数
+     */
+    static int readLength(ByteBuf in, int minElementSize) {
+        int length = readVarInt(in);
+        checkLength(in, length, minElementSize);
+        return length;
+    }
+
+    /**
+     * 在按长度分配数组或读取字节前校验报文中的长度，长度为负数或超过剩余字节数能容纳的元素个数时说明报文已损坏
+     *
+     * @param minElementSize 每个元素编码后的最小字节数
+     * @throws SerializerException 长度不合法
+     */
+    static void checkLength(ByteBuf in, int length, int minElementSize) {
+        if (length < 0 || length > in.readableBytes() / minElementSize) {
+            throw new SerializerException("malformed length " + length + ", readable bytes " + in.readableBytes());
+        }
+    }
+
+    /**
+     * 写入类型，常见类型只写下标，其他类型写入类名
+     */
+    static void writeType(ByteBuf out, Class<?> type) {
+        Integer index = KNOWN_TYPE_INDEX.get(type);
+        if (index != null) {
+            writeVarInt(out, index + 1);
+        } else {
+            out.writeByte(0);
+            writeString(out, type.getName());
+        }
+    }
+
+    static Class<?> readType(ByteBuf in) {
+        int index = readVarInt(in);
+        if (index > 0) {
+            if (index > KNOWN_TYPES.length) {
+                throw new SerializerException("unknown type index: " + index);
+            }
+            return KNOWN_TYPES[index - 1];
+        }
+        return forName(readString(in));
+    }
+
+    /**
+     * 写入带类型标签的值，复杂对象交给兜底序列化
+     */
+    static void writeValue(ByteBuf out, Object value, Supplier<Serialization> fallback) {
+        if (value == null) {
+            out.writeByte(TAG_NULL);
+        } else if (value instanceof String) {
+            out.writeByte(TAG_STRING);
+            writeString(out, (String) value);
+        } else if (value instanceof Integer) {
+            out.writeByte(TAG_INT);
+            writeZigZagInt(out, (Integer) value);
+        } else if (value instanceof Long) {
+            out.writeByte(TAG_LONG);
+            writeZigZagLong(out, (Long) value);
+        } else if (value instanceof Boolean) {
+            out.writeByte((Boolean) value ? TAG_TRUE : TAG_FALSE);
+        } else if (value instanceof Double) {
+            out.writeByte(TAG_DOUBLE);
+            out.writeDouble((Double) value);
+        } else if (value instanceof Float) {
+            out.writeByte(TAG_FLOAT);
+            out.writeFloat((Float) value);
+        } else if (value instanceof Byte) {
+            out.writeByte(TAG_BYTE);
+            out.writeByte((Byte) value);
+        } else if (value instanceof Short) {
+            out.writeByte(TAG_SHORT);
+            writeZigZagInt(out, (Short) value);
+        } else if (value instanceof Character) {
+            out.writeByte(TAG_CHAR);
+            writeVarInt(out, (Character) value);
+        } else if (value.getClass().isArray() && writeArray(out, value)) {
+            return;
+        } else {
+            out.writeByte(TAG_OBJECT);
+            writeString(out, value.getClass().getName());
+            // 预留4字节长度，兜底序列化直接写入当前缓冲区后回填
+            int lengthIndex = out.writerIndex();
+            out.writeInt(0);
+            fallback.get().serialize(value, out);
+            out.setInt(lengthIndex, out.writerIndex() - lengthIndex - 4);
+        }
+    }
+
+    /**
+     * 写入基本类型数组和字符串数组，其他数组返回false由兜底序列化处理
+     */
+    private static boolean writeArray(ByteBuf out, Object value) {
+        if (value instanceof byte[]) {
+            byte[] array = (byte[]) value;
+            out.writeByte(TAG_BYTE_ARRAY);
+            writeVarInt(out, array.length);
+            out.writeBytes(array);
+        } else if (value instanceof int[]) {
+            int[] array = (int[]) value;
+            out.writeByte(TAG_INT_ARRAY);
+            writeVarInt(out, array.length);
+            for (int v : array) {
+                writeZigZagInt(out, v);
+            }
+        } else if (value instanceof long[]) {
+            long[] array = (long[]) value;
+            out.writeByte(TAG_LONG_ARRAY);
+            writeVarInt(out, array.length);
+            for (long v : array) {
+                writeZigZagLong(out, v);
+            }
+        } else if (value instanceof double[]) {
+            double[] array = (double[]) value;
+            out.writeByte(TAG_DOUBLE_ARRAY);
+            writeVarInt(out, array.length);
+            for (double v : array) {
+                out.writeDouble(v);
+            }
+        } else if (value instanceof float[]) {
+            float[] array = (float[]) value;
+            out.writeByte(TAG_FLOAT_ARRAY);
+            writeVarInt(out, array.length);
+            for (float v : array) {
+                out.writeFloat(v);
+            }
+        } else if (value instanceof boolean[]) {
+            boolean[] array = (boolean[]) value;
+            out.writeByte(TAG_BOOLEAN_ARRAY);
+            writeVarInt(out, array.length);
+            for (boolean v : array) {
+                out.writeBoolean(v);
+            }
+        } else if (value instanceof short[]) {
+            short[] array = (short[]) value;
+            out.writeByte(TAG_SHORT_ARRAY);
+            writeVarInt(out, array.length);
+            for (short v : array) {
+                writeZigZagInt(out, v);
+            }
+        } else if (value instanceof char[]) {
+            char[] array = (char[]) value;
+            out.writeByte(TAG_CHAR_ARRAY);
+            writeVarInt(out, array.length);
+            for (char v : array) {
+                writeVarInt(out, v);
+            }
+        } else if (value instanceof String[]) {
+            String[] array = (String[]) value;
+            out.writeByte(TAG_STRING_ARRAY);
+            writeVarInt(out, array.length);
+            for (String v : array) {
+                writeString(out, v);
+            }
+        } else {
+            return false;
+        }
+        return true;
+    }
+
+    static Object readValue(ByteBuf in, Supplier<Serialization> fallback) {
+        byte tag = in.readByte();
+        switch (tag) {
+            case TAG_NULL:
+                return null;
+            case TAG_TRUE:
+                return Boolean.TRUE;
+            case TAG_FALSE:
+                return Boolean.FALSE;
+            case TAG_BYTE:
+                return in.readByte();
+            case TAG_SHORT:
+                return (short) readZigZagInt(in);
+            case TAG_CHAR:
+                return (char) readVarInt(in);
+            case TAG_INT:
+                return readZigZagInt(in);
+            case TAG_LONG:
+                return readZigZagLong(in);
+            case TAG_FLOAT:
+                return in.readFloat();
+            case TAG_DOUBLE:
+                return in.readDouble();
+            case TAG_STRING:
+                return readString(in);
+            case TAG_BYTE_ARRAY: {
+                byte[] array = new byte[readLength(in, 1)];
+                in.readBytes(array);
+                return array;
+            }
+            case TAG_INT_ARRAY: {
+                int[] array = new int[readLength(in, 1)];
+                for (int i = 0; i < array.length; i++) {
+                    array[i] = readZigZagInt(in);
+                }
+                return array;
+            }
+            case TAG_LONG_ARRAY: {
+                long[] array = new long[readLength(in, 1)];
+                for (int i = 0; i < array.length; i++) {
+                    array[i] = readZigZagLong(in);
+                }
+                return array;
+            }
+            case TAG_DOUBLE_ARRAY: {
+                double[] array = new double[readLength(in, Double.BYTES)];
+                for (int i = 0; i < array.length; i++) {
+                    array[i] = in.readDouble();
+                }
+                return array;
+            }
+            case TAG_FLOAT_ARRAY: {
+                float[] array = new float[readLength(in, Float.BYTES)];
+                for (int i = 0; i < array.length; i++) {
+                    array[i] = in.readFloat();
+                }
+                return array;
+            }
+            case TAG_BOOLEAN_ARRAY: {
+                boolean[] array = new boolean[readLength(in, 1)];
+                for (int i = 0; i < array.length; i++) {
+                    array[i] = in.readBoolean();
+                }
+                return array;
+            }
+            case TAG_SHORT_ARRAY: {
+                short[] array = new short[readLength(in, 1)];
+                for (int i = 0; i < array.length; i++) {
+                    array[i] = (short) readZigZagInt(in);
+                }
+                return array;
+            }
+            case TAG_CHAR_ARRAY: {
+                char[] array = new char[readLength(in, 1)];
+                for (int i = 0; i < array.length; i++) {
+                    array[i] = (char) readVarInt(in);
+                }
+                return array;
+            }
+            case TAG_STRING_ARRAY: {
+                String[] array = new String[readLength(in, 1)];
+                for (int i = 0; i < array.length; i++) {
+                    array[i] = readString(in);
+                }
+                return array;
+            }
+            case TAG_OBJECT: {
+                Class<?> type = forName(readString(in));
+                int length = in.readInt();
+                checkLength(in, length, 1);
+                return fallback.get().deserialize(in.readSlice(length), type);
+            }
+            default:
+                throw new SerializerException("unknown value tag: " + tag);
+        }
+    }
+
+    private static Class<?> forName(String className) {
+        Class<?> type = PRIMITIVE_TYPES.get(className);
+        if (type != null) {
+            return type;
+        }
+        type = CLASS_CACHE.get(className);
+        if (type == null) {
+            try {
+                ClassLoader classLoader = Thread.currentThread().getContextClassLoader();
+                type = Class.forName(className, false, classLoader == null ? FastValueCodec.class.getClassLoader() : classLoader);
+            } catch (ClassNotFoundException e) {
+                throw new SerializerException("class not found: " + className, e);
+            }
+            CLASS_CACHE.put(className, type);
+        }
+        return type;
+    }
+}
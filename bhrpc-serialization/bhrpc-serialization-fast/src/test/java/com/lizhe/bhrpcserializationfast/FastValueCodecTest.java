@@ -0,0 +1,186 @@
+package com.lizhe.bhrpcserializationfast;
+
+import com.lizhe.bhrpccommon.exception.SerializerException;
+import com.lizhe.bhrpcprotocol.request.RpcRequest;
+import com.lizhe.bhrpcprotocol.response.RpcResponse;
+import com.lizhe.bhrpcserialzationapi.Serialization;
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.Unpooled;
+import org.junit.Test;
+
+import java.util.function.Supplier;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+/**
+ * FastValueCodecTest
+ * {@code @description} fast序列化编解码测试，包括正常报文的往返和长度异常的报文
+ *
+ * @author lizhe@joysuch.com
+ * {@code @date} 2025/3/28 上午10:15
+ * @version 1.0
+ */
+public class FastValueCodecTest {
+
+    /**
+     * 测试中只使用可直接编码的值，不需要兜底序列化
+     */
+    private static final Supplier<Serialization> NO_FALLBACK = () -> {
+        throw new AssertionError("fallback serialization is not expected");
+    };
+
+    @Test
+    public void testValueRoundTrip() {
+        Object[] values = {
+                null, true, false, (byte) -7, (short) -300, 'x', 0, -1, Integer.MIN_VALUE, Integer.MAX_VALUE,
+                Long.MIN_VALUE, 123456789012L, 1.5f, -2.25d, "", "bhrpc", "中文字符串"
+        };
+        for (Object value : values) {
+            assertEquals(value, roundTrip(value));
+        }
+        assertArrayEquals(new byte[]{1, -2, 3}, (byte[]) roundTrip(new byte[]{1, -2, 3}));
+        assertArrayEquals(new int[]{0, -1, Integer.MAX_VALUE}, (int[]) roundTrip(new int[]{0, -1, Integer.MAX_VALUE}));
+        assertArrayEquals(new long[]{Long.MIN_VALUE, 7}, (long[]) roundTrip(new long[]{Long.MIN_VALUE, 7}));
+        assertArrayEquals(new double[]{1.25, -3}, (double[]) roundTrip(new double[]{1.25, -3}), 0);
+        assertArrayEquals(new float[]{1.25f, -3f}, (float[]) roundTrip(new float[]{1.25f, -3f}), 0);
+        assertArrayEquals(new boolean[]{true, false}, (boolean[]) roundTrip(new boolean[]{true, false}));
+        assertArrayEquals(new short[]{Short.MIN_VALUE, 1}, (short[]) roundTrip(new short[]{Short.MIN_VALUE, 1}));
+        assertArrayEquals(new char[]{'a', '中'}, (char[]) roundTrip(new char[]{'a', '中'}));
+        assertArrayEquals(new String[]{"a", null, ""}, (String[]) roundTrip(new String[]{"a", null, ""}));
+        assertArrayEquals(new int[0], (int[]) roundTrip(new int[0]));
+    }
+
+    @Test
+    public void testRequestAndResponseRoundTrip() {
+        FastSerialization serialization = new FastSerialization();
+        RpcRequest request = new RpcRequest();
+        request.setClassName("com.lizhe.bhrpctest.DemoService");
+        request.setMethodName("hello");
+        request.setVersion("1.0.0");
+        request.setGroup("binghe");
+        request.setParameterTypes(new Class<?>[]{String.class, int.class, long[].class});
+        request.setParameters(new Object[]{"binghe", 3, new long[]{1, 2}});
+        request.setAsync(true);
+
+        RpcRequest decoded = serialization.deserialize(serialization.serialize(request), RpcRequest.class);
+        assertEquals(request.getClassName(), decoded.getClassName());
+        assertEquals(request.getMethodName(), decoded.getMethodName());
+        assertEquals(request.getVersion(), decoded.getVersion());
+        assertEquals(request.getGroup(), decoded.getGroup());
+        assertArrayEquals(request.getParameterTypes(), decoded.getParameterTypes());
+        assertEquals("binghe", decoded.getParameters()[0]);
+        assertEquals(3, decoded.getParameters()[1]);
+        assertArrayEquals(new long[]{1, 2}, (long[]) decoded.getParameters()[2]);
+        assertTrue(decoded.getAsync());
+
+        RpcResponse response = new RpcResponse();
+        response.setResult("hello binghe");
+        RpcResponse decodedResponse = serialization.deserialize(serialization.serialize(response), RpcResponse.class);
+        assertEquals("hello binghe", decodedResponse.getResult());
+        assertNull(decodedResponse.getError());
+    }
+
+    @Test
+    public void testNegativeArrayLength() {
+        ByteBuf in = Unpooled.buffer();
+        in.writeByte(FastValueCodec.TAG_INT_ARRAY);
+        FastValueCodec.writeVarInt(in, -1);
+        assertMalformed(in);
+    }
+
+    @Test
+    public void testArrayLengthLargerThanReadableBytes() {
+        byte[] tags = {
+                FastValueCodec.TAG_BYTE_ARRAY, FastValueCodec.TAG_INT_ARRAY, FastValueCodec.TAG_LONG_ARRAY,
+                FastValueCodec.TAG_DOUBLE_ARRAY, FastValueCodec.TAG_FLOAT_ARRAY, FastValueCodec.TAG_BOOLEAN_ARRAY,
+                FastValueCodec.TAG_SHORT_ARRAY, FastValueCodec.TAG_CHAR_ARRAY, FastValueCodec.TAG_STRING_ARRAY
+        };
+        for (byte tag : tags) {
+            ByteBuf in = Unpooled.buffer();
+            in.writeByte(tag);
+            FastValueCodec.writeVarInt(in, Integer.MAX_VALUE);
+            in.writeZero(16);
+            assertMalformed(in);
+        }
+    }
+
+    @Test
+    public void testDoubleArrayLengthCheckedByElementSize() {
+        // 剩余16个字节只能容纳2个double
+        ByteBuf in = Unpooled.buffer();
+        in.writeByte(FastValueCodec.TAG_DOUBLE_ARRAY);
+        FastValueCodec.writeVarInt(in, 3);
+        in.writeZero(16);
+        assertMalformed(in);
+    }
+
+    @Test
+    public void testStringLengthLargerThanReadableBytes() {
+        ByteBuf in = Unpooled.buffer();
+        in.writeByte(FastValueCodec.TAG_STRING);
+        FastValueCodec.writeVarInt(in, 100);
+        in.writeBytes("bhrpc".getBytes());
+        assertMalformed(in);
+    }
+
+    @Test
+    public void testNegativeStringLength() {
+        ByteBuf in = Unpooled.buffer();
+        in.writeByte(FastValueCodec.TAG_STRING);
+        FastValueCodec.writeVarInt(in, -5);
+        assertMalformed(in);
+    }
+
+    @Test
+    public void testObjectLengthLargerThanReadableBytes() {
+        ByteBuf in = Unpooled.buffer();
+        in.writeByte(FastValueCodec.TAG_OBJECT);
+        FastValueCodec.writeString(in, String.class.getName());
+        in.writeInt(Integer.MAX_VALUE);
+        assertMalformed(in);
+    }
+
+    @Test
+    public void testRequestParameterCountLargerThanReadableBytes() {
+        ByteBuf in = Unpooled.buffer();
+        in.writeByte(0);
+        FastValueCodec.writeVarInt(in, 0);
+        for (int i = 0; i < 4; i++) {
+            FastValueCodec.writeString(in, "a");
+        }
+        FastValueCodec.writeVarInt(in, Integer.MAX_VALUE);
+        try {
+            new FastSerialization().deserialize(in, RpcRequest.class);
+            fail("malformed request should be rejected");
+        } catch (SerializerException e) {
+            // expected
+        }
+    }
+
+    private static Object roundTrip(Object value) {
+        ByteBuf buf = Unpooled.buffer();
+        try {
+            FastValueCodec.writeValue(buf, value, NO_FALLBACK);
+            Object result = FastValueCodec.readValue(buf, NO_FALLBACK);
+            assertEquals(0, buf.readableBytes());
+            return result;
+        } finally {
+            buf.release();
+        }
+    }
+
+    private static void assertMalformed(ByteBuf in) {
+        try {
+            FastValueCodec.readValue(in, NO_FALLBACK);
+            fail("malformed value should be rejected");
+        } catch (SerializerException e) {
+            // expected
+        } finally {
+            in.release();
+        }
+    }
+}
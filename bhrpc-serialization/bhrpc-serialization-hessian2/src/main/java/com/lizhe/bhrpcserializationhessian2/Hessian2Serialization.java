@@ -0,0 +1,153 @@
+package com.lizhe.bhrpcserializationhessian2;
+
+import com.caucho.hessian.io.Hessian2Input;
+import com.caucho.hessian.io.Hessian2Output;
+import com.caucho.hessian.io.SerializerFactory;
+import com.lizhe.bhrpccommon.exception.SerializerException;
+import com.lizhe.bhrpcconstants.RpcConstants;
+import com.lizhe.bhrpcserialzationapi.Serialization;
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.ByteBufInputStream;
+import io.netty.buffer.ByteBufOutputStream;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+
+/**
+ * Hessian2Serialization
+ * {@code @description} Hessian2序列化实现类
+ * 1. 所有线程共享一个SerializerFactory，每个类的序列化器只创建一次
+ * 2. 每个线程复用一个Hessian2Output和Hessian2Input，每次使用前通过init重新绑定流并清空引用表
+ * 3. 允许序列化未实现Serializable接口的类，与其他序列化方式保持一致
+ *
+ * @author lizhe@joysuch.com
+ * {@code @date} 2025/3/7 上午9:26
+ * @version 1.0
+ */
+public class Hessian2Serialization implements Serialization {
+
+    /**
+     * 共享的序列化器工厂，内部缓存了类与序列化器的映射关系
+     */
+    private static final SerializerFactory SERIALIZER_FACTORY = new SerializerFactory();
+
+    static {
+        SERIALIZER_FACTORY.setAllowNonSerializable(true);
+    }
+
+    /**
+     * 线程复用的Hessian2Output
+     */
+    private static final ThreadLocal<Hessian2Output> OUTPUT_THREAD_LOCAL = ThreadLocal.withInitial(() -> {
+        Hessian2Output output = new Hessian2Output();
+        output.setSerializerFactory(SERIALIZER_FACTORY);
+        return output;
+    });
+
+    /**
+     * 线程复用的Hessian2Input
+     */
+    private static final ThreadLocal<Hessian2Input> INPUT_THREAD_LOCAL = ThreadLocal.withInitial(() -> {
+        Hessian2Input input = new Hessian2Input();
+        input.setSerializerFactory(SERIALIZER_FACTORY);
+        return input;
+    });
+
+    @Override
+    public String getType() {
+        return RpcConstants.SERIALIZATION_HESSIAN2;
+    }
+
+    /**
+     * 将给定的对象序列化为字节数组
+     *
+     * @param obj 待序列化的对象
+     * @return 序列化后的字节数组
+     * @throws SerializerException 如果序列化过程中发生错误或对象为null，则抛出此异常
+     */
+    @Override
+    public <T> byte[] serialize(T obj) {
+        if (obj == null) {
+            throw new SerializerException("serialize object is null");
+        }
+        ByteArrayOutputStream os = new ByteArrayOutputStream();
+        writeObject(obj, os);
+        return os.toByteArray();
+    }
+
+    /**
+     * 将给定的对象直接序列化到ByteBuf中
+     *
+     * @param obj 待序列化的对象
+     * @param out 出站缓冲区
+     * @throws SerializerException 如果序列化过程中发生错误或对象为null，则抛出此异常
+     */
+    @Override
+    public <T> void serialize(T obj, ByteBuf out) {
+        if (obj == null) {
+            throw new SerializerException("serialize object is null");
+        }
+        writeObject(obj, new ByteBufOutputStream(out));
+    }
+
+    /**
+     * 反序列化指定字节数据为指定类的对象
+     *
+     * @param data 字节数据
+     * @param cls  指定的类
+     * @return 反序列化后的对象
+     * @throws SerializerException 如果反序列化过程中发生异常，抛出此异常
+     */
+    @Override
+    public <T> T deserialize(byte[] data, Class<T> cls) {
+        if (data == null) {
+            throw new SerializerException("deserialize data is null");
+        }
+        return readObject(new ByteArrayInputStream(data), cls);
+    }
+
+    /**
+     * 直接从ByteBuf中反序列化指定类的对象，不拷贝消息体
+     *
+     * @param in  待反序列化的ByteBuf
+     * @param cls 指定的类
+     * @return 反序列化后的对象
+     * @throws SerializerException 如果反序列化过程中发生异常，抛出此异常
+     */
+    @Override
+    public <T> T deserialize(ByteBuf in, Class<T> cls) {
+        if (in == null) {
+            throw new SerializerException("deserialize data is null");
+        }
+        return readObject(new ByteBufInputStream(in), cls);
+    }
+
+    private void writeObject(Object obj, OutputStream os) {
+        Hessian2Output output = OUTPUT_THREAD_LOCAL.get();
+        // init会清空上一次序列化留下的对象引用和类定义
+        output.init(os);
+        try {
+            output.writeObject(obj);
+            output.flushBuffer();
+        } catch (IOException e) {
+            throw new SerializerException(e.getMessage(), e);
+        } finally {
+            output.init(null);
+        }
+    }
+
+    private <T> T readObject(InputStream is, Class<T> cls) {
+        Hessian2Input input = INPUT_THREAD_LOCAL.get();
+        input.init(is);
+        try {
+            return (T) input.readObject(cls);
+        } catch (IOException e) {
+            throw new SerializerException(e.getMessage(), e);
+        } finally {
+            input.init(null);
+        }
+    }
+}
@@ -1,7 +1,11 @@
 package com.lizhe.bhrpcserializationjdk;
 
 import com.lizhe.bhrpccommon.exception.SerializerException;
+import com.lizhe.bhrpcconstants.RpcConstants;
 import com.lizhe.bhrpcserialzationapi.Serialization;
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.ByteBufInputStream;
+import io.netty.buffer.ByteBufOutputStream;
 
 import java.io.*;
 
@@ -14,6 +18,12 @@ import java.io.*;
  * @version 1.0
  */
 public class JdkSerialization implements Serialization {
+
+    @Override
+    public String getType() {
+        return RpcConstants.SERIALIZATION_JDK;
+    }
+
     /**
      * 将给定的对象序列化为字节数组
      * 该方法覆盖了父类的serialize方法，以实现自定义的序列化逻辑
@@ -43,6 +53,26 @@ public class JdkSerialization implements Serialization {
         }
     }
 
+    /**
+     * 将给定的对象直接序列化到ByteBuf中
+     * 通过ByteBufOutputStream包装出站缓冲区，ObjectOutputStream直接写入，省去ByteArrayOutputStream的扩容与拷贝
+     *
+     * @param obj 待序列化的对象，可以是任何类型
+     * @param out 出站缓冲区
+     * @throws SerializerException 如果序列化过程中发生错误或对象为null，则抛出此异常
+     */
+    @Override
+    public <T> void serialize(T obj, ByteBuf out) {
+        if (obj == null) {
+            throw new SerializerException("serialize object is null");
+        }
+        try (ObjectOutputStream oos = new ObjectOutputStream(new ByteBufOutputStream(out))) {
+            oos.writeObject(obj);
+        } catch (IOException e) {
+            throw new SerializerException(e.getMessage(), e);
+        }
+    }
+
     /**
      * 反序列化指定字节数据为指定类的对象
      *
@@ -70,4 +100,26 @@ public class JdkSerialization implements Serialization {
             throw new SerializerException(e.getMessage(), e);
         }
     }
+
+    /**
+     * 直接从ByteBuf中反序列化指定类的对象
+     * 通过ByteBufInputStream包装ByteBuf，ObjectInputStream直接读取缓冲区中的数据，不再拷贝出中间字节数组
+     *
+     * @param in  待反序列化的ByteBuf
+     * @param cls 指定的类，决定反序列化为何种类型的对象
+     * @param <T> 泛型参数，表示反序列化后的对象类型
+     * @return 反序列化后的对象，类型为指定的类
+     * @throws SerializerException 如果反序列化过程中发生异常，抛出此异常
+     */
+    @Override
+    public <T> T deserialize(ByteBuf in, Class<T> cls) {
+        if (in == null) {
+            throw new SerializerException("deserialize data is null");
+        }
+        try (ObjectInputStream ois = new ObjectInputStream(new ByteBufInputStream(in))) {
+            return (T) ois.readObject();
+        } catch (Exception e) {
+            throw new SerializerException(e.getMessage(), e);
+        }
+    }
 }
@@ -0,0 +1,38 @@
+package com.lizhe.bhrpcserializationjson;
+
+import com.fasterxml.jackson.databind.type.TypeFactory;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * ClassNameCache
+ * {@code @description} 类名与Class的映射缓存，避免每次反序列化参数类型和结果类型时都调用Class.forName
+ *
+ * @author lizhe@joysuch.com
+ * {@code @date} 2025/3/7 下午3:12
+ * @version 1.0
+ */
+final class ClassNameCache {
+
+    private static final Map<String, Class<?>> CLASS_CACHE = new ConcurrentHashMap<>();
+
+    private ClassNameCache() {
+    }
+
+    /**
+     * 根据类名获取Class，支持基本类型和数组类型
+     *
+     * @param className 类名，与Class.getName()的格式相同
+     * @return 对应的Class
+     * @throws ClassNotFoundException 类不存在时抛出
+     */
+    static Class<?> forName(String className) throws ClassNotFoundException {
+        Class<?> cls = CLASS_CACHE.get(className);
+        if (cls == null) {
+            cls = TypeFactory.defaultInstance().findClass(className);
+            CLASS_CACHE.put(className, cls);
+        }
+        return cls;
+    }
+}
@@ -0,0 +1,159 @@
+package com.lizhe.bhrpcserializationjson;
+
+import com.fasterxml.jackson.annotation.JsonAutoDetect;
+import com.fasterxml.jackson.annotation.PropertyAccessor;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.databind.module.SimpleModule;
+import com.lizhe.bhrpccommon.exception.SerializerException;
+import com.lizhe.bhrpcconstants.RpcConstants;
+import com.lizhe.bhrpcprotocol.request.RpcRequest;
+import com.lizhe.bhrpcprotocol.response.RpcResponse;
+import com.lizhe.bhrpcserialzationapi.Serialization;
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.ByteBufInputStream;
+import io.netty.buffer.ByteBufOutputStream;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * JsonSerialization
+ * {@code @description} Json序列化实现类，基于Jackson
+ * 1. ObjectMapper全局只创建一次，每个类型的ObjectReader和ObjectWriter创建后缓存复用
+ * 2. 按字段序列化，不依赖getter和setter的命名
+ * 3. RpcRequest的参数按照parameterTypes反序列化为实际类型，RpcResponse的结果携带类型信息，
+ * 服务提供者和服务消费者拿到的都是原有类型的对象而不是Map
+ *
+ * @author lizhe@joysuch.com
+ * {@code @date} 2025/3/7 下午3:12
+ * @version 1.0
+ */
+public class JsonSerialization implements Serialization {
+
+    private static final ObjectMapper OBJECT_MAPPER = new ObjectMapper();
+
+    private static final Map<Class<?>, ObjectReader> READER_CACHE = new ConcurrentHashMap<>();
+
+    private static final Map<Class<?>, ObjectWriter> WRITER_CACHE = new ConcurrentHashMap<>();
+
+    static {
+        OBJECT_MAPPER.setVisibility(PropertyAccessor.ALL, JsonAutoDetect.Visibility.NONE);
+        OBJECT_MAPPER.setVisibility(PropertyAccessor.FIELD, JsonAutoDetect.Visibility.ANY);
+        OBJECT_MAPPER.configure(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES, false);
+        OBJECT_MAPPER.configure(SerializationFeature.FAIL_ON_EMPTY_BEANS, false);
+        // 输出流由调用方管理，序列化完成后不关闭
+        OBJECT_MAPPER.configure(JsonGenerator.Feature.AUTO_CLOSE_TARGET, false);
+        SimpleModule module = new SimpleModule("bhrpc");
+        module.addSerializer(RpcRequest.class, new RpcRequestSerializer());
+        module.addDeserializer(RpcRequest.class, new RpcRequestDeserializer());
+        module.addSerializer(RpcResponse.class, new RpcResponseSerializer());
+        module.addDeserializer(RpcResponse.class, new RpcResponseDeserializer());
+        OBJECT_MAPPER.registerModule(module);
+    }
+
+    @Override
+    public String getType() {
+        return RpcConstants.SERIALIZATION_JSON;
+    }
+
+    /**
+     * 将给定的对象序列化为字节数组
+     *
+     * @param obj 待序列化的对象
+     * @return 序列化后的字节数组
+     * @throws SerializerException 如果序列化过程中发生错误或对象为null，则抛出此异常
+     */
+    @Override
+    public <T> byte[] serialize(T obj) {
+        if (obj == null) {
+            throw new SerializerException("serialize object is null");
+        }
+        try {
+            return getWriter(obj.getClass()).writeValueAsBytes(obj);
+        } catch (IOException e) {
+            throw new SerializerException(e.getMessage(), e);
+        }
+    }
+
+    /**
+     * 将给定的对象直接序列化到ByteBuf中
+     *
+     * @param obj 待序列化的对象
+     * @param out 出站缓冲区
+     * @throws SerializerException 如果序列化过程中发生错误或对象为null，则抛出此异常
+     */
+    @Override
+    public <T> void serialize(T obj, ByteBuf out) {
+        if (obj == null) {
+            throw new SerializerException("serialize object is null");
+        }
+        try {
+            // ByteBufOutputStream和ByteBufInputStream同时实现了DataOutput和DataInput，需要明确按流读写
+            getWriter(obj.getClass()).writeValue((OutputStream) new ByteBufOutputStream(out), obj);
+        } catch (IOException e) {
+            throw new SerializerException(e.getMessage(), e);
+        }
+    }
+
+    /**
+     * 反序列化指定字节数据为指定类的对象
+     *
+     * @param data 字节数据
+     * @param cls  指定的类
+     * @return 反序列化后的对象
+     * @throws SerializerException 如果反序列化过程中发生异常，抛出此异常
+     */
+    @Override
+    public <T> T deserialize(byte[] data, Class<T> cls) {
+        if (data == null) {
+            throw new SerializerException("deserialize data is null");
+        }
+        try {
+            return getReader(cls).readValue(data);
+        } catch (IOException e) {
+            throw new SerializerException(e.getMessage(), e);
+        }
+    }
+
+    /**
+     * 直接从ByteBuf中反序列化指定类的对象
+     * 堆内存缓冲区直接读取底层数组，堆外缓冲区通过ByteBufInputStream读取，均不拷贝消息体
+     *
+     * @param in  待反序列化的ByteBuf
+     * @param cls 指定的类
+     * @return 反序列化后的对象
+     * @throws SerializerException 如果反序列化过程中发生异常，抛出此异常
+     */
+    @Override
+    public <T> T deserialize(ByteBuf in, Class<T> cls) {
+        if (in == null) {
+            throw new SerializerException("deserialize data is null");
+        }
+        try {
+            if (in.hasArray()) {
+                T result = getReader(cls).readValue(in.array(), in.arrayOffset() + in.readerIndex(), in.readableBytes());
+                in.skipBytes(in.readableBytes());
+                return result;
+            }
+            return getReader(cls).readValue((InputStream) new ByteBufInputStream(in));
+        } catch (IOException e) {
+            throw new SerializerException(e.getMessage(), e);
+        }
+    }
+
+    private static ObjectReader getReader(Class<?> cls) {
+        return READER_CACHE.computeIfAbsent(cls, OBJECT_MAPPER::readerFor);
+    }
+
+    private static ObjectWriter getWriter(Class<?> cls) {
+        return WRITER_CACHE.computeIfAbsent(cls, OBJECT_MAPPER::writerFor);
+    }
+}
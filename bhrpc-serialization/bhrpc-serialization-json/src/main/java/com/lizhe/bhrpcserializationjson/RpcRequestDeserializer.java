@@ -0,0 +1,124 @@
+package com.lizhe.bhrpcserializationjson;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.core.ObjectCodec;
+import com.fasterxml.jackson.databind.DeserializationContext;
+import com.fasterxml.jackson.databind.JsonMappingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.deser.std.StdDeserializer;
+import com.lizhe.bhrpcprotocol.request.RpcRequest;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+import static com.lizhe.bhrpcserializationjson.RpcRequestSerializer.*;
+
+/**
+ * RpcRequestDeserializer
+ * {@code @description} RpcRequest的Json反序列化器，按照parameterTypes将参数直接读取为实际类型，
+ * 服务提供者反射调用前不需要再把Map转换为参数对象
+ * 如果报文中parameters出现在parameterTypes之前，先读取为JsonNode，等参数类型读取完后再转换
+ *
+ * @author lizhe@joysuch.com
+ * {@code @date} 2025/3/7 下午3:12
+ * @version 1.0
+ */
+class RpcRequestDeserializer extends StdDeserializer<RpcRequest> {
+
+    RpcRequestDeserializer() {
+        super(RpcRequest.class);
+    }
+
+    @Override
+    public RpcRequest deserialize(JsonParser p, DeserializationContext ctxt) throws IOException {
+        RpcRequest request = new RpcRequest();
+        JsonNode pendingParameters = null;
+        String field;
+        while ((field = p.nextFieldName()) != null) {
+            JsonToken token = p.nextToken();
+            switch (field) {
+                case FIELD_ONEWAY:
+                    request.setOneway(p.getValueAsBoolean());
+                    break;
+                case FIELD_ASYNC:
+                    request.setAsync(p.getValueAsBoolean());
+                    break;
+                case FIELD_CLASS_NAME:
+                    request.setClassName(p.getValueAsString());
+                    break;
+                case FIELD_METHOD_NAME:
+                    request.setMethodName(p.getValueAsString());
+                    break;
+                case FIELD_VERSION:
+                    request.setVersion(p.getValueAsString());
+                    break;
+                case FIELD_GROUP:
+                    request.setGroup(p.getValueAsString());
+                    break;
+                case FIELD_METHOD_ID:
+                    request.setMethodId(p.getValueAsInt());
+                    break;
+                case FIELD_PARAMETER_TYPES:
+                    request.setParameterTypes(readParameterTypes(p));
+                    break;
+                case FIELD_PARAMETERS:
+                    if (token != JsonToken.START_ARRAY) {
+                        break;
+                    }
+                    if (request.getParameterTypes() == null) {
+                        pendingParameters = p.readValueAsTree();
+                    } else {
+                        request.setParameters(readParameters(p, ctxt, request.getParameterTypes()));
+                    }
+                    break;
+                default:
+                    p.skipChildren();
+                    break;
+            }
+        }
+        if (pendingParameters != null) {
+            request.setParameters(convertParameters(pendingParameters, p.getCodec(), ctxt, request.getParameterTypes()));
+        }
+        return request;
+    }
+
+    private Class<?>[] readParameterTypes(JsonParser p) throws IOException {
+        if (p.currentToken() != JsonToken.START_ARRAY) {
+            return null;
+        }
+        List<Class<?>> parameterTypes = new ArrayList<>();
+        while (p.nextToken() != JsonToken.END_ARRAY) {
+            String className = p.getValueAsString();
+            try {
+                parameterTypes.add(ClassNameCache.forName(className));
+            } catch (ClassNotFoundException e) {
+                throw JsonMappingException.from(p, "parameter type not found: " + className, e);
+            }
+        }
+        return parameterTypes.toArray(new Class<?>[0]);
+    }
+
+    private Object[] readParameters(JsonParser p, DeserializationContext ctxt, Class<?>[] parameterTypes) throws IOException {
+        List<Object> parameters = new ArrayList<>(parameterTypes.length);
+        int index = 0;
+        while (p.nextToken() != JsonToken.END_ARRAY) {
+            Class<?> type = index < parameterTypes.length ? parameterTypes[index] : Object.class;
+            parameters.add(p.currentToken() == JsonToken.VALUE_NULL ? null : ctxt.readValue(p, type));
+            index++;
+        }
+        return parameters.toArray();
+    }
+
+    private Object[] convertParameters(JsonNode node, ObjectCodec codec, DeserializationContext ctxt, Class<?>[] parameterTypes) throws IOException {
+        Object[] parameters = new Object[node.size()];
+        for (int i = 0; i < parameters.length; i++) {
+            Class<?> type = parameterTypes != null && i < parameterTypes.length ? parameterTypes[i] : Object.class;
+            JsonParser p = node.get(i).traverse(codec);
+            p.nextToken();
+            parameters[i] = p.currentToken() == JsonToken.VALUE_NULL ? null : ctxt.readValue(p, type);
+        }
+        return parameters;
+    }
+}
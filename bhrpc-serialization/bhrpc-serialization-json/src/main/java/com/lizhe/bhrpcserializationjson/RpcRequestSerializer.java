@@ -0,0 +1,65 @@
+package com.lizhe.bhrpcserializationjson;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.SerializerProvider;
+import com.fasterxml.jackson.databind.ser.std.StdSerializer;
+import com.lizhe.bhrpcprotocol.request.RpcRequest;
+
+import java.io.IOException;
+
+/**
+ * RpcRequestSerializer
+ * {@code @description} RpcRequest的Json序列化器，固定字段顺序，保证parameterTypes写在parameters之前，
+ * 反序列化时可以直接按照参数类型读取参数
+ *
+ * @author lizhe@joysuch.com
+ * {@code @date} 2025/3/7 下午3:12
+ * @version 1.0
+ */
+class RpcRequestSerializer extends StdSerializer<RpcRequest> {
+
+    static final String FIELD_ONEWAY = "oneway";
+    static final String FIELD_ASYNC = "async";
+    static final String FIELD_CLASS_NAME = "className";
+    static final String FIELD_METHOD_NAME = "methodName";
+    static final String FIELD_VERSION = "version";
+    static final String FIELD_GROUP = "group";
+    static final String FIELD_PARAMETER_TYPES = "parameterTypes";
+    static final String FIELD_PARAMETERS = "parameters";
+    static final String FIELD_METHOD_ID = "methodId";
+
+    RpcRequestSerializer() {
+        super(RpcRequest.class);
+    }
+
+    @Override
+    public void serialize(RpcRequest request, JsonGenerator gen, SerializerProvider provider) throws IOException {
+        gen.writeStartObject();
+        gen.writeBooleanField(FIELD_ONEWAY, request.getOneway());
+        gen.writeBooleanField(FIELD_ASYNC, request.getAsync());
+        gen.writeStringField(FIELD_CLASS_NAME, request.getClassName());
+        gen.writeStringField(FIELD_METHOD_NAME, request.getMethodName());
+        gen.writeStringField(FIELD_VERSION, request.getVersion());
+        gen.writeStringField(FIELD_GROUP, request.getGroup());
+        if (request.getMethodId() != 0) {
+            gen.writeNumberField(FIELD_METHOD_ID, request.getMethodId());
+        }
+        Class<?>[] parameterTypes = request.getParameterTypes();
+        if (parameterTypes != null) {
+            gen.writeArrayFieldStart(FIELD_PARAMETER_TYPES);
+            for (Class<?> parameterType : parameterTypes) {
+                gen.writeString(parameterType.getName());
+            }
+            gen.writeEndArray();
+        }
+        Object[] parameters = request.getParameters();
+        if (parameters != null) {
+            gen.writeArrayFieldStart(FIELD_PARAMETERS);
+            for (Object parameter : parameters) {
+                provider.defaultSerializeValue(parameter, gen);
+            }
+            gen.writeEndArray();
+        }
+        gen.writeEndObject();
+    }
+}
@@ -0,0 +1,78 @@
+package com.lizhe.bhrpcserializationjson;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.DeserializationContext;
+import com.fasterxml.jackson.databind.JsonMappingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.deser.std.StdDeserializer;
+import com.lizhe.bhrpcprotocol.response.RpcResponse;
+
+import java.io.IOException;
+
+import static com.lizhe.bhrpcserializationjson.RpcResponseSerializer.*;
+
+/**
+ * RpcResponseDeserializer
+ * {@code @description} RpcResponse的Json反序列化器，按照resultType将结果读取为实际类型
+ *
+ * @author lizhe@joysuch.com
+ * {@code @date} 2025/3/7 下午3:12
+ * @version 1.0
+ */
+class RpcResponseDeserializer extends StdDeserializer<RpcResponse> {
+
+    RpcResponseDeserializer() {
+        super(RpcResponse.class);
+    }
+
+    @Override
+    public RpcResponse deserialize(JsonParser p, DeserializationContext ctxt) throws IOException {
+        RpcResponse response = new RpcResponse();
+        Class<?> resultType = null;
+        JsonNode pendingResult = null;
+        String field;
+        while ((field = p.nextFieldName()) != null) {
+            JsonToken token = p.nextToken();
+            switch (field) {
+                case FIELD_ONEWAY:
+                    response.setOneway(p.getValueAsBoolean());
+                    break;
+                case FIELD_ASYNC:
+                    response.setAsync(p.getValueAsBoolean());
+                    break;
+                case FIELD_ERROR:
+                    response.setError(p.getValueAsString());
+                    break;
+                case FIELD_RESULT_TYPE:
+                    String className = p.getValueAsString();
+                    try {
+                        resultType = ClassNameCache.forName(className);
+                    } catch (ClassNotFoundException e) {
+                        throw JsonMappingException.from(p, "result type not found: " + className, e);
+                    }
+                    break;
+                case FIELD_RESULT:
+                    if (token == JsonToken.VALUE_NULL) {
+                        break;
+                    }
+                    if (resultType == null) {
+                        pendingResult = p.readValueAsTree();
+                    } else {
+                        response.setResult(ctxt.readValue(p, resultType));
+                    }
+                    break;
+                default:
+                    p.skipChildren();
+                    break;
+            }
+        }
+        if (pendingResult != null) {
+            JsonParser resultParser = pendingResult.traverse(p.getCodec());
+            resultParser.nextToken();
+            Class<?> type = resultType == null ? Object.class : resultType;
+            response.setResult(ctxt.readValue(resultParser, type));
+        }
+        return response;
+    }
+}
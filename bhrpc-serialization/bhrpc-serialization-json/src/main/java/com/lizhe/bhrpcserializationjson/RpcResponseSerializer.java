@@ -0,0 +1,47 @@
+package com.lizhe.bhrpcserializationjson;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.SerializerProvider;
+import com.fasterxml.jackson.databind.ser.std.StdSerializer;
+import com.lizhe.bhrpcprotocol.response.RpcResponse;
+
+import java.io.IOException;
+
+/**
+ * RpcResponseSerializer
+ * {@code @description} RpcResponse的Json序列化器，在result之前写入结果的实际类型，
+ * 反序列化时直接读取为该类型
+ *
+ * @author lizhe@joysuch.com
+ * {@code @date} 2025/3/7 下午3:12
+ * @version 1.0
+ */
+class RpcResponseSerializer extends StdSerializer<RpcResponse> {
+
+    static final String FIELD_ONEWAY = "oneway";
+    static final String FIELD_ASYNC = "async";
+    static final String FIELD_ERROR = "error";
+    static final String FIELD_RESULT_TYPE = "resultType";
+    static final String FIELD_RESULT = "result";
+
+    RpcResponseSerializer() {
+        super(RpcResponse.class);
+    }
+
+    @Override
+    public void serialize(RpcResponse response, JsonGenerator gen, SerializerProvider provider) throws IOException {
+        gen.writeStartObject();
+        gen.writeBooleanField(FIELD_ONEWAY, response.getOneway());
+        gen.writeBooleanField(FIELD_ASYNC, response.getAsync());
+        if (response.getError() != null) {
+            gen.writeStringField(FIELD_ERROR, response.getError());
+        }
+        Object result = response.getResult();
+        if (result != null) {
+            gen.writeStringField(FIELD_RESULT_TYPE, result.getClass().getName());
+            gen.writeFieldName(FIELD_RESULT);
+            provider.defaultSerializeValue(result, gen);
+        }
+        gen.writeEndObject();
+    }
+}
@@ -0,0 +1,273 @@
+package com.lizhe.bhrpcserializationkryo;
+
+import com.esotericsoftware.kryo.Kryo;
+import com.esotericsoftware.kryo.io.ByteBufferInput;
+import com.esotericsoftware.kryo.io.Output;
+import com.esotericsoftware.kryo.util.DefaultInstantiatorStrategy;
+import com.esotericsoftware.kryo.util.Pool;
+import com.lizhe.bhrpccommon.exception.SerializerException;
+import com.lizhe.bhrpcconstants.RpcConstants;
+import com.lizhe.bhrpcprotocol.header.RpcHeader;
+import com.lizhe.bhrpcprotocol.request.RpcRequest;
+import com.lizhe.bhrpcprotocol.response.RpcResponse;
+import com.lizhe.bhrpcserialzationapi.Serialization;
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.ByteBufInputStream;
+import io.netty.buffer.ByteBufOutputStream;
+import org.objenesis.strategy.StdInstantiatorStrategy;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * KryoSerialization
+ * {@code @description} Kryo序列化实现类
+ * 1. Kryo实例不是线程安全的，使用有界的对象池复用Kryo实例，不再每次调用都创建
+ * 2. Output和Input同样池化复用，避免每次序列化都重新分配缓冲区
+ * 3. 预先注册RpcRequest、RpcResponse、RpcHeader等协议类，写入时只写注册ID而不是完整类名
+ * 用户的DTO类可以通过{@link #register(Class[])}或系统属性bhrpc.serialization.kryo.classes注册，
+ * 注册ID由注册顺序决定，服务提供者与服务消费者必须以相同的顺序注册相同的类
+ *
+ * @author lizhe@joysuch.com
+ * {@code @date} 2025/3/6 上午10:18
+ * @version 1.0
+ */
+public class KryoSerialization implements Serialization {
+
+    /**
+     * 用户DTO类的系统属性，多个类名以逗号分隔
+     */
+    public static final String REGISTER_CLASSES_PROPERTY = "bhrpc.serialization.kryo.classes";
+
+    /**
+     * 对象池中最多保留的空闲实例数
+     */
+    private static final int POOL_MAX_CAPACITY = 64;
+
+    /**
+     * Output初始缓冲区大小
+     */
+    private static final int BUFFER_SIZE = 4096;
+
+    /**
+     * 归还对象池时允许保留的最大缓冲区，超过的Output直接丢弃，避免偶发的大消息长期占用内存
+     */
+    private static final int MAX_POOLED_BUFFER_SIZE = 1024 * 1024;
+
+    /**
+     * 用户注册ID的起始值，小于此值的ID留给Kryo默认注册和协议类
+     */
+    private static final int USER_REGISTRATION_ID_START = 200;
+
+    private static final ByteBuffer EMPTY_BUFFER = ByteBuffer.allocate(0);
+
+    /**
+     * 用户注册的类，按注册顺序分配ID
+     */
+    private static final List<Class<?>> REGISTERED_CLASSES = new ArrayList<>();
+
+    /**
+     * 是否已经创建过Kryo实例，创建之后不再允许注册新的类
+     */
+    private static volatile boolean initialized;
+
+    private static final Pool<Kryo> KRYO_POOL = new Pool<Kryo>(true, false, POOL_MAX_CAPACITY) {
+        @Override
+        protected Kryo create() {
+            return createKryo();
+        }
+    };
+
+    private static final Pool<Output> OUTPUT_POOL = new Pool<Output>(true, false, POOL_MAX_CAPACITY) {
+        @Override
+        protected Output create() {
+            return new Output(BUFFER_SIZE, -1);
+        }
+    };
+
+    private static final Pool<ByteBufferInput> INPUT_POOL = new Pool<ByteBufferInput>(true, false, POOL_MAX_CAPACITY) {
+        @Override
+        protected ByteBufferInput create() {
+            return new ByteBufferInput(BUFFER_SIZE);
+        }
+    };
+
+    static {
+        String classNames = System.getProperty(REGISTER_CLASSES_PROPERTY);
+        if (classNames != null && !classNames.trim().isEmpty()) {
+            for (String className : classNames.split(",")) {
+                try {
+                    REGISTERED_CLASSES.add(Class.forName(className.trim()));
+                } catch (ClassNotFoundException e) {
+                    throw new SerializerException("kryo register class not found: " + className, e);
+                }
+            }
+        }
+    }
+
+    /**
+     * 注册用户的DTO类，必须在第一次序列化之前调用
+     *
+     * @param classes 需要注册的类
+     * @throws IllegalStateException 已经开始序列化之后再注册时抛出
+     */
+    public static synchronized void register(Class<?>... classes) {
+        if (initialized) {
+            throw new IllegalStateException("kryo classes must be registered before the first serialization");
+        }
+        Collections.addAll(REGISTERED_CLASSES, classes);
+    }
+
+    private static synchronized Kryo createKryo() {
+        initialized = true;
+        Kryo kryo = new Kryo();
+        // 未注册的类写入完整类名，保证任意用户类型都能序列化
+        kryo.setRegistrationRequired(false);
+        // 优先使用无参构造方法，不存在时通过Objenesis创建实例
+        kryo.setInstantiatorStrategy(new DefaultInstantiatorStrategy(new StdInstantiatorStrategy()));
+        kryo.register(RpcRequest.class, 100);
+        kryo.register(RpcResponse.class, 101);
+        kryo.register(RpcHeader.class, 102);
+        kryo.register(Class[].class, 103);
+        kryo.register(Object[].class, 104);
+        kryo.register(String[].class, 105);
+        kryo.register(ArrayList.class, 106);
+        int id = USER_REGISTRATION_ID_START;
+        for (Class<?> clazz : REGISTERED_CLASSES) {
+            kryo.register(clazz, id++);
+        }
+        return kryo;
+    }
+
+    @Override
+    public String getType() {
+        return RpcConstants.SERIALIZATION_KRYO;
+    }
+
+    /**
+     * 将给定的对象序列化为字节数组
+     *
+     * @param obj 待序列化的对象
+     * @return 序列化后的字节数组
+     * @throws SerializerException 如果序列化过程中发生错误或对象为null，则抛出此异常
+     */
+    @Override
+    public <T> byte[] serialize(T obj) {
+        if (obj == null) {
+            throw new SerializerException("serialize object is null");
+        }
+        Kryo kryo = KRYO_POOL.obtain();
+        Output output = OUTPUT_POOL.obtain();
+        try {
+            kryo.writeObject(output, obj);
+            return output.toBytes();
+        } catch (Exception e) {
+            throw new SerializerException(e.getMessage(), e);
+        } finally {
+            freeOutput(output);
+            KRYO_POOL.free(kryo);
+        }
+    }
+
+    /**
+     * 将给定的对象直接序列化到ByteBuf中，Output的缓冲区作为写出时的暂存区
+     *
+     * @param obj 待序列化的对象
+     * @param out 出站缓冲区
+     * @throws SerializerException 如果序列化过程中发生错误或对象为null，则抛出此异常
+     */
+    @Override
+    public <T> void serialize(T obj, ByteBuf out) {
+        if (obj == null) {
+            throw new SerializerException("serialize object is null");
+        }
+        Kryo kryo = KRYO_POOL.obtain();
+        Output output = OUTPUT_POOL.obtain();
+        try {
+            output.setOutputStream(new ByteBufOutputStream(out));
+            kryo.writeObject(output, obj);
+            output.flush();
+        } catch (Exception e) {
+            throw new SerializerException(e.getMessage(), e);
+        } finally {
+            output.setOutputStream(null);
+            freeOutput(output);
+            KRYO_POOL.free(kryo);
+        }
+    }
+
+    /**
+     * 反序列化指定字节数据为指定类的对象
+     *
+     * @param data 字节数据
+     * @param cls  指定的类
+     * @return 反序列化后的对象
+     * @throws SerializerException 如果反序列化过程中发生异常，抛出此异常
+     */
+    @Override
+    public <T> T deserialize(byte[] data, Class<T> cls) {
+        if (data == null) {
+            throw new SerializerException("deserialize data is null");
+        }
+        return deserialize(ByteBuffer.wrap(data), cls);
+    }
+
+    /**
+     * 直接从ByteBuf中反序列化指定类的对象
+     * 单块内存的ByteBuf通过nioBuffer视图直接读取，不拷贝消息体，组合缓冲区通过ByteBufInputStream读取
+     *
+     * @param in  待反序列化的ByteBuf
+     * @param cls 指定的类
+     * @return 反序列化后的对象
+     * @throws SerializerException 如果反序列化过程中发生异常，抛出此异常
+     */
+    @Override
+    public <T> T deserialize(ByteBuf in, Class<T> cls) {
+        if (in == null) {
+            throw new SerializerException("deserialize data is null");
+        }
+        if (in.nioBufferCount() == 1) {
+            T result = deserialize(in.nioBuffer(), cls);
+            in.skipBytes(in.readableBytes());
+            return result;
+        }
+        Kryo kryo = KRYO_POOL.obtain();
+        ByteBufferInput input = INPUT_POOL.obtain();
+        try {
+            input.setInputStream(new ByteBufInputStream(in));
+            return kryo.readObject(input, cls);
+        } catch (Exception e) {
+            throw new SerializerException(e.getMessage(), e);
+        } finally {
+            input.setInputStream(null);
+            INPUT_POOL.free(input);
+            KRYO_POOL.free(kryo);
+        }
+    }
+
+    private <T> T deserialize(ByteBuffer buffer, Class<T> cls) {
+        Kryo kryo = KRYO_POOL.obtain();
+        ByteBufferInput input = INPUT_POOL.obtain();
+        // 借用调用方的缓冲区，使用完毕后需要替换为自带的缓冲区再归还对象池
+        ByteBuffer ownBuffer = input.getByteBuffer();
+        try {
+            input.setBuffer(buffer);
+            return kryo.readObject(input, cls);
+        } catch (Exception e) {
+            throw new SerializerException(e.getMessage(), e);
+        } finally {
+            input.setBuffer(ownBuffer == null ? EMPTY_BUFFER : ownBuffer);
+            INPUT_POOL.free(input);
+            KRYO_POOL.free(kryo);
+        }
+    }
+
+    private void freeOutput(Output output) {
+        if (output.getBuffer().length <= MAX_POOLED_BUFFER_SIZE) {
+            output.reset();
+            OUTPUT_POOL.free(output);
+        }
+    }
+}
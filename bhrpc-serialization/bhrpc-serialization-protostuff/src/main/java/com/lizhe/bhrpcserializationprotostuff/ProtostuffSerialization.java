@@ -0,0 +1,155 @@
+package com.lizhe.bhrpcserializationprotostuff;
+
+import com.dyuproject.protostuff.LinkedBuffer;
+import com.dyuproject.protostuff.ProtostuffIOUtil;
+import com.dyuproject.protostuff.Schema;
+import com.dyuproject.protostuff.runtime.RuntimeSchema;
+import com.lizhe.bhrpccommon.exception.SerializerException;
+import com.lizhe.bhrpcconstants.RpcConstants;
+import com.lizhe.bhrpcserialzationapi.Serialization;
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.ByteBufInputStream;
+import io.netty.buffer.ByteBufOutputStream;
+
+import java.io.IOException;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * ProtostuffSerialization
+ * {@code @description} Protostuff序列化实现类
+ * 1. 每个类的Schema只创建一次，缓存在ConcurrentHashMap中
+ * 2. 每个线程复用一个LinkedBuffer，避免每次序列化都重新分配缓冲区
+ * 3. RpcRequest中的Class<?>[] parameterTypes和Object[] parameters由运行时Schema按照字段的实际类型写入类型信息，反序列化后保持原有类型
+ *
+ * @author lizhe@joysuch.com
+ * {@code @date} 2025/3/5 上午9:42
+ * @version 1.0
+ */
+public class ProtostuffSerialization implements Serialization {
+
+    /**
+     * 类与Schema的映射关系
+     */
+    private static final Map<Class<?>, Schema<?>> SCHEMA_CACHE = new ConcurrentHashMap<>();
+
+    /**
+     * 线程复用的LinkedBuffer，每次使用后需要clear
+     */
+    private static final ThreadLocal<LinkedBuffer> BUFFER_THREAD_LOCAL = ThreadLocal.withInitial(() -> LinkedBuffer.allocate(LinkedBuffer.DEFAULT_BUFFER_SIZE));
+
+    @Override
+    public String getType() {
+        return RpcConstants.SERIALIZATION_PROTOSTUFF;
+    }
+
+    /**
+     * 将给定的对象序列化为字节数组
+     *
+     * @param obj 待序列化的对象
+     * @return 序列化后的字节数组
+     * @throws SerializerException 如果序列化过程中发生错误或对象为null，则抛出此异常
+     */
+    @Override
+    public <T> byte[] serialize(T obj) {
+        if (obj == null) {
+            throw new SerializerException("serialize object is null");
+        }
+        Schema<T> schema = getSchema((Class<T>) obj.getClass());
+        LinkedBuffer buffer = BUFFER_THREAD_LOCAL.get();
+        try {
+            return ProtostuffIOUtil.toByteArray(obj, schema, buffer);
+        } catch (Exception e) {
+            throw new SerializerException(e.getMessage(), e);
+        } finally {
+            buffer.clear();
+        }
+    }
+
+    /**
+     * 将给定的对象直接序列化到ByteBuf中
+     *
+     * @param obj 待序列化的对象
+     * @param out 出站缓冲区
+     * @throws SerializerException 如果序列化过程中发生错误或对象为null，则抛出此异常
+     */
+    @Override
+    public <T> void serialize(T obj, ByteBuf out) {
+        if (obj == null) {
+            throw new SerializerException("serialize object is null");
+        }
+        Schema<T> schema = getSchema((Class<T>) obj.getClass());
+        LinkedBuffer buffer = BUFFER_THREAD_LOCAL.get();
+        try {
+            ProtostuffIOUtil.writeTo(new ByteBufOutputStream(out), obj, schema, buffer);
+        } catch (IOException e) {
+            throw new SerializerException(e.getMessage(), e);
+        } finally {
+            buffer.clear();
+        }
+    }
+
+    /**
+     * 反序列化指定字节数据为指定类的对象
+     *
+     * @param data 字节数据
+     * @param cls  指定的类
+     * @return 反序列化后的对象
+     * @throws SerializerException 如果反序列化过程中发生异常，抛出此异常
+     */
+    @Override
+    public <T> T deserialize(byte[] data, Class<T> cls) {
+        if (data == null) {
+            throw new SerializerException("deserialize data is null");
+        }
+        try {
+            Schema<T> schema = getSchema(cls);
+            T message = schema.newMessage();
+            ProtostuffIOUtil.mergeFrom(data, message, schema);
+            return message;
+        } catch (Exception e) {
+            throw new SerializerException(e.getMessage(), e);
+        }
+    }
+
+    /**
+     * 直接从ByteBuf中反序列化指定类的对象
+     * 堆内存缓冲区直接读取底层数组，堆外缓冲区通过ByteBufInputStream读取，均不拷贝消息体
+     *
+     * @param in  待反序列化的ByteBuf
+     * @param cls 指定的类
+     * @return 反序列化后的对象
+     * @throws SerializerException 如果反序列化过程中发生异常，抛出此异常
+     */
+    @Override
+    public <T> T deserialize(ByteBuf in, Class<T> cls) {
+        if (in == null) {
+            throw new SerializerException("deserialize data is null");
+        }
+        Schema<T> schema = getSchema(cls);
+        T message = schema.newMessage();
+        try {
+            if (in.hasArray()) {
+                ProtostuffIOUtil.mergeFrom(in.array(), in.arrayOffset() + in.readerIndex(), in.readableBytes(), message, schema);
+                in.skipBytes(in.readableBytes());
+            } else {
+                LinkedBuffer buffer = BUFFER_THREAD_LOCAL.get();
+                try {
+                    ProtostuffIOUtil.mergeFrom(new ByteBufInputStream(in), message, schema, buffer);
+                } finally {
+                    buffer.clear();
+                }
+            }
+            return message;
+        } catch (Exception e) {
+            throw new SerializerException(e.getMessage(), e);
+        }
+    }
+
+    /**
+     * 获取类对应的Schema，不存在时创建并缓存
+     */
+    private static <T> Schema<T> getSchema(Class<T> cls) {
+        return (Schema<T>) SCHEMA_CACHE.computeIfAbsent(cls, RuntimeSchema::createFrom);
+    }
+}
@@ -0,0 +1,103 @@
+package com.lizhe.bhrpctestbenchmark;
+
+import com.lizhe.bhrpcconstants.RpcConstants;
+import com.lizhe.bhrpcconsumercommon.future.RPCFuture;
+import com.lizhe.bhrpcconsumercommon.handle.RpcPendingTable;
+import com.lizhe.bhrpcprotocol.RpcProtocol;
+import com.lizhe.bhrpcprotocol.header.RpcHeader;
+import com.lizhe.bhrpcprotocol.request.RpcRequest;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * PendingTableBenchmark
+ * {@code @description} 等待响应请求表的基准测试，对比原来的ConcurrentHashMap<Long, RPCFuture>与RpcPendingTable
+ * 每次操作登记一个新请求并移除最早的请求，同时等待响应的请求数保持为outstanding，模拟连接上稳定的请求与响应
+ *
+ * @author lizhe@joysuch.com
+ * {@code @date} 2025/3/21 上午10:36
+ * @version 1.0
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class PendingTableBenchmark {
+
+    /**
+     * 预先创建的RPCFuture数量，请求ID循环使用
+     */
+    private static final int FUTURES = 1 << 16;
+
+    @Param({"16", "256", "1024"})
+    private int outstanding;
+
+    private RPCFuture[] futures;
+
+    private Map<Long, RPCFuture> map;
+
+    private RpcPendingTable table;
+
+    private int next;
+
+    @Setup
+    public void setup() {
+        futures = new RPCFuture[FUTURES];
+        for (int i = 0; i < FUTURES; i++) {
+            RpcHeader header = new RpcHeader();
+            header.setRequestId(i);
+            RpcProtocol<RpcRequest> protocol = new RpcProtocol<>();
+            protocol.setHeader(header);
+            protocol.setBody(new RpcRequest());
+            futures[i] = new RPCFuture(protocol, 0);
+        }
+        map = new ConcurrentHashMap<>();
+        table = new RpcPendingTable(RpcConstants.DEFAULT_CONSUMER_PENDING_SLOTS);
+        for (int i = 0; i < outstanding; i++) {
+            map.put((long) i, futures[i]);
+            table.put(i, futures[i]);
+        }
+        next = outstanding;
+    }
+
+    @Benchmark
+    public RPCFuture concurrentHashMap() {
+        int id = next;
+        next = (id + 1) & (FUTURES - 1);
+        map.put((long) id, futures[id]);
+        return map.remove((long) ((id - outstanding) & (FUTURES - 1)));
+    }
+
+    @Benchmark
+    public RPCFuture pendingTable() {
+        int id = next;
+        next = (id + 1) & (FUTURES - 1);
+        table.put(id, futures[id]);
+        return table.remove((id - outstanding) & (FUTURES - 1));
+    }
+
+    public static void main(String[] args) throws Exception {
+        Options options = new OptionsBuilder()
+                .include(PendingTableBenchmark.class.getSimpleName())
+                .build();
+        new Runner(options).run();
+    }
+}
@@ -0,0 +1,105 @@
+package com.lizhe.bhrpctestbenchmark;
+
+import com.lizhe.bhrpcannotation.RpcService;
+import com.lizhe.bhrpcconstants.RpcConstants;
+import com.lizhe.bhrpcprovidercommon.invoker.RpcInvokerTable;
+import com.lizhe.bhrpcprovidercommon.invoker.RpcMethodInvoker;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.ChainedOptionsBuilder;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.util.Collections;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * ProviderInvokerBenchmark
+ * {@code @description} 服务提供者调用服务方法的基准测试，对比各反射类型在服务启动时创建的方法调用器
+ * add为基本类型参数和返回值，需要拆箱和装箱；echo为引用类型参数和返回值
+ * cglib在JDK 9及以上版本需要开放java.lang包，main方法按运行的JDK版本添加--add-opens参数
+ *
+ * @author lizhe@joysuch.com
+ * {@code @date} 2025/3/27 下午2:30
+ * @version 1.0
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class ProviderInvokerBenchmark {
+
+    private static final String SERVICE_KEY = "calculator";
+
+    @Param({RpcConstants.REFLECT_TYPE_JDK, RpcConstants.REFLECT_TYPE_CGLIB, RpcConstants.REFLECT_TYPE_METHOD_HANDLE,
+            RpcConstants.REFLECT_TYPE_LAMBDA, RpcConstants.REFLECT_TYPE_JAVASSIST, RpcConstants.REFLECT_TYPE_GENERATED})
+    private String reflectType;
+
+    private RpcMethodInvoker addInvoker;
+
+    private RpcMethodInvoker echoInvoker;
+
+    private Object[] addParameters;
+
+    private Object[] echoParameters;
+
+    @Setup
+    public void setup() {
+        RpcInvokerTable table = RpcInvokerTable.create(reflectType, Collections.singletonMap(SERVICE_KEY, new CalculatorImpl()));
+        addInvoker = table.get(SERVICE_KEY, "add", new Class<?>[]{int.class, int.class});
+        echoInvoker = table.get(SERVICE_KEY, "echo", new Class<?>[]{String.class});
+        addParameters = new Object[]{17, 25};
+        echoParameters = new Object[]{"bhrpc"};
+    }
+
+    @Benchmark
+    public Object add() throws Throwable {
+        return addInvoker.invoke(addParameters);
+    }
+
+    @Benchmark
+    public Object echo() throws Throwable {
+        return echoInvoker.invoke(echoParameters);
+    }
+
+    public static void main(String[] args) throws Exception {
+        ChainedOptionsBuilder builder = new OptionsBuilder()
+                .include(ProviderInvokerBenchmark.class.getSimpleName());
+        if (!System.getProperty("java.specification.version").startsWith("1.")) {
+            builder.jvmArgsAppend("--add-opens=java.base/java.lang=ALL-UNNAMED");
+        }
+        new Runner(builder.build()).run();
+    }
+
+    public interface Calculator {
+
+        int add(int a, int b);
+
+        String echo(String value);
+    }
+
+    @RpcService(interfaceClass = Calculator.class)
+    public static class CalculatorImpl implements Calculator {
+
+        @Override
+        public int add(int a, int b) {
+            return a + b;
+        }
+
+        @Override
+        public String echo(String value) {
+            return value;
+        }
+    }
+}